@@ -12,6 +12,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -19,6 +20,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class MultiBridge extends JavaPlugin {
 
     private ExecutorService executor;
+    private ScheduledExecutorService scheduler;
     private BotManager botManager;
     private DiscordSRVHookListener hookListener;
     private MinecraftChatListener minecraftChatListener;
@@ -33,6 +35,11 @@ public class MultiBridge extends JavaPlugin {
         reloadConfig();
 
         ensureExecutor(readThreadPoolSize());
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "MultiBridge-Flush");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         botManager = new BotManager(this);
         minecraftChatListener = new MinecraftChatListener(this, botManager);
@@ -57,6 +64,9 @@ public class MultiBridge extends JavaPlugin {
         if (botManager != null) {
             botManager.shutdown();
         }
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
         if (executor != null) {
             executor.shutdownNow();
             try {
@@ -111,6 +121,10 @@ public class MultiBridge extends JavaPlugin {
         return executor;
     }
 
+    public ScheduledExecutorService getScheduler() {
+        return scheduler;
+    }
+
     public Set<String> getBroadcastTags() {
         return Collections.unmodifiableSet(broadcastTags);
     }
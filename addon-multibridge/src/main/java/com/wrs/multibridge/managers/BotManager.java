@@ -2,9 +2,11 @@ package com.wrs.multibridge.managers;
 
 import com.wrs.multibridge.MultiBridge;
 import com.wrs.multibridge.listeners.DiscordToMinecraftListener;
+import com.wrs.multibridge.managers.OutboundBuffer.OutboundMessage;
 import com.wrs.multibridge.utils.RateLimiter;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.objects.MessageFormat;
+import github.scarsz.discordsrv.objects.WebhookContext;
 import github.scarsz.discordsrv.util.DiscordUtil;
 import github.scarsz.discordsrv.util.MessageUtil;
 import github.scarsz.discordsrv.util.PlaceholderUtil;
@@ -36,6 +38,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 public class BotManager {
@@ -44,6 +47,7 @@ public class BotManager {
     private final DiscordToMinecraftListener discordToMinecraftListener;
     private final Map<String, BridgeBot> bots = new ConcurrentHashMap<>();
     private final Map<JDA, BridgeBot> jdaLookup = new ConcurrentHashMap<>();
+    private final Map<BridgeChannel, OutboundBuffer> buffers = new ConcurrentHashMap<>();
     private boolean lowMemoryMode;
     private int perBotRateLimit;
     private int mergeWindowMs;
@@ -89,7 +93,7 @@ public class BotManager {
                 continue;
             }
 
-            BridgeBot bot = new BridgeBot(name, guildName, channels, new RateLimiter(perBotRateLimit, mergeWindowMs));
+            BridgeBot bot = new BridgeBot(name, guildName, channels, new RateLimiter(perBotRateLimit, 1000L));
             bots.put(name.toLowerCase(), bot);
 
             startAdditionalBot(bot, token);
@@ -169,16 +173,25 @@ public class BotManager {
         }
         jda.removeEventListener(discordToMinecraftListener);
         jda.addEventListener(discordToMinecraftListener);
+        bot.setWebhookContext(WebhookContext.forJda("MultiBridge " + bot.getName() + " Webhook Delivery", jda));
         bot.setJda(jda);
         jdaLookup.put(jda, bot);
     }
 
     public void shutdown() {
+        // hand whatever is still within its merge window to JDA & the webhook queues before those shut down
+        buffers.values().forEach(OutboundBuffer::drain);
+        buffers.clear();
         bots.values().forEach(bot -> {
             JDA jda = bot.getJda();
             if (jda != null) {
                 jda.removeEventListener(discordToMinecraftListener);
-                jda.shutdownNow();
+                // unlike shutdownNow, this still executes the messages queued above
+                jda.shutdown();
+            }
+            WebhookContext webhookContext = bot.getWebhookContext();
+            if (webhookContext != null) {
+                webhookContext.shutdown(5, TimeUnit.SECONDS);
             }
         });
         bots.clear();
@@ -209,9 +222,6 @@ public class BotManager {
                 if (!shouldSendToChannel(channel, tags)) {
                     continue;
                 }
-                if (!bot.tryAcquire()) {
-                    continue;
-                }
                 plugin.getExecutor().execute(() -> sendChatToDiscord(bot, channel, player, processedMessage, sourceChannel));
             }
         }
@@ -223,9 +233,6 @@ public class BotManager {
                 if (!shouldSendToChannel(channel, tags)) {
                     continue;
                 }
-                if (!bot.tryAcquire()) {
-                    continue;
-                }
                 plugin.getExecutor().execute(() -> sendFormattedMessage(bot, channel,
                         event.getDiscordMessage().getContentRaw(), event.getDiscordMessage().getEmbeds(),
                         event.isUsingWebhooks(), event.getWebhookName(), event.getWebhookAvatarUrl(), event.getChannel()));
@@ -239,9 +246,6 @@ public class BotManager {
                 if (!shouldSendToChannel(channel, tags)) {
                     continue;
                 }
-                if (!bot.tryAcquire()) {
-                    continue;
-                }
                 plugin.getExecutor().execute(() -> sendFormattedMessage(bot, channel,
                         event.getDiscordMessage().getContentRaw(), event.getDiscordMessage().getEmbeds(),
                         event.isUsingWebhooks(), event.getWebhookName(), event.getWebhookAvatarUrl(), event.getChannel()));
@@ -258,9 +262,6 @@ public class BotManager {
                 if (!shouldSendToChannel(channel, plugin.getBroadcastTags())) {
                     continue;
                 }
-                if (!bot.tryAcquire()) {
-                    continue;
-                }
                 plugin.getExecutor().execute(() -> sendMessageFormat(bot, channel, player, joinMessage, format));
             }
         }
@@ -275,9 +276,6 @@ public class BotManager {
                 if (!shouldSendToChannel(channel, plugin.getBroadcastTags())) {
                     continue;
                 }
-                if (!bot.tryAcquire()) {
-                    continue;
-                }
                 plugin.getExecutor().execute(() -> sendMessageFormat(bot, channel, player, quitMessage, format));
             }
         }
@@ -328,10 +326,9 @@ public class BotManager {
         String channelPrefix = isNotBlank(sourceChannel) ? "[" + sourceChannel + "] " : "";
         String payload = prefix + channelPrefix + processedMessage;
         if (DiscordSRV.config().getBoolean("Experiment_WebhookChatMessageDelivery")) {
-            WebhookUtil.deliverMessage(textChannel, player, payload);
+            enqueue(bot, channel, OutboundMessage.playerWebhook(player, payload));
         } else {
-            textChannel.sendMessage(payload).queue(null, throwable ->
-                    plugin.getLogger().log(Level.WARNING, "Failed to send chat message to channel " + channel.getId() + " for bot '" + bot.getName() + "'", throwable));
+            enqueue(bot, channel, OutboundMessage.bot(payload, null));
         }
     }
 
@@ -346,18 +343,10 @@ public class BotManager {
         String payload = prefix + channelPrefix + defaultString(content);
         MessageEmbed embed = embeds.stream().findFirst().orElse(null);
         if (usingWebhooks) {
-            WebhookUtil.deliverMessage(textChannel, webhookName, webhookAvatarUrl, payload, embed);
-            return;
-        }
-        MessageBuilder builder = new MessageBuilder();
-        if (isNotBlank(payload)) {
-            builder.setContent(payload);
-        }
-        if (embed != null) {
-            builder.setEmbed(embed);
+            enqueue(bot, channel, OutboundMessage.webhook(webhookName, webhookAvatarUrl, payload, embed));
+        } else {
+            enqueue(bot, channel, OutboundMessage.bot(payload, embed));
         }
-        textChannel.sendMessage(builder.build()).queue(null, throwable ->
-                plugin.getLogger().log(Level.WARNING, "Failed to send formatted message to channel " + channel.getId() + " for bot '" + bot.getName() + "'", throwable));
     }
 
     private void sendMessageFormat(BridgeBot bot, BridgeChannel channel, Player player, String message, MessageFormat format) {
@@ -400,18 +389,42 @@ public class BotManager {
         MessageEmbed embed = discordMessage.getEmbeds().stream().findFirst().orElse(null);
 
         if (format.isUseWebhooks()) {
-            WebhookUtil.deliverMessage(textChannel, webhookName, webhookAvatar, payload, embed);
+            enqueue(bot, channel, OutboundMessage.webhook(webhookName, webhookAvatar, payload, embed));
         } else {
-            MessageBuilder builder = new MessageBuilder();
-            if (isNotBlank(payload)) {
-                builder.setContent(payload);
-            }
-            if (embed != null) {
-                builder.setEmbed(embed);
+            enqueue(bot, channel, OutboundMessage.bot(payload, embed));
+        }
+    }
+
+    private void enqueue(BridgeBot bot, BridgeChannel channel, OutboundMessage message) {
+        buffers.computeIfAbsent(channel, key -> new OutboundBuffer(bot, key, plugin.getScheduler(), mergeWindowMs,
+                merged -> deliver(bot, key, merged), plugin.getLogger())).enqueue(message);
+    }
+
+    private void deliver(BridgeBot bot, BridgeChannel channel, OutboundMessage message) {
+        TextChannel textChannel = resolveChannel(bot, channel);
+        if (textChannel == null) {
+            return;
+        }
+        if (message.isWebhook()) {
+            if (message.getPlayer() != null) {
+                WebhookUtil.deliverMessage(bot.getWebhookContext(), textChannel, message.getPlayer(), message.getContent());
+            } else {
+                WebhookUtil.deliverMessage(bot.getWebhookContext(), textChannel, message.getWebhookName(), message.getWebhookAvatarUrl(), message.getContent(), message.getEmbed());
             }
-            textChannel.sendMessage(builder.build()).queue(null, throwable ->
-                    plugin.getLogger().log(Level.WARNING, "Failed to send message format to channel " + channel.getId() + " for bot '" + bot.getName() + "'", throwable));
+            return;
+        }
+        MessageBuilder builder = new MessageBuilder();
+        if (isNotBlank(message.getContent())) {
+            builder.setContent(message.getContent());
         }
+        if (message.getEmbed() != null) {
+            builder.setEmbed(message.getEmbed());
+        }
+        if (builder.isEmpty()) {
+            return;
+        }
+        textChannel.sendMessage(builder.build()).queue(null, throwable ->
+                plugin.getLogger().log(Level.WARNING, "Failed to send message to channel " + channel.getId() + " for bot '" + bot.getName() + "'", throwable));
     }
 
     private TextChannel resolveChannel(BridgeBot bot, BridgeChannel channel) {
@@ -444,6 +457,7 @@ public class BotManager {
         private final List<BridgeChannel> channels;
         private final RateLimiter rateLimiter;
         private volatile JDA jda;
+        private volatile WebhookContext webhookContext;
 
         public BridgeBot(String name, String guildName, List<BridgeChannel> channels, RateLimiter rateLimiter) {
             this.name = name;
@@ -472,6 +486,10 @@ public class BotManager {
             return rateLimiter.tryAcquire();
         }
 
+        public long millisUntilAvailable() {
+            return rateLimiter.millisUntilAvailable();
+        }
+
         public JDA getJda() {
             return jda;
         }
@@ -479,6 +497,17 @@ public class BotManager {
         public void setJda(JDA jda) {
             this.jda = jda;
         }
+
+        /**
+         * @return the context this bot executes webhooks with, using its own HTTP client, webhook cache &amp; rate limits
+         */
+        public WebhookContext getWebhookContext() {
+            return webhookContext;
+        }
+
+        public void setWebhookContext(WebhookContext webhookContext) {
+            this.webhookContext = webhookContext;
+        }
     }
 
     public static class BridgeChannel {
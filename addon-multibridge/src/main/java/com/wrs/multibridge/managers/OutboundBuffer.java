@@ -0,0 +1,227 @@
+package com.wrs.multibridge.managers;
+
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.bukkit.entity.Player;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Collects the outgoing messages of one bot for one channel for up to the merge window, then joins consecutive
+ * compatible messages into as few Discord messages as the length limit allows. Every flushed message takes a token
+ * from the bot's rate limiter; when none are left the rest stays buffered (and keeps merging) until one is available.
+ * Once {@value #MAX_PENDING} messages are waiting, new messages are merged into the last one where possible; anything
+ * that can't be merged pushes out the oldest waiting message, which is logged on the next flush.
+ */
+public class OutboundBuffer {
+
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final int MAX_PENDING = 500;
+
+    private final BotManager.BridgeBot bot;
+    private final BotManager.BridgeChannel channel;
+    private final ScheduledExecutorService scheduler;
+    private final long mergeWindowMs;
+    private final Consumer<OutboundMessage> sender;
+    private final Logger logger;
+    private final Deque<OutboundMessage> pending = new ArrayDeque<>();
+    private ScheduledFuture<?> scheduledFlush;
+    private int dropped;
+
+    public OutboundBuffer(BotManager.BridgeBot bot, BotManager.BridgeChannel channel, ScheduledExecutorService scheduler,
+                          long mergeWindowMs, Consumer<OutboundMessage> sender, Logger logger) {
+        this.bot = bot;
+        this.channel = channel;
+        this.scheduler = scheduler;
+        this.mergeWindowMs = Math.max(1L, mergeWindowMs);
+        this.sender = sender;
+        this.logger = logger;
+    }
+
+    public synchronized void enqueue(OutboundMessage message) {
+        if (pending.size() >= MAX_PENDING) {
+            OutboundMessage last = pending.peekLast();
+            if (last.canMergeWith(message) && last.getContent().length() + 1 + message.getContent().length() <= MAX_MESSAGE_LENGTH) {
+                pending.pollLast();
+                pending.addLast(last.withContent(last.getContent() + '\n' + message.getContent()));
+                return;
+            }
+            pending.pollFirst();
+            dropped++;
+        }
+        pending.addLast(message);
+        if (scheduledFlush == null) {
+            scheduleFlush(mergeWindowMs);
+        }
+    }
+
+    /**
+     * Send everything that's still waiting right away, without waiting for the merge window or the rate limiter.
+     * Used on shutdown &amp; reload, so the messages reach the delivery queues before they are drained.
+     */
+    public void drain() {
+        List<OutboundMessage> ready = new ArrayList<>();
+        int droppedMessages;
+        synchronized (this) {
+            if (scheduledFlush != null) {
+                scheduledFlush.cancel(false);
+                scheduledFlush = null;
+            }
+            while (!pending.isEmpty()) {
+                ready.add(pollMerged());
+            }
+            droppedMessages = dropped;
+            dropped = 0;
+        }
+        send(ready, droppedMessages);
+    }
+
+    public synchronized int getPendingCount() {
+        return pending.size();
+    }
+
+    private void flush() {
+        List<OutboundMessage> ready = new ArrayList<>();
+        int droppedMessages;
+        synchronized (this) {
+            scheduledFlush = null;
+            long retryInMs = 0L;
+            while (!pending.isEmpty()) {
+                if (!bot.tryAcquire()) {
+                    retryInMs = bot.millisUntilAvailable();
+                    break;
+                }
+                ready.add(pollMerged());
+            }
+            if (!pending.isEmpty()) {
+                scheduleFlush(Math.max(retryInMs, mergeWindowMs));
+            }
+            droppedMessages = dropped;
+            dropped = 0;
+        }
+        send(ready, droppedMessages);
+    }
+
+    private void send(List<OutboundMessage> ready, int droppedMessages) {
+        if (droppedMessages > 0) {
+            logger.warning("Dropped " + droppedMessages + " queued message(s) for channel " + channel.getId() + " of bot '" + bot.getName() + "' because its rate limit couldn't keep up.");
+        }
+        for (OutboundMessage message : ready) {
+            try {
+                sender.accept(message);
+            } catch (RuntimeException ex) {
+                logger.log(Level.WARNING, "Failed to deliver message to channel " + channel.getId() + " for bot '" + bot.getName() + "'", ex);
+            }
+        }
+    }
+
+    private OutboundMessage pollMerged() {
+        OutboundMessage first = pending.pollFirst();
+        if (!first.isMergeable() || pending.isEmpty()) {
+            return first;
+        }
+        StringBuilder content = new StringBuilder(first.getContent());
+        while (!pending.isEmpty()) {
+            OutboundMessage next = pending.peekFirst();
+            if (!first.canMergeWith(next) || content.length() + 1 + next.getContent().length() > MAX_MESSAGE_LENGTH) {
+                break;
+            }
+            content.append('\n').append(next.getContent());
+            pending.pollFirst();
+        }
+        return content.length() == first.getContent().length() ? first : first.withContent(content.toString());
+    }
+
+    private void scheduleFlush(long delayMs) {
+        try {
+            scheduledFlush = scheduler.schedule(this::flush, delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException ex) {
+            // shutting down
+            pending.clear();
+        }
+    }
+
+    public static class OutboundMessage {
+        private final String content;
+        private final MessageEmbed embed;
+        private final boolean webhook;
+        private final Player player;
+        private final String webhookName;
+        private final String webhookAvatarUrl;
+
+        private OutboundMessage(String content, MessageEmbed embed, boolean webhook, Player player, String webhookName, String webhookAvatarUrl) {
+            this.content = content == null ? "" : content;
+            this.embed = embed;
+            this.webhook = webhook;
+            this.player = player;
+            this.webhookName = webhookName;
+            this.webhookAvatarUrl = webhookAvatarUrl;
+        }
+
+        public static OutboundMessage bot(String content, MessageEmbed embed) {
+            return new OutboundMessage(content, embed, false, null, null, null);
+        }
+
+        public static OutboundMessage playerWebhook(Player player, String content) {
+            return new OutboundMessage(content, null, true, player, null, null);
+        }
+
+        public static OutboundMessage webhook(String webhookName, String webhookAvatarUrl, String content, MessageEmbed embed) {
+            return new OutboundMessage(content, embed, true, null, webhookName, webhookAvatarUrl);
+        }
+
+        public String getContent() {
+            return content;
+        }
+
+        public MessageEmbed getEmbed() {
+            return embed;
+        }
+
+        public boolean isWebhook() {
+            return webhook;
+        }
+
+        public Player getPlayer() {
+            return player;
+        }
+
+        public String getWebhookName() {
+            return webhookName;
+        }
+
+        public String getWebhookAvatarUrl() {
+            return webhookAvatarUrl;
+        }
+
+        public boolean isMergeable() {
+            return embed == null && !content.trim().isEmpty();
+        }
+
+        /**
+         * Messages can only be joined if they'd look the same apart from their content,
+         * i.e. the same kind of delivery and, for webhooks, the same author.
+         */
+        public boolean canMergeWith(OutboundMessage other) {
+            return isMergeable() && other.isMergeable()
+                    && webhook == other.webhook
+                    && (player == null ? other.player == null : other.player != null && player.getUniqueId().equals(other.player.getUniqueId()))
+                    && Objects.equals(webhookName, other.webhookName)
+                    && Objects.equals(webhookAvatarUrl, other.webhookAvatarUrl);
+        }
+
+        private OutboundMessage withContent(String content) {
+            return new OutboundMessage(content, embed, webhook, player, webhookName, webhookAvatarUrl);
+        }
+    }
+}
@@ -23,6 +23,14 @@ public class RateLimiter {
         return false;
     }
 
+    public synchronized long millisUntilAvailable() {
+        refill();
+        if (tokens >= 1.0D) {
+            return 0L;
+        }
+        return (long) Math.ceil(((1.0D - tokens) / maxTokens) * refillIntervalMs);
+    }
+
     public synchronized void reset() {
         tokens = maxTokens;
         lastRefill = System.currentTimeMillis();
@@ -11,6 +11,7 @@ plugins {
     id("net.kyori.indra.git") version "2.1.1"
     id("net.researchgate.release") version "3.0.2"
     id("xyz.jpenilla.run-paper") version "2.3.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "com.discordsrv"
@@ -300,6 +301,16 @@ dependencies {
     testImplementation("org.junit.jupiter:junit-jupiter-api:5.9.0")
     testRuntimeOnly("org.junit.jupiter:junit-jupiter-engine:5.9.0")
     testImplementation("io.papermc.paper:paper-api:${minecraftVersion}-R0.1-SNAPSHOT")
+
+    // JMH
+    jmh("io.papermc.paper:paper-api:${minecraftVersion}-R0.1-SNAPSHOT")
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    // ./gradlew jmh -Pjmh.includes=MessageUtilBenchmark to run a single benchmark class
+    project.findProperty("jmh.includes")?.let { includes.add(it.toString()) }
+    resultFormat.set("JSON")
 }
 
 tasks {
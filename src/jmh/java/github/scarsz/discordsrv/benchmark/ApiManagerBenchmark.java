@@ -0,0 +1,90 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.benchmark;
+
+import github.scarsz.discordsrv.api.ApiManager;
+import github.scarsz.discordsrv.api.ListenerPriority;
+import github.scarsz.discordsrv.api.Subscribe;
+import github.scarsz.discordsrv.api.events.DiscordReadyEvent;
+import github.scarsz.discordsrv.api.events.GameChatMessagePreProcessEvent;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ApiManager#callEvent} with a varying amount of subscribed listeners, as is paid for every chat message.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ApiManagerBenchmark {
+
+    @Param({"1", "15", "50"})
+    public int listeners;
+
+    private ApiManager apiManager;
+    private Player player;
+    private Component message;
+
+    @Setup
+    public void setup() {
+        BenchmarkServer.install();
+        apiManager = new ApiManager();
+        for (int i = 0; i < listeners; i++) {
+            apiManager.subscribe(new ChatListener());
+        }
+        player = BenchmarkServer.stub(Player.class);
+        message = Component.text("hello there, how is everyone doing today?");
+    }
+
+    @Benchmark
+    public void callEvent(Blackhole blackhole) {
+        blackhole.consume(apiManager.callEvent(new GameChatMessagePreProcessEvent("global", message, player, null)));
+    }
+
+    public static class ChatListener {
+
+        private int received;
+
+        @Subscribe
+        public void onChatPreProcess(GameChatMessagePreProcessEvent event) {
+            received++;
+        }
+
+        @Subscribe(priority = ListenerPriority.MONITOR)
+        public void onChatPreProcessMonitor(GameChatMessagePreProcessEvent event) {
+            received++;
+        }
+
+        @Subscribe
+        public void onReady(DiscordReadyEvent event) {
+            received++;
+        }
+
+    }
+
+}
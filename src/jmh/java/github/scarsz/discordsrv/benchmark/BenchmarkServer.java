@@ -0,0 +1,84 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.benchmark;
+
+import org.bukkit.Bukkit;
+import org.bukkit.Server;
+
+import java.lang.reflect.Proxy;
+import java.util.*;
+import java.util.logging.Logger;
+
+/**
+ * Installs a do-nothing {@link Server} into {@link Bukkit} so utilities that consult the server
+ * (plugin lookups, loggers, etc.) can be benchmarked outside of a running server.
+ */
+public final class BenchmarkServer {
+
+    private static final Logger LOGGER = Logger.getLogger("DiscordSRV-Benchmark");
+    private static boolean installed = false;
+
+    private BenchmarkServer() {}
+
+    public static synchronized void install() {
+        if (installed || Bukkit.getServer() != null) return;
+        Bukkit.setServer(stub(Server.class));
+        installed = true;
+    }
+
+    /**
+     * Creates a proxy of the given interface where every method returns an "empty" value for its return type
+     * @param type the interface to stub
+     * @return the stub
+     */
+    @SuppressWarnings("unchecked")
+    public static <T> T stub(Class<T> type) {
+        return (T) Proxy.newProxyInstance(BenchmarkServer.class.getClassLoader(), new Class[] {type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "equals": return proxy == args[0];
+                case "hashCode": return System.identityHashCode(proxy);
+                case "toString": return type.getSimpleName() + "Stub";
+            }
+            return emptyValue(method.getReturnType());
+        });
+    }
+
+    private static Object emptyValue(Class<?> returnType) {
+        if (returnType == void.class) return null;
+        if (returnType == boolean.class) return false;
+        if (returnType == int.class) return 0;
+        if (returnType == long.class) return 0L;
+        if (returnType == double.class) return 0D;
+        if (returnType == float.class) return 0F;
+        if (returnType == short.class) return (short) 0;
+        if (returnType == byte.class) return (byte) 0;
+        if (returnType == char.class) return (char) 0;
+        if (returnType == String.class) return "";
+        if (returnType == Logger.class) return LOGGER;
+        if (returnType == List.class || returnType == Collection.class || returnType == Iterable.class) return Collections.emptyList();
+        if (returnType == Set.class) return Collections.emptySet();
+        if (returnType == Map.class) return Collections.emptyMap();
+        if (returnType.isArray()) return java.lang.reflect.Array.newInstance(returnType.getComponentType(), 0);
+        if (returnType.isInterface()) return stub(returnType);
+        return null;
+    }
+
+}
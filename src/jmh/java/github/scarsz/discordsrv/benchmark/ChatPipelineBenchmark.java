@@ -0,0 +1,129 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.benchmark;
+
+import github.scarsz.discordsrv.api.ApiManager;
+import github.scarsz.discordsrv.api.Subscribe;
+import github.scarsz.discordsrv.api.events.GameChatMessagePostProcessEvent;
+import github.scarsz.discordsrv.api.events.GameChatMessagePreProcessEvent;
+import github.scarsz.discordsrv.objects.MentionIndex;
+import github.scarsz.discordsrv.objects.MessageTemplate;
+import github.scarsz.discordsrv.objects.RegexFilterChain;
+import github.scarsz.discordsrv.util.DiscordUtil;
+import github.scarsz.discordsrv.util.MessageUtil;
+import net.kyori.adventure.text.Component;
+import org.bukkit.entity.Player;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * <p>A chat line going from Minecraft to Discord (without webhooks), stage by stage in the order of
+ * {@code DiscordSRV#processChatMessage}: pre-process event, conversion to Discord text, regex filters, mentions,
+ * the message format, filters on the formatted message &amp; post-process event.</p>
+ * <p>processChatMessage itself can't be called here, DiscordSRV only loads under a PluginClassLoader. The steps that
+ * need the plugin or a server (permission &amp; hook checks, Vault, PlaceholderAPI &amp; the send) are left out.</p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ChatPipelineBenchmark {
+
+    private static final String FORMAT = "**%primarygroup%** %displayname% » %message%";
+
+    @Param({
+            "hello there, how is everyone doing today?",
+            "&aGreen &lbold &r@member500 check out https://discordsrv.com and badword3x"
+    })
+    public String message;
+
+    private ApiManager apiManager;
+    private MentionIndex mentionIndex;
+    private RegexFilterChain filters;
+    private Player player;
+    private Component component;
+
+    @Setup
+    public void setup() {
+        BenchmarkServer.install();
+        apiManager = new ApiManager();
+        apiManager.subscribe(new ChatListener());
+
+        mentionIndex = new MentionIndex();
+        for (int i = 0; i < 25; i++) mentionIndex.put("role" + i, "Role " + i, "<@&role" + i + ">", false);
+        for (int i = 0; i < 1000; i++) mentionIndex.put(Integer.toString(i), "Member" + i, "<@" + i + ">", true);
+
+        Map<Pattern, String> rules = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) rules.put(Pattern.compile("badword" + i + "x"), "***");
+        rules.put(Pattern.compile("https?://\\S+"), "<link>");
+        rules.put(Pattern.compile("(\\d{1,3}\\.){3}\\d{1,3}"), "<ip>");
+        filters = new RegexFilterChain(rules);
+
+        player = BenchmarkServer.stub(Player.class);
+        component = MessageUtil.toComponent(MessageUtil.translateLegacy(message));
+    }
+
+    @Benchmark
+    public String toDiscord() {
+        GameChatMessagePreProcessEvent preEvent = apiManager.callEvent(new GameChatMessagePreProcessEvent("global", component, player, null));
+        if (preEvent.isCancelled()) return null;
+
+        String content = MessageUtil.strip(MessageUtil.toLegacy(preEvent.getMessageComponent()));
+        content = mentionIndex.resolve(content);
+
+        String pattern = MessageTemplate.of(FORMAT).render(placeholder -> {
+            switch (placeholder) {
+                case "displayname": return DiscordUtil.escapeMarkdown("Scarsz");
+                case "primarygroup": return "Admin";
+                default: return null;
+            }
+        });
+        pattern = MessageUtil.strip(pattern).replace("%message%", content);
+        pattern = filters.filter(pattern, cleared -> {});
+        if (pattern == null) return null;
+
+        GameChatMessagePostProcessEvent postEvent = apiManager.callEvent(new GameChatMessagePostProcessEvent("global", pattern, player, false, null));
+        return postEvent.isCancelled() ? null : postEvent.getProcessedMessage();
+    }
+
+    public static class ChatListener {
+
+        private int received;
+
+        @Subscribe
+        public void onChatPreProcess(GameChatMessagePreProcessEvent event) {
+            received++;
+        }
+
+        @Subscribe
+        public void onChatPostProcess(GameChatMessagePostProcessEvent event) {
+            received++;
+        }
+
+    }
+
+}
@@ -0,0 +1,63 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.benchmark;
+
+import github.scarsz.discordsrv.objects.MentionIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Converting {@code @name}s in a chat line to mentions with guilds of increasing member counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MentionIndexBenchmark {
+
+    @Param({"1000", "10000", "100000"})
+    public int members;
+
+    private MentionIndex index;
+    private String message;
+
+    @Setup
+    public void setup() {
+        index = new MentionIndex();
+        for (int i = 0; i < 25; i++) index.put("role" + i, "Role " + i, "<@&role" + i + ">", false);
+        for (int i = 0; i < members; i++) index.put(Integer.toString(i), "Member" + i, "<@" + i + ">", true);
+        message = "hey @member" + (members / 2) + " and @Role 3, did you see what @nobody said to <@" + (members - 1) + ">?";
+    }
+
+    @Benchmark
+    public String resolve() {
+        return index.resolve(message);
+    }
+
+    @Benchmark
+    public String resolveWithoutMentions() {
+        return index.resolve("just a regular chat message without any mentions in it at all");
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.benchmark;
+
+import github.scarsz.discordsrv.util.MessageUtil;
+import net.kyori.adventure.text.Component;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-chat-line message conversions: legacy/MiniMessage to Discord markdown, to legacy and color stripping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MessageUtilBenchmark {
+
+    @Param({
+            "hello there, how is everyone doing today?",
+            "&aGreen &lbold &r&cred with a link https://discordsrv.com and **markdown**",
+            "<blue>mini <bold>message</bold></blue> with <#ff00aa>hex colors</#ff00aa> and &eleg&6acy"
+    })
+    public String message;
+
+    private Component component;
+    private String legacy;
+
+    @Setup
+    public void setup() {
+        BenchmarkServer.install();
+        component = MessageUtil.toComponent(message);
+        legacy = MessageUtil.translateLegacy(message);
+    }
+
+    @Benchmark
+    public String reserializeToDiscord() {
+        return MessageUtil.reserializeToDiscord(component);
+    }
+
+    @Benchmark
+    public String toLegacy() {
+        return MessageUtil.toLegacy(component);
+    }
+
+    @Benchmark
+    public String strip() {
+        return MessageUtil.strip(legacy);
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.benchmark;
+
+import github.scarsz.discordsrv.objects.RegexFilterChain;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * The regex filtering stage of every chat line with an increasing amount of configured filters, half of them plain
+ * words (which {@link RegexFilterChain} merges into one pass) &amp; half real regexes,
+ * compared to applying every pattern in turn as was done before the chain.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegexFilterChainBenchmark {
+
+    @Param({"2", "10", "50"})
+    public int filters;
+
+    @Param({
+            "hello there, how is everyone doing today?",
+            "check out https://discordsrv.com, badword2x and 192.168.1.1 @everyone"
+    })
+    public String message;
+
+    private RegexFilterChain chain;
+    private Map<Pattern, String> rules;
+
+    @Setup
+    public void setup() {
+        rules = new LinkedHashMap<>();
+        // plain words (merged into a single pass by the chain) followed by real regexes
+        for (int i = 0; i < filters / 2; i++) {
+            rules.put(Pattern.compile("badword" + i + "x"), "***"); // suffixed so no word contains another
+        }
+        for (int i = filters / 2; i < filters; i++) {
+            switch (i % 3) {
+                case 0: rules.put(Pattern.compile("https?://\\S+"), "<link>"); break;
+                case 1: rules.put(Pattern.compile("(\\d{1,3}\\.){3}\\d{1,3}"), "<ip>"); break;
+                default: rules.put(Pattern.compile("@(everyone|here)"), "@\u200B$1"); break;
+            }
+        }
+        chain = new RegexFilterChain(rules);
+    }
+
+    @Benchmark
+    public String chain() {
+        return chain.filter(message, pattern -> {});
+    }
+
+    @Benchmark
+    public String patternByPattern() {
+        String output = message;
+        for (Map.Entry<Pattern, String> entry : rules.entrySet()) {
+            output = entry.getKey().matcher(output).replaceAll(entry.getValue());
+            if (output.trim().isEmpty()) return null;
+        }
+        return output;
+    }
+
+}
@@ -43,8 +43,20 @@ import github.scarsz.discordsrv.modules.alerts.AlertListener;
 import github.scarsz.discordsrv.modules.requirelink.RequireLinkModule;
 import github.scarsz.discordsrv.modules.voice.VoiceModule;
 import github.scarsz.discordsrv.objects.CancellationDetector;
+import github.scarsz.discordsrv.objects.ExpiringDualHashBidiMap;
+import github.scarsz.discordsrv.objects.ConfigSnapshot;
 import github.scarsz.discordsrv.objects.Lag;
+import github.scarsz.discordsrv.objects.LinkedMemberCachePolicy;
 import github.scarsz.discordsrv.objects.MessageFormat;
+import github.scarsz.discordsrv.objects.MessageTemplate;
+import github.scarsz.discordsrv.objects.OnlinePlayerRegistry;
+import github.scarsz.discordsrv.objects.PipelineMetrics;
+import github.scarsz.discordsrv.objects.PlayerListCache;
+import github.scarsz.discordsrv.objects.RegexFilterChain;
+import github.scarsz.discordsrv.objects.TaskScheduler;
+import github.scarsz.discordsrv.objects.TotalPlayerCounter;
+import github.scarsz.discordsrv.objects.WebhookContext;
+import github.scarsz.discordsrv.objects.WebhookDeliveryQueue;
 import github.scarsz.discordsrv.objects.log4j.JdaFilter;
 import github.scarsz.discordsrv.objects.managers.AccountLinkManager;
 import github.scarsz.discordsrv.objects.managers.CommandManager;
@@ -71,6 +83,7 @@ import net.dv8tion.jda.api.requests.CloseCode;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import net.dv8tion.jda.api.requests.RestAction;
 import net.dv8tion.jda.api.requests.restaction.MessageAction;
+import net.dv8tion.jda.api.utils.ChunkingFilter;
 import net.dv8tion.jda.api.utils.MemberCachePolicy;
 import net.dv8tion.jda.api.utils.cache.CacheFlag;
 import net.kyori.adventure.text.Component;
@@ -156,6 +169,10 @@ public class DiscordSRV extends JavaPlugin {
     @Getter private CommandManager commandManager = new CommandManager();
     @Getter private GroupSynchronizationManager groupSynchronizationManager = new GroupSynchronizationManager();
     @Getter private IncompatibleClientManager incompatibleClientManager = new IncompatibleClientManager();
+    @Getter private OnlinePlayerRegistry onlinePlayerRegistry;
+    @Getter private final PlayerListCache playerListCache = new PlayerListCache();
+    @Getter private final WebhookContext webhookContext = new WebhookContext("Webhook Delivery", () -> getJda().getHttpClient());
+    @Getter private final WebhookDeliveryQueue webhookDeliveryQueue = webhookContext.getDeliveryQueue();
 
     // Threads
     @Getter private ChannelTopicUpdater channelTopicUpdater;
@@ -163,7 +180,8 @@ public class DiscordSRV extends JavaPlugin {
     @Getter private NicknameUpdater nicknameUpdater;
     @Getter private PresenceUpdater presenceUpdater;
     @Getter private ServerWatchdog serverWatchdog;
-    @Getter private ScheduledExecutorService updateChecker = null;
+    @Getter private final TaskScheduler taskScheduler = new TaskScheduler();
+    @Getter private TotalPlayerCounter totalPlayerCounter = null;
 
     // Modules
     @Getter private AlertListener alertListener = null;
@@ -177,7 +195,13 @@ public class DiscordSRV extends JavaPlugin {
     @Getter private final Map<Pattern, String> gameRegexes = new LinkedHashMap<>();
     @Getter private final Map<Pattern, String> discordRegexes = new LinkedHashMap<>();
     @Getter private final Map<Pattern, String> webhookUsernameRegexes = new LinkedHashMap<>();
+    // compiled from the maps above on reload, these are what messages are actually filtered with
+    @Getter private volatile RegexFilterChain consoleFilters = RegexFilterChain.EMPTY;
+    @Getter private volatile RegexFilterChain gameFilters = RegexFilterChain.EMPTY;
+    @Getter private volatile RegexFilterChain discordFilters = RegexFilterChain.EMPTY;
+    @Getter private volatile RegexFilterChain webhookUsernameFilters = RegexFilterChain.EMPTY;
     private final DynamicConfig config;
+    private volatile ConfigSnapshot configSnapshot = null;
 
     // Debugger
     @Getter private final Set<String> debuggerCategories = new CopyOnWriteArraySet<>();
@@ -202,6 +226,8 @@ public class DiscordSRV extends JavaPlugin {
 
     // JDA & JDA related
     @Getter private JDA jda = null;
+    @Getter private final CompletableFuture<Void> membersLoaded = new CompletableFuture<>(); // completes once every guild's members are cached
+    @Getter private LinkedMemberCachePolicy linkedMemberCachePolicy = null; // only set when Experiment_CacheLinkedMembersOnly is enabled
     private ExecutorService callbackThreadPool;
     @Getter private ChannelLoggingHandler consoleAppender;
     private JdaFilter jdaFilter;
@@ -212,12 +238,26 @@ public class DiscordSRV extends JavaPlugin {
     public static DynamicConfig config() {
         return getPlugin().config;
     }
+    /**
+     * @return the options used for every chat message, as of the last time the config was loaded
+     */
+    public static ConfigSnapshot configSnapshot() {
+        DiscordSRV plugin = getPlugin();
+        ConfigSnapshot snapshot = plugin.configSnapshot;
+        if (snapshot == null) plugin.configSnapshot = snapshot = new ConfigSnapshot(plugin.config);
+        return snapshot;
+    }
     public void reloadConfig() {
         try {
             config().loadAll();
         } catch (IOException | ParseException e) {
             throw new RuntimeException("Failed to load config", e);
         }
+        configSnapshot = new ConfigSnapshot(config);
+        // formats may have changed, compile them on next use
+        MessageTemplate.clearCache();
+        SpELExpressionBuilder.clearCache();
+        playerListCache.invalidate();
     }
 
     public void reloadAllowedMentions() {
@@ -252,18 +292,22 @@ public class DiscordSRV extends JavaPlugin {
         synchronized (consoleRegexes) {
             consoleRegexes.clear();
             loadRegexesFromConfig(config().dget("DiscordConsoleChannelFilters"), consoleRegexes);
+            consoleFilters = new RegexFilterChain(consoleRegexes);
         }
         synchronized (gameRegexes) {
             gameRegexes.clear();
             loadRegexesFromConfig(config().dget("DiscordChatChannelGameFilters"), gameRegexes);
+            gameFilters = new RegexFilterChain(gameRegexes);
         }
         synchronized (discordRegexes) {
             discordRegexes.clear();
             loadRegexesFromConfig(config().dget("DiscordChatChannelDiscordFilters"), discordRegexes);
+            discordFilters = new RegexFilterChain(discordRegexes);
         }
         synchronized (webhookUsernameRegexes) {
             webhookUsernameRegexes.clear();
             loadRegexesFromConfig(config().dget("Experiment_WebhookChatMessageUsernameFilters"), webhookUsernameRegexes);
+            webhookUsernameFilters = new RegexFilterChain(webhookUsernameRegexes);
         }
     }
     private void loadRegexesFromConfig(final Dynamic dynamic, final Map<Pattern, String> map) {
@@ -443,6 +487,7 @@ public class DiscordSRV extends JavaPlugin {
                     )
                     .findFirst().ifPresent(config::setLanguage);
         }
+        configSnapshot = new ConfigSnapshot(config);
 
         // Make discordsrv.sync.x & discordsrv.sync.deny.x permissions denied by default
         try {
@@ -472,7 +517,7 @@ public class DiscordSRV extends JavaPlugin {
     public void onEnable() {
         if (++DebugUtil.initializationCount > 1) {
             DiscordSRV.error(ChatColor.RED + LangUtil.InternalMessage.PLUGIN_RELOADED.toString());
-            PlayerUtil.getOnlinePlayers().stream()
+            PlayerUtil.getOnlinePlayerSnapshot().stream()
                     .filter(player -> player.hasPermission("discordsrv.admin"))
                     .forEach(player -> MessageUtil.sendMessage(player, ChatColor.RED + LangUtil.InternalMessage.PLUGIN_RELOADED.toString()));
         }
@@ -492,7 +537,12 @@ public class DiscordSRV extends JavaPlugin {
         initThread.start();
 
         if (Bukkit.getWorlds().size() > 0) {
-            playerDataFolder = new File(Bukkit.getWorlds().get(0).getWorldFolder().getAbsolutePath(), "/playerdata");
+            totalPlayerCounter = new TotalPlayerCounter(new File(Bukkit.getWorlds().get(0).getWorldFolder().getAbsolutePath(), "/playerdata"));
+            Bukkit.getPluginManager().registerEvents(totalPlayerCounter, this);
+            boolean watchPlayerData = config().getBooleanElse("TotalPlayerCountWatchPlayerData", false);
+            Thread totalPlayerCountThread = new Thread(() -> totalPlayerCounter.start(watchPlayerData), "DiscordSRV - Total Player Counter");
+            totalPlayerCountThread.setDaemon(true);
+            totalPlayerCountThread.start();
         }
     }
 
@@ -540,20 +590,16 @@ public class DiscordSRV extends JavaPlugin {
 
         requireLinkModule = new RequireLinkModule();
 
+        // clean up expired entries of expiring maps
+        taskScheduler.schedule("Expiring Map Cleanup", ExpiringDualHashBidiMap::expireAll, 1, () -> 1, TimeUnit.SECONDS);
+
         // start the update checker (will skip if disabled)
         if (!isUpdateCheckDisabled()) {
-            if (updateChecker == null) {
-                final ThreadFactory gatewayThreadFactory = new ThreadFactoryBuilder().setNameFormat("DiscordSRV - Update Checker").build();
-                updateChecker = Executors.newScheduledThreadPool(1);
-            }
-            updateChecker.schedule(() -> {
-                DiscordSRV.updateIsAvailable = UpdateUtil.checkForUpdates();
+            taskScheduler.schedule("Update Checker", () -> {
+                // only the first check is verbose
+                DiscordSRV.updateIsAvailable = UpdateUtil.checkForUpdates(!DiscordSRV.updateChecked);
                 DiscordSRV.updateChecked = true;
-            }, 0, TimeUnit.SECONDS);
-            updateChecker.scheduleAtFixedRate(() ->
-                    DiscordSRV.updateIsAvailable = UpdateUtil.checkForUpdates(false),
-                    6, 6, TimeUnit.HOURS
-            );
+            }, 0, () -> 6, TimeUnit.HOURS);
         }
 
         // shutdown previously existing jda if plugin gets reloaded
@@ -879,12 +925,17 @@ public class DiscordSRV extends JavaPlugin {
             DiscordSRV.api.requireCacheFlag(CacheFlag.ACTIVITY);
             DiscordSRV.api.requireCacheFlag(CacheFlag.CLIENT_STATUS);
         }
+        // cache every member unless only linked members (and a few recent others) should be kept
+        if (config.getBooleanElse("Experiment_CacheLinkedMembersOnly", false)) {
+            linkedMemberCachePolicy = new LinkedMemberCachePolicy(config.getIntElse("Experiment_CacheRecentMembers", 1000));
+        }
         try {
             // see ApiManager for our default intents & cache flags
             jda = JDABuilder.create(api.getIntents())
                     // we disable anything that isn't enabled (everything is enabled by default)
                     .disableCache(Arrays.stream(CacheFlag.values()).filter(cacheFlag -> !api.getCacheFlags().contains(cacheFlag)).collect(Collectors.toList()))
-                    .setMemberCachePolicy(MemberCachePolicy.ALL)
+                    .setMemberCachePolicy(linkedMemberCachePolicy != null ? linkedMemberCachePolicy : MemberCachePolicy.ALL)
+                    .setChunkingFilter(ChunkingFilter.NONE) // members are loaded below, without holding up awaitReady
                     .setCallbackPool(callbackThreadPool, false)
                     .setGatewayPool(gatewayThreadPool, true)
                     .setRateLimitPool(rateLimitThreadPool, true)
@@ -899,18 +950,40 @@ public class DiscordSRV extends JavaPlugin {
                     .addEventListeners(new DiscordConsoleListener())
                     .addEventListeners(new DiscordAccountLinkListener())
                     .addEventListeners(new DiscordDisconnectListener())
+                    .addEventListeners(new DiscordMentionIndexListener())
                     .addEventListeners(api)
                     .addEventListeners(groupSynchronizationManager)
+                    .addEventListeners(requireLinkModule.getMemberIndex())
                     .setContextEnabled(false)
                     .build();
             jda.awaitReady(); // let JDA be assigned as soon as we can, but wait until it's ready
 
+            // load the members of every guild at the same time, without holding up startup;
+            // anything that needs the complete member list waits for membersLoaded instead
+            long memberLoadStart = System.currentTimeMillis();
+            membersLoaded.thenRun(DiscordUtil::invalidateMentionIndexes);
+            List<CompletableFuture<Void>> memberLoads = new ArrayList<>();
             for (Guild guild : jda.getGuilds()) {
                 guild.retrieveOwner(true).queue();
+                if (linkedMemberCachePolicy != null) continue; // linked members are loaded once account links are available
+
+                CompletableFuture<Void> memberLoad = new CompletableFuture<>();
                 guild.loadMembers()
-                        .onSuccess(members -> DiscordSRV.debug("Loaded " + members.size() + " members in guild " + guild))
-                        .onError(throwable -> DiscordSRV.error("Failed to retrieve members of guild " + guild, throwable))
-                        .get(); // block DiscordSRV startup until members are loaded
+                        .onSuccess(members -> {
+                            DiscordSRV.debug("Loaded " + members.size() + " members in guild " + guild);
+                            memberLoad.complete(null);
+                        })
+                        .onError(throwable -> {
+                            DiscordSRV.error("Failed to retrieve members of guild " + guild, throwable);
+                            memberLoad.complete(null);
+                        });
+                memberLoads.add(memberLoad);
+            }
+            if (linkedMemberCachePolicy == null) {
+                CompletableFuture.allOf(memberLoads.toArray(new CompletableFuture[0])).thenRun(() -> {
+                    DiscordSRV.debug("Finished loading members of " + memberLoads.size() + " guild(s) in " + (System.currentTimeMillis() - memberLoadStart) + "ms");
+                    membersLoaded.complete(null);
+                });
             }
         } catch (LoginException e) {
             disablePlugin();
@@ -930,29 +1003,15 @@ public class DiscordSRV extends JavaPlugin {
             return;
         }
 
-        // start presence updater thread
-        if (presenceUpdater != null) {
-            if (presenceUpdater.getState() != Thread.State.NEW) {
-                presenceUpdater.interrupt();
-                presenceUpdater = new PresenceUpdater();
-            }
-            SchedulerUtil.runTaskLater(this, () -> presenceUpdater.start(), 5 * 20);
-        } else {
-            presenceUpdater = new PresenceUpdater();
-            presenceUpdater.start();
-        }
+        // start presence updater
+        presenceUpdater = new PresenceUpdater();
+        taskScheduler.schedule("Presence Updater", presenceUpdater, 0,
+                () -> Math.max(1, config().getInt("StatusUpdateRateInMinutes")), TimeUnit.MINUTES);
 
-        // start nickname updater thread
-        if (nicknameUpdater != null) {
-            if (nicknameUpdater.getState() != Thread.State.NEW) {
-                nicknameUpdater.interrupt();
-                nicknameUpdater = new NicknameUpdater();
-            }
-            SchedulerUtil.runTaskLater(this, () -> nicknameUpdater.start(), 5 * 20);
-        } else {
-            nicknameUpdater = new NicknameUpdater();
-            nicknameUpdater.start();
-        }
+        // start nickname updater
+        nicknameUpdater = new NicknameUpdater();
+        taskScheduler.schedule("Nickname Updater", nicknameUpdater, 0,
+                () -> Math.max(3, config().getInt("NicknameSynchronizationCycleTime")), TimeUnit.MINUTES);
 
         // show warning if bot wasn't in any guilds
         if (jda.getGuilds().size() == 0) {
@@ -992,13 +1051,7 @@ public class DiscordSRV extends JavaPlugin {
                     config.mapLoggerNameFriendly("net.minecraft", s -> "Minecraft/" + s);
                     config.mapLoggerName("github.scarsz.discordsrv.dependencies.jda", s -> "DiscordSRV/JDA/" + s);
                     config.addTransformer(logItem -> true, s -> MessageUtil.strip(DiscordUtil.aggressiveStrip(s))); // strip formatting
-                    config.addTransformer(logItem -> true, line -> {
-                        for (Map.Entry<Pattern, String> entry : consoleRegexes.entrySet()) {
-                            line = entry.getKey().matcher(line).replaceAll(entry.getValue());
-                            if (StringUtils.isBlank(line)) return null;
-                        }
-                        return line;
-                    });
+                    config.addTransformer(logItem -> true, line -> consoleFilters.filter(line, pattern -> {}));
 
                     BiFunction<String, LogItem, String> placeholders = (key, item) -> {
                         String name = config.padLoggerName(config.resolveLoggerName(item.getLogger()));
@@ -1051,9 +1104,10 @@ public class DiscordSRV extends JavaPlugin {
 
         // start server watchdog
         if (!SchedulerUtil.isFolia()) { // watchdog isn't useful on folia
-            if (serverWatchdog != null && serverWatchdog.getState() != Thread.State.NEW) serverWatchdog.interrupt();
             serverWatchdog = new ServerWatchdog();
-            serverWatchdog.start();
+            if (serverWatchdog.startTicking()) {
+                taskScheduler.schedule("Server Watchdog", serverWatchdog, 1, () -> 1, TimeUnit.SECONDS);
+            }
         }
 
         // start lag (tps) monitor
@@ -1094,8 +1148,21 @@ public class DiscordSRV extends JavaPlugin {
             accountLinkManager = new AppendOnlyFileAccountLinkManager();
         }
         Bukkit.getPluginManager().registerEvents(accountLinkManager, this);
+        if (linkedMemberCachePolicy != null) {
+            SchedulerUtil.runTaskAsynchronously(this, () -> {
+                long memberLoadStart = System.currentTimeMillis();
+                linkedMemberCachePolicy.loadLinkedMembers(jda, accountLinkManager.getLinkedAccounts().keySet()).thenRun(() -> {
+                    DiscordSRV.debug("Finished loading " + linkedMemberCachePolicy.getLinkedCount() + " linked members in " + (System.currentTimeMillis() - memberLoadStart) + "ms");
+                    membersLoaded.complete(null);
+                });
+            });
+        }
 
         // register events
+        onlinePlayerRegistry = new OnlinePlayerRegistry();
+        Bukkit.getPluginManager().registerEvents(onlinePlayerRegistry, this);
+        onlinePlayerRegistry.refresh();
+        Bukkit.getPluginManager().registerEvents(playerListCache, this);
         new PlayerBanListener();
         new PlayerDeathListener();
         new PlayerJoinLeaveListener();
@@ -1242,26 +1309,13 @@ public class DiscordSRV extends JavaPlugin {
         }
 
         // start channel topic updater
-        if (channelTopicUpdater != null) {
-            if (channelTopicUpdater.getState() != Thread.State.NEW) {
-                channelTopicUpdater.interrupt();
-                channelTopicUpdater = new ChannelTopicUpdater();
-            }
-        } else {
-            channelTopicUpdater = new ChannelTopicUpdater();
-        }
-        channelTopicUpdater.start();
+        channelTopicUpdater = new ChannelTopicUpdater();
+        taskScheduler.schedule("Channel Topic Updater", channelTopicUpdater, 0,
+                () -> Math.max(10, config().getInt("ChannelTopicUpdaterRateInMinutes")), TimeUnit.MINUTES);
 
         // start channel updater
-        if (channelUpdater != null) {
-            if (channelUpdater.getState() != Thread.State.NEW) {
-                channelUpdater.interrupt();
-                channelUpdater = new ChannelUpdater();
-            }
-        } else {
-            channelUpdater = new ChannelUpdater();
-        }
-        channelUpdater.start();
+        if (channelUpdater == null) channelUpdater = new ChannelUpdater();
+        channelUpdater.reload();
 
         // enable metrics
         if (!config().getBooleanElse("MetricsDisabled", false)) {
@@ -1297,7 +1351,7 @@ public class DiscordSRV extends JavaPlugin {
                     }
                 }
             }}));
-            bStats.addCustomChart(new SingleLineChart("atleast_1player_online", () -> PlayerUtil.getOnlinePlayers().isEmpty() ? 0 : 1));
+            bStats.addCustomChart(new SingleLineChart("atleast_1player_online", () -> PlayerUtil.getOnlinePlayerSnapshot().isEmpty() ? 0 : 1));
             bStats.addCustomChart(new SimplePie("better_online_mode", () -> {
                 boolean onlineMode = Bukkit.getOnlineMode();
                 try {
@@ -1357,11 +1411,14 @@ public class DiscordSRV extends JavaPlugin {
         if (isGroupRoleSynchronizationEnabled()) {
             int cycleTime = DiscordSRV.config().getInt("GroupRoleSynchronizationCycleTime") * 20 * 60;
             if (cycleTime < 20 * 60) cycleTime = 20 * 60;
-            try {
-                groupSynchronizationManager.resync(GroupSynchronizationManager.SyncDirection.AUTHORITATIVE, GroupSynchronizationManager.SyncCause.TIMER);
-            } catch (Exception e) {
-                error("Failed to resync\n" + ExceptionUtils.getMessage(e));
-            }
+            // the first resync looks at every linked member, so it has to wait for the members to be loaded
+            membersLoaded.thenRun(() -> SchedulerUtil.runTaskAsynchronously(this, () -> {
+                try {
+                    groupSynchronizationManager.resync(GroupSynchronizationManager.SyncDirection.AUTHORITATIVE, GroupSynchronizationManager.SyncCause.TIMER);
+                } catch (Exception e) {
+                    error("Failed to resync\n" + ExceptionUtils.getMessage(e));
+                }
+            }));
             Bukkit.getPluginManager().registerEvents(groupSynchronizationManager, this);
             SchedulerUtil.runTaskTimerAsynchronously(this,
                     () -> groupSynchronizationManager.resync(
@@ -1464,23 +1521,18 @@ public class DiscordSRV extends JavaPlugin {
                 // shut down voice module
                 if (voiceModule != null) voiceModule.shutdown();
 
-                // kill channel topic updater
-                if (channelTopicUpdater != null) channelTopicUpdater.interrupt();
-
-                // kill channel updater
-                if (channelUpdater != null) channelUpdater.interrupt();
-
-                // kill presence updater
-                if (presenceUpdater != null) presenceUpdater.interrupt();
+                // stop the updaters, server watchdog & update checker
+                taskScheduler.shutdown();
 
-                // kill nickname updater
-                if (nicknameUpdater != null) nicknameUpdater.interrupt();
+                // stop watching the player data folder
+                if (totalPlayerCounter != null) totalPlayerCounter.shutdown();
 
-                // kill server watchdog
-                if (serverWatchdog != null) serverWatchdog.interrupt();
+                // give queued webhook messages a moment to go out
+                webhookContext.shutdown(5, TimeUnit.SECONDS);
 
-                // shutdown the update checker
-                if (updateChecker != null) updateChecker.shutdown();
+                // flush & close the linked account storage
+                if (accountLinkManager instanceof JdbcAccountLinkManager) ((JdbcAccountLinkManager) accountLinkManager).close();
+                if (accountLinkManager instanceof AppendOnlyFileAccountLinkManager) ((AppendOnlyFileAccountLinkManager) accountLinkManager).close();
 
                 // close cancellation detectors
                 if (legacyCancellationDetector != null) legacyCancellationDetector.close();
@@ -1728,21 +1780,23 @@ public class DiscordSRV extends JavaPlugin {
             }
         }
 
+        ConfigSnapshot snapshot = configSnapshot();
+
         // return if event canceled
-        if (config().getBooleanElse("RespectChatPlugins", true) && cancelled) {
+        if (snapshot.isRespectChatPlugins() && cancelled) {
             debug(Debug.MINECRAFT_TO_DISCORD, "User " + player.getName() + " sent a message but it was not delivered to Discord because the chat event was canceled");
             return;
         }
 
         // return if should not send in-game chat
-        if (!config().getBoolean("DiscordChatChannelMinecraftToDiscord")) {
+        if (!snapshot.isMinecraftToDiscord()) {
             debug(Debug.MINECRAFT_TO_DISCORD, "User " + player.getName() + " sent a message but it was not delivered to Discord because DiscordChatChannelMinecraftToDiscord is false");
             return;
         }
 
         // return if doesn't match prefix filter
-        String prefix = config().getString("DiscordChatChannelPrefixRequiredToProcessMessage");
-        boolean blacklist = config.getBoolean("DiscordChatChannelPrefixActsAsBlacklist");
+        String prefix = snapshot.getPrefixRequiredToProcessMessage();
+        boolean blacklist = snapshot.isPrefixActsAsBlacklist();
 
         String legacy = MessageUtil.toLegacy(message);
         if (MessageUtil.strip(legacy).startsWith(prefix) == blacklist) {
@@ -1750,7 +1804,10 @@ public class DiscordSRV extends JavaPlugin {
             return;
         }
 
+        long processingStart = System.nanoTime();
+        long stageStart = processingStart;
         GameChatMessagePreProcessEvent preEvent = api.callEvent(new GameChatMessagePreProcessEvent(channel, message, player, event));
+        stageStart = PipelineMetrics.Stage.TO_DISCORD_PRE_PROCESS.record(stageStart);
         if (preEvent.isCancelled()) {
             debug(Debug.MINECRAFT_TO_DISCORD, "GameChatMessagePreProcessEvent was cancelled, message send aborted");
             return;
@@ -1758,14 +1815,14 @@ public class DiscordSRV extends JavaPlugin {
         channel = preEvent.getChannel(); // update channel from event in case any listeners modified it
         message = preEvent.getMessageComponent(); // update message from event in case any listeners modified it
 
-        String userPrimaryGroup = VaultHook.getPrimaryGroup(player);
-        boolean hasGoodGroup = StringUtils.isNotBlank(userPrimaryGroup);
+        String primaryGroup = VaultHook.getPrimaryGroup(player);
+        boolean hasGoodGroup = StringUtils.isNotBlank(primaryGroup);
 
         // capitalize the first letter of the user's primary group to look neater
-        if (hasGoodGroup) userPrimaryGroup = userPrimaryGroup.substring(0, 1).toUpperCase() + userPrimaryGroup.substring(1);
+        String userPrimaryGroup = hasGoodGroup ? primaryGroup.substring(0, 1).toUpperCase() + primaryGroup.substring(1) : primaryGroup;
 
-        boolean reserializer = DiscordSRV.config().getBoolean("Experiment_MCDiscordReserializer_ToDiscord");
-        boolean webhookMessageDelivery = config().getBoolean("Experiment_WebhookChatMessageDelivery");
+        boolean reserializer = snapshot.isReserializerToDiscord();
+        boolean webhookMessageDelivery = snapshot.isWebhookChatMessageDelivery();
 
         String discordMessageContent;
         if (reserializer) {
@@ -1776,38 +1833,46 @@ public class DiscordSRV extends JavaPlugin {
 
         // Modify the message's content with the declared Regexes
         if (webhookMessageDelivery) {
+            stageStart = System.nanoTime();
             discordMessageContent = processRegex(discordMessageContent);
+            PipelineMetrics.Stage.TO_DISCORD_REGEX.record(stageStart);
             if (discordMessageContent == null) return;
         }
 
-        if (config().getBoolean("DiscordChatChannelTranslateMentions")) {
+        stageStart = System.nanoTime();
+        if (snapshot.isTranslateMentions()) {
             discordMessageContent = DiscordUtil.convertMentionsFromNames(discordMessageContent, getMainGuild());
         } else {
             discordMessageContent = discordMessageContent.replace("@", "@\u200B"); // zero-width space
         }
+        stageStart = PipelineMetrics.Stage.TO_DISCORD_MENTIONS.record(stageStart);
 
         String processedMessage = discordMessageContent;
 
         if (!webhookMessageDelivery) {
             // If webhook delivery is not enable, we add all the placeholders
-            String username = player.getName();
-            if (!reserializer) username = DiscordUtil.escapeMarkdown(username);
-
+            String username = reserializer ? player.getName() : DiscordUtil.escapeMarkdown(player.getName());
             String displayName = MessageUtil.strip(player.getDisplayName());
+            String channelName = channel;
 
             // Replace the internal placeholders in the message pattern
-            String discordMessagePattern = (hasGoodGroup
+            MessageTemplate template = MessageTemplate.of(hasGoodGroup
                     ? LangUtil.Message.CHAT_TO_DISCORD.toString()
-                    : LangUtil.Message.CHAT_TO_DISCORD_NO_PRIMARY_GROUP.toString())
-                    .replace("%displayname%", DiscordUtil.escapeMarkdown(displayName))
-                    .replace("%displaynamenoescapes%", displayName)
-                    .replace("%username%", username)
-                    .replaceAll("%time%|%date%", TimeUtil.timeStamp())
-                    .replace("%channelname%", channel != null ? channel.substring(0, 1).toUpperCase() + channel.substring(1) : "")
-                    .replace("%primarygroup%", userPrimaryGroup)
-                    .replace("%usernamenoescapes%", MessageUtil.strip(player.getName()))
-                    .replace("%world%", player.getWorld().getName())
-                    .replace("%worldalias%", MessageUtil.strip(getWorldAlias(player.getWorld().getName())));
+                    : LangUtil.Message.CHAT_TO_DISCORD_NO_PRIMARY_GROUP.toString());
+            String discordMessagePattern = template.render(placeholder -> {
+                switch (placeholder) {
+                    case "displayname": return DiscordUtil.escapeMarkdown(displayName);
+                    case "displaynamenoescapes": return displayName;
+                    case "username": return username;
+                    case "time": case "date": return TimeUtil.timeStamp();
+                    case "channelname": return channelName != null ? channelName.substring(0, 1).toUpperCase() + channelName.substring(1) : "";
+                    case "primarygroup": return userPrimaryGroup;
+                    case "usernamenoescapes": return MessageUtil.strip(player.getName());
+                    case "world": return player.getWorld().getName();
+                    case "worldalias": return MessageUtil.strip(getWorldAlias(player.getWorld().getName()));
+                    default: return null; // %message% & PlaceholderAPI placeholders come later
+                }
+            });
             // Replace the PAPI placeholders in the message pattern
             discordMessagePattern = PlaceholderUtil.replacePlaceholdersToDiscord(discordMessagePattern, player);
 
@@ -1833,15 +1898,19 @@ public class DiscordSRV extends JavaPlugin {
             // Replace the message after to avoid replacing rouge PAPI placeholders inside of the message's content
             discordMessagePattern = discordMessagePattern
                     .replace("%message%", discordMessageContent);
+            stageStart = PipelineMetrics.Stage.TO_DISCORD_FORMATTING.record(stageStart);
 
             discordMessagePattern = processRegex(discordMessagePattern);
+            PipelineMetrics.Stage.TO_DISCORD_REGEX.record(stageStart);
             if (discordMessagePattern == null) return;
 
             processedMessage = discordMessagePattern;
         }
 
         // Send the post process message event
+        stageStart = System.nanoTime();
         GameChatMessagePostProcessEvent postEvent = api.callEvent(new GameChatMessagePostProcessEvent(channel, processedMessage, player, preEvent.isCancelled(), event));
+        PipelineMetrics.Stage.TO_DISCORD_POST_PROCESS.record(stageStart);
         if (postEvent.isCancelled()) {
             debug(Debug.MINECRAFT_TO_DISCORD, "GameChatMessagePostProcessEvent was cancelled, message send aborted");
             return;
@@ -1854,7 +1923,9 @@ public class DiscordSRV extends JavaPlugin {
         TextChannel destinationChannel = getDestinationTextChannelForGameChannelName(channel);
 
         if (!webhookMessageDelivery) {
-            DiscordUtil.sendMessage(destinationChannel, processedMessage);
+            PipelineMetrics.Stage.TO_DISCORD_TOTAL.record(processingStart);
+            long sendStart = System.nanoTime();
+            DiscordUtil.sendMessage(destinationChannel, processedMessage, 0, sentMessage -> PipelineMetrics.Stage.TO_DISCORD_SEND.record(sendStart));
         } else {
 
             if (destinationChannel == null) {
@@ -1867,19 +1938,14 @@ public class DiscordSRV extends JavaPlugin {
                 return;
             }
 
+            PipelineMetrics.Stage.TO_DISCORD_TOTAL.record(processingStart);
             WebhookUtil.deliverMessage(destinationChannel, player, processedMessage);
         }
     }
 
     private String processRegex(String discordMessage) {
-        for (Map.Entry<Pattern, String> entry : getGameRegexes().entrySet()) {
-            discordMessage = entry.getKey().matcher(discordMessage).replaceAll(entry.getValue());
-            if (StringUtils.isBlank(discordMessage)) {
-                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Not processing Minecraft message because it was cleared by a filter: " + entry.getKey().pattern());
-                return null;
-            }
-        }
-        return discordMessage;
+        return gameFilters.filter(discordMessage, pattern ->
+                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Not processing Minecraft message because it was cleared by a filter: " + pattern));
     }
 
     @Deprecated
@@ -1958,16 +2024,20 @@ public class DiscordSRV extends JavaPlugin {
 
         BiFunction<String, Boolean, String> translator = (content, needsEscape) -> {
             if (content == null) return null;
-            content = content
-                    .replaceAll("%time%|%date%", TimeUtil.timeStamp())
-                    .replace("%message%", MessageUtil.strip(needsEscape ? DiscordUtil.escapeMarkdown(message) : message))
-                    .replace("%username%", needsEscape ? DiscordUtil.escapeMarkdown(name) : name)
-                    .replace("%displayname%", needsEscape ? DiscordUtil.escapeMarkdown(displayName) : displayName)
-                    .replace("%usernamenoescapes%", name)
-                    .replace("%displaynamenoescapes%", displayName)
-                    .replace("%embedavatarurl%", avatarUrl)
-                    .replace("%botavatarurl%", botAvatarUrl)
-                    .replace("%botname%", botName);
+            content = MessageTemplate.of(content).render(placeholder -> {
+                switch (placeholder) {
+                    case "time": case "date": return TimeUtil.timeStamp();
+                    case "message": return MessageUtil.strip(needsEscape ? DiscordUtil.escapeMarkdown(message) : message);
+                    case "username": return needsEscape ? DiscordUtil.escapeMarkdown(name) : name;
+                    case "displayname": return needsEscape ? DiscordUtil.escapeMarkdown(displayName) : displayName;
+                    case "usernamenoescapes": return name;
+                    case "displaynamenoescapes": return displayName;
+                    case "embedavatarurl": return avatarUrl;
+                    case "botavatarurl": return botAvatarUrl;
+                    case "botname": return botName;
+                    default: return null;
+                }
+            });
             content = DiscordUtil.translateEmotes(content, textChannel.getGuild());
             content = PlaceholderUtil.replacePlaceholdersToDiscord(content, player);
             return content;
@@ -2019,16 +2089,20 @@ public class DiscordSRV extends JavaPlugin {
 
         BiFunction<String, Boolean, String> translator = (content, needsEscape) -> {
             if (content == null) return null;
-            content = content
-                    .replaceAll("%time%|%date%", TimeUtil.timeStamp())
-                    .replace("%message%", MessageUtil.strip(needsEscape ? DiscordUtil.escapeMarkdown(message) : message))
-                    .replace("%username%", MessageUtil.strip(needsEscape ? DiscordUtil.escapeMarkdown(name) : name))
-                    .replace("%displayname%", needsEscape ? DiscordUtil.escapeMarkdown(displayName) : displayName)
-                    .replace("%usernamenoescapes%", name)
-                    .replace("%displaynamenoescapes%", displayName)
-                    .replace("%embedavatarurl%", avatarUrl)
-                    .replace("%botavatarurl%", botAvatarUrl)
-                    .replace("%botname%", botName);
+            content = MessageTemplate.of(content).render(placeholder -> {
+                switch (placeholder) {
+                    case "time": case "date": return TimeUtil.timeStamp();
+                    case "message": return MessageUtil.strip(needsEscape ? DiscordUtil.escapeMarkdown(message) : message);
+                    case "username": return MessageUtil.strip(needsEscape ? DiscordUtil.escapeMarkdown(name) : name);
+                    case "displayname": return needsEscape ? DiscordUtil.escapeMarkdown(displayName) : displayName;
+                    case "usernamenoescapes": return name;
+                    case "displaynamenoescapes": return displayName;
+                    case "embedavatarurl": return avatarUrl;
+                    case "botavatarurl": return botAvatarUrl;
+                    case "botname": return botName;
+                    default: return null;
+                }
+            });
             content = DiscordUtil.translateEmotes(content, textChannel.getGuild());
             content = PlaceholderUtil.replacePlaceholdersToDiscord(content, player);
             return content;
@@ -2243,11 +2317,9 @@ public class DiscordSRV extends JavaPlugin {
         return responses;
     }
 
-    private static File playerDataFolder = null;
     public static int getTotalPlayerCount() {
-        if (playerDataFolder == null) return 0;
-        File[] playerFiles = playerDataFolder.listFiles(f -> f.getName().endsWith(".dat"));
-        return playerFiles != null ? playerFiles.length : 0;
+        TotalPlayerCounter totalPlayerCounter = getPlugin().getTotalPlayerCounter();
+        return totalPlayerCounter != null ? totalPlayerCounter.getCount() : 0;
     }
 
     /**
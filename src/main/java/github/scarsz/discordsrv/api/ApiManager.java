@@ -43,9 +43,14 @@ import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.PluginClassLoader;
 import org.jetbrains.annotations.NotNull;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.stream.Collectors;
@@ -72,6 +77,8 @@ import java.util.stream.Collectors;
 public class ApiManager extends ListenerAdapter {
 
     private final List<Object> apiListeners = new CopyOnWriteArrayList<>();
+    private final Map<Class<?>, SubscribedMethod[]> subscribedMethods = new ConcurrentHashMap<>();
+    private final Map<Class<?>, EventHandler[]> dispatchIndex = new ConcurrentHashMap<>();
     private final Set<SlashCommandProvider> slashCommandProviders = new CopyOnWriteArraySet<>();
     private final Set<PluginSlashCommand> runningCommandData = new HashSet<>();
     private boolean anyHooked = false;
@@ -111,7 +118,12 @@ public class ApiManager extends ListenerAdapter {
             );
             anyHooked = true;
         }
-        apiListeners.add(listener);
+
+        synchronized (dispatchIndex) {
+            subscribedMethods.computeIfAbsent(listener.getClass(), this::resolveSubscribedMethods);
+            apiListeners.add(listener);
+            dispatchIndex.clear();
+        }
     }
 
     /**
@@ -123,7 +135,16 @@ public class ApiManager extends ListenerAdapter {
         DiscordSRV.info(LangUtil.InternalMessage.API_LISTENER_UNSUBSCRIBED.toString()
                 .replace("{listenername}", listener.getClass().getName())
         );
-        return apiListeners.remove(listener);
+        synchronized (dispatchIndex) {
+            boolean removed = apiListeners.remove(listener);
+            if (removed) {
+                if (apiListeners.stream().noneMatch(other -> other.getClass() == listener.getClass())) {
+                    subscribedMethods.remove(listener.getClass());
+                }
+                dispatchIndex.clear();
+            }
+            return removed;
+        }
     }
 
     /**
@@ -132,26 +153,77 @@ public class ApiManager extends ListenerAdapter {
      * @return the event that was called
      */
     public <E extends Event> E callEvent(E event) {
-        for (ListenerPriority listenerPriority : ListenerPriority.values()) {
-            for (Object apiListener : apiListeners) {
-                for (Method method : apiListener.getClass().getMethods()) {
-                    if (method.getParameters().length != 1)
-                        continue; // api listener methods always take one parameter
-                    if (!method.getParameters()[0].getType().isAssignableFrom(event.getClass()))
-                        continue; // make sure this method wants this event
+        EventHandler[] handlers = dispatchIndex.get(event.getClass());
+        if (handlers == null) handlers = buildDispatch(event.getClass());
 
-                    Subscribe subscribeAnnotation = method.getAnnotation(Subscribe.class);
-                    if (subscribeAnnotation == null) continue;
+        for (EventHandler handler : handlers) {
+            handler.invoke(event);
+        }
 
-                    if (subscribeAnnotation.priority() != listenerPriority)
-                        continue; // this priority isn't being called right now
+        return event;
+    }
 
-                    invokeMethod(method, apiListener, event);
+    /**
+     * Build (or fetch, if another thread got there first) the priority-ordered handlers for the given event class.
+     * The index is cleared whenever a listener is subscribed or unsubscribed.
+     * @param eventClass the class of the event being called
+     * @return the handlers that should receive events of the given class, in call order
+     */
+    private EventHandler[] buildDispatch(Class<?> eventClass) {
+        synchronized (dispatchIndex) {
+            EventHandler[] handlers = dispatchIndex.get(eventClass);
+            if (handlers != null) return handlers;
+
+            List<EventHandler> handlerList = new ArrayList<>();
+            for (ListenerPriority listenerPriority : ListenerPriority.values()) {
+                for (Object apiListener : apiListeners) {
+                    SubscribedMethod[] methods = subscribedMethods.get(apiListener.getClass());
+                    if (methods == null) continue;
+                    for (SubscribedMethod method : methods) {
+                        if (method.priority != listenerPriority) continue; // this priority isn't being called right now
+                        if (!method.eventType.isAssignableFrom(eventClass)) continue; // make sure this method wants this event
+                        handlerList.add(new EventHandler(apiListener, method));
+                    }
                 }
             }
+
+            handlers = handlerList.toArray(new EventHandler[0]);
+            dispatchIndex.put(eventClass, handlers);
+            return handlers;
         }
+    }
 
-        return event;
+    /**
+     * Find all methods in the given listener class annotated with {@link Subscribe} and resolve invokers for them
+     * @param listenerClass the class of the listener being subscribed
+     * @return the subscribed methods of the class, in {@link Class#getMethods()} order
+     */
+    private SubscribedMethod[] resolveSubscribedMethods(Class<?> listenerClass) {
+        List<SubscribedMethod> methods = new ArrayList<>();
+        for (Method method : listenerClass.getMethods()) {
+            if (method.getParameterCount() != 1) continue; // api listener methods always take one parameter
+            Subscribe subscribeAnnotation = method.getAnnotation(Subscribe.class);
+            if (subscribeAnnotation == null) continue;
+
+            try {
+                // make sure method is accessible
+                //noinspection deprecation
+                if (!method.isAccessible()) method.setAccessible(true);
+                MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                // static handlers don't take the listener, ignore it so every handle can be invoked the same way
+                if (Modifier.isStatic(method.getModifiers())) handle = MethodHandles.dropArguments(handle, 0, Object.class);
+                handle = handle.asType(MethodType.methodType(void.class, Object.class, Object.class));
+                methods.add(new SubscribedMethod(method, handle, method.getParameterTypes()[0], subscribeAnnotation.priority()));
+            } catch (IllegalAccessException | RuntimeException e) {
+                DiscordSRV.error(
+                        LangUtil.InternalMessage.API_LISTENER_METHOD_NOT_ACCESSIBLE.toString()
+                                .replace("{listenername}", listenerClass.getName())
+                                .replace("{methodname}", method.toString()),
+                        e
+                );
+            }
+        }
+        return methods.toArray(new SubscribedMethod[0]);
     }
 
     public void updateSlashCommands() {
@@ -448,4 +520,41 @@ public class ApiManager extends ListenerAdapter {
         return anyHooked;
     }
 
+    private static final class SubscribedMethod {
+
+        private final Method method;
+        private final MethodHandle handle;
+        private final Class<?> eventType;
+        private final ListenerPriority priority;
+
+        private SubscribedMethod(Method method, MethodHandle handle, Class<?> eventType, ListenerPriority priority) {
+            this.method = method;
+            this.handle = handle;
+            this.eventType = eventType;
+            this.priority = priority;
+        }
+
+    }
+
+    private final class EventHandler {
+
+        private final Object listener;
+        private final SubscribedMethod method;
+
+        private EventHandler(Object listener, SubscribedMethod method) {
+            this.listener = listener;
+            this.method = method;
+        }
+
+        private void invoke(Object event) {
+            try {
+                method.handle.invokeExact(listener, event);
+            } catch (Throwable cause) {
+                DiscordSRV.debug(listener.getClass().getName() + "#" + method.method.getName() + " threw an error: " + cause);
+                if (!logException(listener.getClass(), cause)) cause.printStackTrace();
+            }
+        }
+
+    }
+
 }
@@ -0,0 +1,59 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.commands;
+
+import github.scarsz.discordsrv.objects.LatencyHistogram;
+import github.scarsz.discordsrv.objects.PipelineMetrics;
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+
+public class CommandMetrics {
+
+    @Command(commandNames = { "metrics" },
+            helpMessage = "Shows latency percentiles for the stages of the chat pipeline",
+            permission = "discordsrv.debug"
+    )
+    public static void execute(CommandSender sender, String[] args) {
+        if (args.length > 0 && args[0].equalsIgnoreCase("reset")) {
+            PipelineMetrics.reset();
+            sender.sendMessage(ChatColor.DARK_AQUA + "Chat pipeline metrics have been reset");
+            return;
+        }
+
+        String direction = null;
+        for (PipelineMetrics.Stage stage : PipelineMetrics.Stage.values()) {
+            String stageDirection = stage.name().startsWith("TO_DISCORD") ? "Minecraft -> Discord" : "Discord -> Minecraft";
+            if (!stageDirection.equals(direction)) {
+                direction = stageDirection;
+                sender.sendMessage(ChatColor.AQUA + direction + ChatColor.GRAY + " (count / p50 / p90 / p99 / max)");
+            }
+
+            LatencyHistogram histogram = stage.getHistogram();
+            sender.sendMessage(ChatColor.DARK_AQUA + "  " + stage.getDescription() + ": " + ChatColor.WHITE
+                    + histogram.getCount() + ChatColor.GRAY + " / " + ChatColor.WHITE
+                    + LatencyHistogram.format(histogram.getPercentile(50)) + ChatColor.GRAY + " / " + ChatColor.WHITE
+                    + LatencyHistogram.format(histogram.getPercentile(90)) + ChatColor.GRAY + " / " + ChatColor.WHITE
+                    + LatencyHistogram.format(histogram.getPercentile(99)) + ChatColor.GRAY + " / " + ChatColor.WHITE
+                    + LatencyHistogram.format(histogram.getMax()));
+        }
+    }
+
+}
@@ -45,6 +45,7 @@ public class CommandReload {
         DiscordSRV.getPlugin().reloadAllowedMentions();
         DiscordSRV.api.updateSlashCommands();
         if (DiscordSRV.getPlugin().getChannelUpdater() != null) DiscordSRV.getPlugin().getChannelUpdater().reload();
+        DiscordSRV.getPlugin().getTaskScheduler().rescheduleAll();
         if (DiscordSRV.getPlugin().getAlertListener() != null) DiscordSRV.getPlugin().getAlertListener().reloadAlerts();
 
         DiscordSRV.getPlugin().getPluginHooks().stream()
@@ -44,10 +44,15 @@ public class CommandResync {
         SchedulerUtil.runTaskAsynchronously(DiscordSRV.getPlugin(), () -> {
             MessageUtil.sendMessage(sender, ChatColor.AQUA + "Full group synchronization triggered.");
             long time = System.currentTimeMillis();
-            DiscordSRV.getPlugin().getGroupSynchronizationManager().resyncEveryone(GroupSynchronizationManager.SyncCause.MANUAL);
+            GroupSynchronizationManager manager = DiscordSRV.getPlugin().getGroupSynchronizationManager();
+            manager.resyncEveryone(GroupSynchronizationManager.SyncDirection.AUTHORITATIVE, GroupSynchronizationManager.SyncCause.MANUAL,
+                    progress -> MessageUtil.sendMessage(sender, ChatColor.AQUA + "Full group synchronization progress: " + progress));
             time = System.currentTimeMillis() - time;
             int seconds = Math.toIntExact(TimeUnit.MILLISECONDS.toSeconds(time));
-            MessageUtil.sendMessage(sender, ChatColor.AQUA + "Full group synchronization finished, taking " + seconds + " seconds.");
+            GroupSynchronizationManager.ResyncProgress progress = manager.getResyncProgress();
+            MessageUtil.sendMessage(sender, ChatColor.AQUA + "Full group synchronization finished, taking " + seconds + " seconds."
+                    + (progress != null ? " " + progress.getCompleted() + " players synchronized (" + String.format("%.1f", progress.getThroughput()) + "/s)"
+                    + (progress.getFailed() > 0 ? ", " + progress.getFailed() + " failed" : "") + "." : ""));
         });
     }
 
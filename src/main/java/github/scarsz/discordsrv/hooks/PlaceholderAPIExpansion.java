@@ -21,6 +21,7 @@
 package github.scarsz.discordsrv.hooks;
 
 import github.scarsz.discordsrv.DiscordSRV;
+import github.scarsz.discordsrv.objects.PipelineMetrics;
 import github.scarsz.discordsrv.objects.managers.AccountLinkManager;
 import github.scarsz.discordsrv.objects.managers.link.JdbcAccountLinkManager;
 import github.scarsz.discordsrv.util.DiscordUtil;
@@ -51,9 +52,18 @@ public class PlaceholderAPIExpansion extends PlaceholderExpansion {
 
     private long lastIssue = -1;
     private static final Pattern SPECIFIC_ROLE_PATTERN = Pattern.compile("role_(\\d+)_(\\w+)");
+    private static final Pattern METRICS_PATTERN = Pattern.compile("metrics_(\\w+)_(\\w+)");
 
     @Override
     public @Nullable String onRequest(@Nullable OfflinePlayer player, @NotNull String identifier) {
+        if (identifier.startsWith("metrics_")) {
+            // eg. %discordsrv_metrics_todiscord_total_p99%, doesn't need JDA so it's handled first
+            Matcher metricsMatcher = METRICS_PATTERN.matcher(identifier);
+            if (!metricsMatcher.matches()) return null;
+            PipelineMetrics.Stage stage = PipelineMetrics.Stage.fromKey(metricsMatcher.group(1));
+            return stage != null ? PipelineMetrics.getStatistic(stage, metricsMatcher.group(2)) : null;
+        }
+
         if (!DiscordSRV.isReady) return "...";
 
         Guild mainGuild = DiscordSRV.getPlugin().getMainGuild();
@@ -114,7 +114,7 @@ public class TownyChatHook implements ChatHook {
                 .replace("%message%", legacy);
 
         String translatedMessage = MessageUtil.translateLegacy(plainMessage);
-        for (Player player : PlayerUtil.getOnlinePlayers()) {
+        for (Player player : PlayerUtil.getOnlinePlayerSnapshot()) {
             if (destinationChannel.isPresent(player.getName())) {
                 MessageUtil.sendMessage(player, translatedMessage);
             }
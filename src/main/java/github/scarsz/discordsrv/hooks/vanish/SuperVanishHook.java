@@ -40,6 +40,7 @@ public class SuperVanishHook implements VanishHook {
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerShow(PostPlayerShowEvent event) {
+        DiscordSRV.getPlugin().getOnlinePlayerRegistry().invalidateVanishState();
         SuperVanish plugin = (SuperVanish) getPlugin();
         if (!plugin.getSettings().getBoolean("MessageOptions.FakeJoinQuitMessages.BroadcastFakeJoinOnReappear") ||
                 event.isSilent()) {
@@ -74,6 +75,7 @@ public class SuperVanishHook implements VanishHook {
 
     @EventHandler(priority = EventPriority.MONITOR)
     public void onPlayerHide(PostPlayerHideEvent event) {
+        DiscordSRV.getPlugin().getOnlinePlayerRegistry().invalidateVanishState();
         SuperVanish plugin = (SuperVanish) getPlugin();
         if (!plugin.getSettings().getBoolean("MessageOptions.FakeJoinQuitMessages.BroadcastFakeQuitOnVanish") ||
                 event.isSilent()) {
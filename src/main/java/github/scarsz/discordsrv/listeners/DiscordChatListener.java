@@ -25,7 +25,9 @@ import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.api.events.*;
 import github.scarsz.discordsrv.hooks.DynmapHook;
-import github.scarsz.discordsrv.hooks.VaultHook;
+import github.scarsz.discordsrv.objects.ConfigSnapshot;
+import github.scarsz.discordsrv.objects.PipelineMetrics;
+import github.scarsz.discordsrv.objects.RegexFilterChain;
 import github.scarsz.discordsrv.objects.proxy.CommandSenderDynamicProxy;
 import github.scarsz.discordsrv.util.*;
 import net.dv8tion.jda.api.entities.Message;
@@ -42,7 +44,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.OfflinePlayer;
 import org.bukkit.command.CommandSender;
-import org.bukkit.entity.Player;
 
 import java.io.File;
 import java.io.IOException;
@@ -66,7 +67,7 @@ public class DiscordChatListener extends ListenerAdapter {
             String webhook = WebhookUtil.getWebhookUrlFromCache(event.getChannel());
             if (webhook != null && webhook.split("/")[6].equals(event.getAuthor().getId())) return;
 
-            if (DiscordSRV.config().getBoolean("DiscordChatChannelBlockWebhooks")) {
+            if (DiscordSRV.configSnapshot().isBlockWebhooks()) {
                 DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Received Discord message from webhook " + event.getAuthor() + " but DiscordChatChannelBlockWebhooks is on");
                 return;
             }
@@ -98,11 +99,13 @@ public class DiscordChatListener extends ListenerAdapter {
         // sanitise
         message = message.replace("\u001B", "");
 
+        ConfigSnapshot snapshot = DiscordSRV.configSnapshot();
+
         // return if should not send discord chat
-        if (!DiscordSRV.config().getBoolean("DiscordChatChannelDiscordToMinecraft")) return;
+        if (!snapshot.isDiscordToMinecraft()) return;
 
         // enforce required account linking
-        if (DiscordSRV.config().getBoolean("DiscordChatChannelRequireLinkedAccount") && !event.getAuthor().isBot()) {
+        if (snapshot.isRequireLinkedAccount() && !event.getAuthor().isBot()) {
             if (DiscordSRV.getPlugin().getAccountLinkManager() == null) {
                 event.getAuthor().openPrivateChannel().queue(privateChannel -> privateChannel.sendMessage(LangUtil.Message.FAILED_TO_CHECK_LINKED_ACCOUNT.toString()).queue());
                 DiscordUtil.deleteMessage(event.getMessage());
@@ -148,21 +151,22 @@ public class DiscordChatListener extends ListenerAdapter {
         }
 
         // block bots
-        if (DiscordSRV.config().getBoolean("DiscordChatChannelBlockBots") && event.getAuthor().isBot() && !event.isWebhookMessage()) {
+        if (snapshot.isBlockBots() && event.getAuthor().isBot() && !event.isWebhookMessage()) {
             DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Received Discord message from bot " + event.getAuthor() + " but DiscordChatChannelBlockBots is on");
             return;
         }
 
         // blocked ids
-        if (DiscordSRV.config().getStringList("DiscordChatChannelBlockedIds").contains(event.getAuthor().getId())) {
+        if (snapshot.getBlockedIds().contains(event.getAuthor().getId())) {
             DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Received Discord message from user " + event.getAuthor() + " but they are on the DiscordChatChannelBlockedIds list");
             return;
         }
 
         // blocked roles
         if (!event.isWebhookMessage()) {
-            boolean hasRole = DiscordSRV.config().getStringList("DiscordChatChannelBlockedRolesIds").stream().anyMatch(id -> event.getMember().getRoles().stream().anyMatch(r -> r.getId().equals(id)));
-            boolean whitelist = DiscordSRV.config().getBoolean("DiscordChatChannelBlockedRolesAsWhitelist");
+            Set<String> blockedRoleIds = snapshot.getBlockedRoleIds();
+            boolean hasRole = !blockedRoleIds.isEmpty() && event.getMember().getRoles().stream().anyMatch(r -> blockedRoleIds.contains(r.getId()));
+            boolean whitelist = snapshot.isBlockedRolesAsWhitelist();
             if (whitelist != hasRole) {
                 DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Received Discord message from user " + event.getAuthor() + " but they " + (whitelist ? "don't " : "") + "have a role from the DiscordChatChannelBlockedRolesIds list");
                 event.getMessage().addReaction("❌").queue();
@@ -170,7 +174,9 @@ public class DiscordChatListener extends ListenerAdapter {
             }
         }
 
+        long processingStart = System.nanoTime();
         DiscordGuildMessagePreProcessEvent preEvent = DiscordSRV.api.callEvent(new DiscordGuildMessagePreProcessEvent(event));
+        PipelineMetrics.Stage.TO_MINECRAFT_PRE_PROCESS.record(processingStart);
         if (preEvent.isCancelled()) {
             DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "DiscordGuildMessagePreProcessEvent was cancelled, message send aborted");
             return;
@@ -196,21 +202,19 @@ public class DiscordChatListener extends ListenerAdapter {
         if (StringUtils.isBlank(event.getMessage().getContentRaw())) return;
 
         // apply regex filters
-        for (Map.Entry<Pattern, String> entry : DiscordSRV.getPlugin().getDiscordRegexes().entrySet()) {
-            message = entry.getKey().matcher(message).replaceAll(entry.getValue());
-            if (StringUtils.isBlank(message)) {
-                DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Not processing Discord message because it was cleared by a filter: " + entry.getKey().pattern());
-                return;
-            }
-        }
+        long stageStart = System.nanoTime();
+        message = DiscordSRV.getPlugin().getDiscordFilters().filter(message, pattern ->
+                DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Not processing Discord message because it was cleared by a filter: " + pattern));
+        if (message == null) return;
+        stageStart = PipelineMetrics.Stage.TO_MINECRAFT_REGEX.record(stageStart);
 
-        if (message.length() > DiscordSRV.config().getInt("DiscordChatChannelTruncateLength")) {
+        if (message.length() > snapshot.getTruncateLength()) {
             event.getMessage().addReaction("\uD83D\uDCAC").queue(v -> event.getMessage().addReaction("❗").queue());
-            message = message.substring(0, DiscordSRV.config().getInt("DiscordChatChannelTruncateLength"));
+            message = message.substring(0, snapshot.getTruncateLength());
         }
 
         // strip colors if role doesn't have permission
-        List<String> rolesAllowedToColor = DiscordSRV.config().getStringList("DiscordChatChannelRolesAllowedToUseColorCodesInChat");
+        Set<String> rolesAllowedToColor = snapshot.getRolesAllowedToUseColorCodes();
         boolean shouldStripColors = !rolesAllowedToColor.contains("@everyone");
         if (!event.isWebhookMessage()) {
             for (Role role : event.getMember().getRoles())
@@ -229,7 +233,10 @@ public class DiscordChatListener extends ListenerAdapter {
         Component reserialized = MessageUtil.reserializeToMinecraftBasedOnConfig(message);
         message = shouldStripColors ? PlainTextComponentSerializer.plainText().serialize(reserialized) : MessageUtil.toPlain(reserialized, isLegacy);
         if (!isLegacy && shouldStripColors) message = MessageUtil.escapeMiniTokens(message);
+        long mentionsStart = System.nanoTime();
+        long formattingNanos = mentionsStart - stageStart;
         message = DiscordUtil.convertMentionsToNames(message);
+        stageStart = PipelineMetrics.Stage.TO_MINECRAFT_MENTIONS.record(mentionsStart);
 
         if (StringUtils.isBlank(message)) {
             // just emotes
@@ -237,7 +244,7 @@ public class DiscordChatListener extends ListenerAdapter {
             return;
         }
 
-        String emojiBehavior = DiscordSRV.config().getString("DiscordChatChannelEmojiBehavior");
+        String emojiBehavior = snapshot.getEmojiBehavior();
         boolean hideEmoji = emojiBehavior.equalsIgnoreCase("hide");
         if (hideEmoji && StringUtils.isBlank(EmojiParser.removeAllEmojis(message))) {
             DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Ignoring message from " + event.getAuthor() + " because it became completely blank after removing unicode emojis");
@@ -272,8 +279,13 @@ public class DiscordChatListener extends ListenerAdapter {
         Component component = MessageUtil.toComponent(formatMessage);
         String finalMessage = message;
         component = replaceRoleColorAndMessage(component, finalMessage, topRole != null ? topRole.getColorRaw() : DiscordUtil.DISCORD_DEFAULT_COLOR_RGB);
+        // formatting is everything between the regex filters & the post process event, except mention conversion
+        long formattedAt = System.nanoTime();
+        PipelineMetrics.Stage.TO_MINECRAFT_FORMATTING.getHistogram().recordNanos(formattingNanos + (formattedAt - stageStart));
+        stageStart = formattedAt;
 
         DiscordGuildMessagePostProcessEvent postEvent = DiscordSRV.api.callEvent(new DiscordGuildMessagePostProcessEvent(event, preEvent.isCancelled(), component));
+        PipelineMetrics.Stage.TO_MINECRAFT_POST_PROCESS.record(stageStart);
         if (postEvent.isCancelled()) {
             DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "DiscordGuildMessagePostProcessEvent was cancelled, message send aborted");
             return;
@@ -305,31 +317,29 @@ public class DiscordChatListener extends ListenerAdapter {
                     nameFormat = PlaceholderUtil.replacePlaceholders(nameFormat);
 
                     // apply regex filters
-                    for (Map.Entry<Pattern, String> entry : DiscordSRV.getPlugin().getDiscordRegexes().entrySet()) {
-                        chatFormat = entry.getKey().matcher(chatFormat).replaceAll(entry.getValue());
-                        nameFormat = entry.getKey().matcher(nameFormat).replaceAll(entry.getValue());
-                    }
+                    RegexFilterChain discordFilters = DiscordSRV.getPlugin().getDiscordFilters();
+                    chatFormat = discordFilters.apply(chatFormat);
+                    nameFormat = discordFilters.apply(nameFormat);
 
                     nameFormat = MessageUtil.strip(nameFormat);
                     dynmapHook.broadcastMessageToDynmap(nameFormat, chatFormat);
         });
 
+        long broadcastStart = System.nanoTime();
         DiscordSRV.getPlugin().broadcastMessageToMinecraftServer(
                 DiscordSRV.getPlugin().getDestinationGameChannelNameForTextChannel(event.getChannel()),
                 postEvent.getMinecraftMessage(),
                 event.getAuthor()
         );
+        PipelineMetrics.Stage.TO_MINECRAFT_BROADCAST.record(broadcastStart);
+        PipelineMetrics.Stage.TO_MINECRAFT_TOTAL.record(processingStart);
     }
 
     private boolean handleMessageAddons(GuildMessageReceivedEvent event, DiscordGuildMessagePreProcessEvent preEvent, List<Role> selectedRoles, Role topRole, String url) {
         // apply regex filters to url
-        for (Map.Entry<Pattern, String> entry : DiscordSRV.getPlugin().getDiscordRegexes().entrySet()) {
-            url = entry.getKey().matcher(url).replaceAll(entry.getValue());
-            if (StringUtils.isBlank(url)) {
-                DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Not processing Discord message addon because its URL was cleared by a filter: " + entry.getKey().pattern());
-                return false;
-            }
-        }
+        url = DiscordSRV.getPlugin().getDiscordFilters().filter(url, pattern ->
+                DiscordSRV.debug(Debug.DISCORD_TO_MINECRAFT, "Not processing Discord message addon because its URL was cleared by a filter: " + pattern));
+        if (url == null) return false;
 
         // get the correct format message
         String destinationGameChannelNameForTextChannel = DiscordSRV.getPlugin().getDestinationGameChannelNameForTextChannel(event.getChannel());
@@ -431,44 +441,7 @@ public class DiscordChatListener extends ListenerAdapter {
         if (!StringUtils.trimToEmpty(message).equalsIgnoreCase(DiscordSRV.config().getString("DiscordChatChannelListCommandMessage"))) return false;
 
         int expiration = DiscordSRV.config().getInt("DiscordChatChannelListCommandExpiration") * 1000;
-        String playerListMessage;
-        if (PlayerUtil.getOnlinePlayers(true).size() == 0) {
-            playerListMessage = PlaceholderUtil.replacePlaceholdersToDiscord(LangUtil.Message.PLAYER_LIST_COMMAND_NO_PLAYERS.toString());
-        } else {
-            playerListMessage = LangUtil.Message.PLAYER_LIST_COMMAND.toString().replace("%playercount%", PlayerUtil.getOnlinePlayers(true).size() + "/" + Bukkit.getMaxPlayers());
-            playerListMessage = PlaceholderUtil.replacePlaceholdersToDiscord(playerListMessage);
-            playerListMessage += "\n```\n";
-
-            StringJoiner players = new StringJoiner(LangUtil.Message.PLAYER_LIST_COMMAND_ALL_PLAYERS_SEPARATOR.toString());
-
-            List<String> playerList = new LinkedList<>();
-            for (Player player : PlayerUtil.getOnlinePlayers(true)) {
-                String userPrimaryGroup = VaultHook.getPrimaryGroup(player);
-                boolean hasGoodGroup = StringUtils.isNotBlank(userPrimaryGroup);
-                // capitalize the first letter of the user's primary group to look neater
-                if (hasGoodGroup) userPrimaryGroup = userPrimaryGroup.substring(0, 1).toUpperCase() + userPrimaryGroup.substring(1);
-
-                String playerFormat = LangUtil.Message.PLAYER_LIST_COMMAND_PLAYER.toString()
-                        .replace("%username%", player.getName())
-                        .replace("%displayname%", MessageUtil.strip(player.getDisplayName()))
-                        .replace("%primarygroup%", userPrimaryGroup)
-                        .replace("%world%", player.getWorld().getName())
-                        .replace("%worldalias%", MessageUtil.strip(DiscordSRV.getPlugin().getWorldAlias(player.getWorld().getName())));
-
-                // use PlaceholderAPI if available
-                playerFormat = PlaceholderUtil.replacePlaceholdersToDiscord(playerFormat, player);
-                playerList.add(playerFormat);
-            }
-
-            playerList.sort(Comparator.naturalOrder());
-            for (String playerFormat : playerList) {
-                players.add(playerFormat);
-            }
-            playerListMessage += players.toString();
-
-            if (playerListMessage.length() > 1996) playerListMessage = playerListMessage.substring(0, 1993) + "...";
-            playerListMessage += "\n```";
-        }
+        String playerListMessage = DiscordSRV.getPlugin().getPlayerListCache().getMessage();
 
         DiscordChatChannelListCommandMessageEvent listCommandMessageEvent = DiscordSRV.api.callEvent(
                 new DiscordChatChannelListCommandMessageEvent(event.getChannel(), event.getGuild(), message, event, playerListMessage, expiration, DiscordChatChannelListCommandMessageEvent.Result.SEND_RESPONSE));
@@ -25,6 +25,7 @@ import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.api.events.AchievementMessagePostProcessEvent;
 import github.scarsz.discordsrv.api.events.AchievementMessagePreProcessEvent;
 import github.scarsz.discordsrv.objects.MessageFormat;
+import github.scarsz.discordsrv.objects.MessageTemplate;
 import github.scarsz.discordsrv.util.*;
 import lombok.SneakyThrows;
 import java.lang.reflect.Field;
@@ -121,17 +122,21 @@ public class PlayerAdvancementDoneListener implements Listener {
         TextChannel destinationChannel = DiscordSRV.getPlugin().getDestinationTextChannelForGameChannelName(channelName);
         BiFunction<String, Boolean, String> translator = (content, needsEscape) -> {
             if (content == null) return null;
-            content = content
-                    .replaceAll("%time%|%date%", TimeUtil.timeStamp())
-                    .replace("%username%", needsEscape ? DiscordUtil.escapeMarkdown(player.getName()) : player.getName())
-                    .replace("%displayname%", needsEscape ? DiscordUtil.escapeMarkdown(displayName) : displayName)
-                    .replace("%usernamenoescapes%", player.getName())
-                    .replace("%displaynamenoescapes%", displayName)
-                    .replace("%world%", player.getWorld().getName())
-                    .replace("%achievement%", MessageUtil.strip(needsEscape ? DiscordUtil.escapeMarkdown(finalAchievementName) : finalAchievementName))
-                    .replace("%embedavatarurl%", avatarUrl)
-                    .replace("%botavatarurl%", botAvatarUrl)
-                    .replace("%botname%", botName);
+            content = MessageTemplate.of(content).render(placeholder -> {
+                switch (placeholder) {
+                    case "time": case "date": return TimeUtil.timeStamp();
+                    case "username": return needsEscape ? DiscordUtil.escapeMarkdown(player.getName()) : player.getName();
+                    case "displayname": return needsEscape ? DiscordUtil.escapeMarkdown(displayName) : displayName;
+                    case "usernamenoescapes": return player.getName();
+                    case "displaynamenoescapes": return displayName;
+                    case "world": return player.getWorld().getName();
+                    case "achievement": return MessageUtil.strip(needsEscape ? DiscordUtil.escapeMarkdown(finalAchievementName) : finalAchievementName);
+                    case "embedavatarurl": return avatarUrl;
+                    case "botavatarurl": return botAvatarUrl;
+                    case "botname": return botName;
+                    default: return null;
+                }
+            });
             if (destinationChannel != null) content = DiscordUtil.translateEmotes(content, destinationChannel.getGuild());
             content = PlaceholderUtil.replacePlaceholdersToDiscord(content, player);
             return content;
@@ -25,7 +25,6 @@ import alexh.weak.Weak;
 import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.api.Subscribe;
-import github.scarsz.discordsrv.objects.ExpiringDualHashBidiMap;
 import github.scarsz.discordsrv.objects.Lag;
 import github.scarsz.discordsrv.objects.MessageFormat;
 import github.scarsz.discordsrv.util.*;
@@ -35,7 +34,6 @@ import net.dv8tion.jda.api.events.GenericEvent;
 import net.dv8tion.jda.api.hooks.EventListener;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
-import org.bukkit.Bukkit;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Player;
 import org.bukkit.event.*;
@@ -44,15 +42,14 @@ import org.bukkit.event.player.PlayerEvent;
 import org.bukkit.event.server.ServerCommandEvent;
 import org.bukkit.plugin.RegisteredListener;
 import org.jetbrains.annotations.NotNull;
-import org.springframework.expression.ParseException;
 import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.*;
-import java.util.concurrent.TimeUnit;
 import java.util.function.BiFunction;
 import java.util.function.Function;
 import java.util.regex.Matcher;
@@ -78,9 +75,30 @@ public class AlertListener implements Listener, EventListener {
 
     private static final List<Class<?>> BLACKLISTED_CLASSES = new ArrayList<>();
 
-    private final Map<String, String> validClassNameCache = new ExpiringDualHashBidiMap<>(TimeUnit.MINUTES.toMillis(1));
-    private final Set<String> activeTriggers = new HashSet<>();
-    private boolean anyCommandTrigger = false;
+    // some things that do deal with players are not properly marked as a player event,
+    // so look for a #getPlayer() method returning a Player (once per event class)
+    private static final ClassValue<Method> PLAYER_ACCESSORS = new ClassValue<Method>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            try {
+                Method getPlayerMethod = type.getMethod("getPlayer");
+                return getPlayerMethod.getReturnType().equals(Player.class) ? getPlayerMethod : null;
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+    };
+    private static final ClassValue<String> EVENT_CLASS_NAMES = new ClassValue<String>() {
+        @Override
+        protected String computeValue(Class<?> type) {
+            return type.getName().replace("github.scarsz.discordsrv.dependencies.jda", "net.".concat("dv8tion.jda"));
+        }
+    };
+
+    // trigger -> rules indexes, replaced as a whole when reloading
+    private volatile Map<String, List<AlertRule>> classTriggers = Collections.emptyMap();
+    private volatile Map<String, List<AlertRule>> nameTriggers = Collections.emptyMap();
+    private volatile Map<String, List<AlertRule>> commandTriggers = Collections.emptyMap();
 
     static {
         for (String className : BLACKLISTED_CLASS_NAMES) {
@@ -92,6 +110,7 @@ public class AlertListener implements Listener, EventListener {
 
     private final RegisteredListener listener;
     private final List<Dynamic> alerts = new ArrayList<>();
+    private volatile List<AlertRule> rules = Collections.emptyList();
     private boolean registered = false;
 
     public AlertListener() {
@@ -186,10 +205,11 @@ public class AlertListener implements Listener, EventListener {
     }
 
     public void reloadAlerts() {
-        validClassNameCache.clear();
-        activeTriggers.clear();
-        anyCommandTrigger = false;
         alerts.clear();
+        rules = Collections.emptyList();
+        classTriggers = Collections.emptyMap();
+        nameTriggers = Collections.emptyMap();
+        commandTriggers = Collections.emptyMap();
         Optional<List<Map<?, ?>>> optionalAlerts = DiscordSRV.config().getOptional("Alerts");
         if (registered) unregister();
 
@@ -201,17 +221,24 @@ public class AlertListener implements Listener, EventListener {
         Set<HandlerList> handlerLists = new HashSet<>();
         long count = optionalAlerts.get().size();
 
+        List<AlertRule> rules = new ArrayList<>();
+        Map<String, List<AlertRule>> classTriggers = new HashMap<>();
+        Map<String, List<AlertRule>> nameTriggers = new HashMap<>();
+        Map<String, List<AlertRule>> commandTriggers = new HashMap<>();
         for (Map<?, ?> map : optionalAlerts.get()) {
             Dynamic alert = Dynamic.from(map);
             alerts.add(alert);
             Set<String> triggers = getTriggers(alert);
+            AlertRule rule = new AlertRule(rules.size(), alert, triggers);
+            rules.add(rule);
 
             for (String trigger : triggers) {
                 if (trigger.startsWith("/")) {
-                    anyCommandTrigger = true;
+                    commandTriggers.computeIfAbsent(trigger.substring(1).toLowerCase(Locale.ROOT), k -> new ArrayList<>(1)).add(rule);
                     continue;
                 }
-                activeTriggers.add(trigger.toLowerCase(Locale.ROOT));
+                classTriggers.computeIfAbsent(trigger, k -> new ArrayList<>(1)).add(rule);
+                nameTriggers.computeIfAbsent(trigger.toLowerCase(Locale.ROOT), k -> new ArrayList<>(1)).add(rule);
 
                 if (!trigger.contains(".")) {
                     simpleClassNames.add(trigger);
@@ -271,6 +298,10 @@ public class AlertListener implements Listener, EventListener {
             DiscordSRV.warning("Read https://docs.discordsrv.com/alerts/migration for more information");
             hackIntoAllHandlerLists();
         }
+        this.rules = Collections.unmodifiableList(rules);
+        this.classTriggers = classTriggers;
+        this.nameTriggers = nameTriggers;
+        this.commandTriggers = commandTriggers;
         registered = true;
         DiscordSRV.info(optionalAlerts.get().size() + " alert" + (count > 1 ? "s" : "") + " registered");
     }
@@ -279,6 +310,10 @@ public class AlertListener implements Listener, EventListener {
         return alerts;
     }
 
+    public List<AlertRule> getRules() {
+        return rules;
+    }
+
     public void unregister() {
         HandlerList.unregisterAll(listener.getListener());
         registered = false;
@@ -305,14 +340,13 @@ public class AlertListener implements Listener, EventListener {
     }
 
     private void runAlertsForEvent(Object event) {
-        boolean command = event instanceof PlayerCommandPreprocessEvent || event instanceof ServerCommandEvent;
-
+        String command = getCommand(event);
         String eventClassName = getEventClassName(event);
-        boolean active = (command && anyCommandTrigger)
-                || activeTriggers.contains(eventClassName.toLowerCase(Locale.ROOT))
-                || activeTriggers.contains(getEventName(event).toLowerCase(Locale.ROOT));
-        if (!active) {
-            if (event instanceof Event) {
+        String eventName = getEventName(event);
+
+        List<AlertRule> rules = getRules(eventClassName, eventName, command);
+        if (rules.isEmpty()) {
+            if (event instanceof Event && command == null) {
                 // remove us from HandlerLists that we don't need (we can do this here, since we have the full class name)
                 // but we need to ignore events where the HandlerList may be inherited from a super class
                 Class<?> checkClass = event.getClass().getSuperclass();
@@ -336,35 +370,35 @@ public class AlertListener implements Listener, EventListener {
             return;
         }
 
-        for (int i = 0; i < alerts.size(); i++) {
-            Dynamic alert = alerts.get(i);
-            Set<String> triggers = getTriggers(alert);
-            boolean async = true;
-
-            Dynamic asyncDynamic = alert.get("Async");
-            if (asyncDynamic.isPresent()) {
-                if (asyncDynamic.convert().intoString().equalsIgnoreCase("false")
-                        || asyncDynamic.convert().intoString().equalsIgnoreCase("no")) {
-                    async = false;
-                }
-            }
-
-            for (String syncName : SYNC_EVENT_NAMES) {
-                if (eventClassName.equals(syncName)) {
-                    async = false;
-                    break;
-                }
-            }
-
-            if (async) {
-                int alertIndex = i;
-                SchedulerUtil.runTaskAsynchronously(DiscordSRV.getPlugin(), () -> process(event, alert, triggers, alertIndex));
+        boolean syncEvent = SYNC_EVENT_NAMES.contains(eventClassName);
+        for (AlertRule rule : rules) {
+            if (rule.isAsync() && !syncEvent) {
+                SchedulerUtil.runTaskAsynchronously(DiscordSRV.getPlugin(), () -> process(event, rule, command, eventClassName, eventName));
             } else {
-                process(event, alert, triggers, i);
+                process(event, rule, command, eventClassName, eventName);
             }
         }
     }
 
+    private List<AlertRule> getRules(String eventClassName, String eventName, String command) {
+        List<AlertRule> byClass = classTriggers.getOrDefault(eventClassName, Collections.emptyList());
+        List<AlertRule> byName = nameTriggers.getOrDefault(eventName.toLowerCase(Locale.ROOT), Collections.emptyList());
+        List<AlertRule> byCommand = command != null
+                ? commandTriggers.getOrDefault(command.toLowerCase(Locale.ROOT).split("\\s+|$", 2)[0], Collections.emptyList())
+                : Collections.emptyList();
+
+        if (byName.isEmpty() && byCommand.isEmpty()) return byClass;
+        if (byClass.isEmpty() && byCommand.isEmpty()) return byName;
+        if (byClass.isEmpty() && byName.isEmpty()) return byCommand;
+
+        // keep the config order when the event matched several kinds of triggers
+        Set<AlertRule> merged = new TreeSet<>(Comparator.comparingInt(AlertRule::getIndex));
+        merged.addAll(byClass);
+        merged.addAll(byName);
+        merged.addAll(byCommand);
+        return new ArrayList<>(merged);
+    }
+
     private Set<String> getTriggers(Dynamic alert) {
         Set<String> triggers = new HashSet<>();
         Dynamic triggerDynamic = alert.get("Trigger");
@@ -380,17 +414,12 @@ public class AlertListener implements Listener, EventListener {
         Set<String> finalTriggers = new HashSet<>();
         for (String trigger : triggers) {
             if (!trigger.startsWith("/")) {
-                String className = validClassNameCache.get(trigger);
-                if (className == null) {
-                    // event trigger, make sure it's a valid class name
-                    Matcher matcher = VALID_CLASS_NAME_PATTERN.matcher(trigger);
-                    if (matcher.find()) {
-                        // valid class name found
-                        className = matcher.group();
-                    }
-                    validClassNameCache.put(trigger, className);
+                // event trigger, make sure it's a valid class name
+                Matcher matcher = VALID_CLASS_NAME_PATTERN.matcher(trigger);
+                if (matcher.find()) {
+                    // valid class name found
+                    finalTriggers.add(matcher.group());
                 }
-                finalTriggers.add(className);
                 continue;
             }
             finalTriggers.add(trigger);
@@ -399,87 +428,78 @@ public class AlertListener implements Listener, EventListener {
     }
 
     private String getEventClassName(Object event) {
-        String className = event instanceof String ? (String) event : event.getClass().getName();
-        return className.replace("github.scarsz.discordsrv.dependencies.jda", "net.".concat("dv8tion.jda"));
+        if (event instanceof String) return ((String) event).replace("github.scarsz.discordsrv.dependencies.jda", "net.".concat("dv8tion.jda"));
+        return EVENT_CLASS_NAMES.get(event.getClass());
     }
 
     private String getEventName(Object event) {
         return event instanceof Event ? ((Event) event).getEventName() : event.getClass().getSimpleName();
     }
 
-    private void process(Object event, Dynamic alert, Set<String> triggers, int alertIndex) {
+    /**
+     * @return the command of a command event without the namespace of the command (eg. "discordsrv:discord" to "discord"), null for other events
+     */
+    private String getCommand(Object event) {
+        String command = null;
+        if (event instanceof PlayerCommandPreprocessEvent) {
+            command = ((PlayerCommandPreprocessEvent) event).getMessage().substring(1);
+        } else if (event instanceof ServerCommandEvent) {
+            command = ((ServerCommandEvent) event).getCommand();
+        }
+        if (StringUtils.isBlank(command)) return null;
+
+        String[] split = command.split(" ", 2);
+        String commandBase = split[0];
+
+        // transform "discordsrv:discord" to just "discord" for example
+        if (commandBase.contains(":")) commandBase = commandBase.substring(commandBase.lastIndexOf(":") + 1);
+
+        return commandBase + (split.length == 2 ? (" " + split[1]) : "");
+    }
+
+    private void process(Object event, AlertRule rule, String command, String eventClassName, String eventName) {
         Player player = event instanceof PlayerEvent ? ((PlayerEvent) event).getPlayer() : null;
         if (player == null) {
-            // some things that do deal with players are not properly marked as a player event
-            // this will check to see if a #getPlayer() method exists on events coming through
-            try {
-                Method getPlayerMethod = event.getClass().getMethod("getPlayer");
-                if (getPlayerMethod.getReturnType().equals(Player.class)) {
+            Method getPlayerMethod = PLAYER_ACCESSORS.get(event.getClass());
+            if (getPlayerMethod != null) {
+                try {
                     player = (Player) getPlayerMethod.invoke(event);
+                } catch (Exception ignored) {
+                    // we tried ¯\_(ツ)_/¯
                 }
-            } catch (Exception ignored) {
-                // we tried ¯\_(ツ)_/¯
             }
         }
 
         CommandSender sender = null;
-        String command = null;
         List<String> args = new LinkedList<>();
 
         if (event instanceof PlayerCommandPreprocessEvent) {
             sender = player;
-            command = ((PlayerCommandPreprocessEvent) event).getMessage().substring(1);
         } else if (event instanceof ServerCommandEvent) {
             sender = ((ServerCommandEvent) event).getSender();
-            command = ((ServerCommandEvent) event).getCommand();
         }
-        if (StringUtils.isNotBlank(command)) {
+        if (command != null) {
             String[] split = command.split(" ", 2);
-            String commandBase = split[0];
             if (split.length == 2) args.addAll(Arrays.asList(split[1].split(" ")));
-
-            // transform "discordsrv:discord" to just "discord" for example
-            if (commandBase.contains(":")) commandBase = commandBase.substring(commandBase.lastIndexOf(":") + 1);
-
-            command = commandBase + (split.length == 2 ? (" " + split[1]) : "");
         }
 
-        MessageFormat messageFormat = DiscordSRV.getPlugin().getMessageFromConfiguration("Alerts." + alertIndex);
+        MessageFormat messageFormat = rule.getMessageFormat();
 
-        String eventClassName = getEventClassName(event);
-        String eventName = getEventName(event);
-        for (String trigger : triggers) {
+        for (String trigger : rule.getTriggers()) {
             if (trigger.startsWith("/")) {
-                if (StringUtils.isBlank(command) || !command.toLowerCase().split("\\s+|$", 2)[0].equals(trigger.substring(1))) continue;
+                if (command == null || !command.toLowerCase().split("\\s+|$", 2)[0].equalsIgnoreCase(trigger.substring(1))) continue;
             } else {
                 // make sure the called event matches what this alert is supposed to trigger on
                 if (!eventClassName.equals(trigger) && !eventName.equalsIgnoreCase(trigger)) continue;
             }
 
             // make sure alert should run even if event is cancelled
-            if (event instanceof Cancellable && ((Cancellable) event).isCancelled()) {
-                Dynamic ignoreCancelledDynamic = alert.get("IgnoreCancelled");
-                boolean ignoreCancelled = ignoreCancelledDynamic.isPresent() ? ignoreCancelledDynamic.as(Boolean.class) : true;
-                if (ignoreCancelled) {
-                    DiscordSRV.debug(Debug.ALERTS, "Not running alert for event " + eventName + ": event was cancelled");
-                    return;
-                }
-            }
-
-            Dynamic textChannelsDynamic = alert.get("Channel");
-            if (textChannelsDynamic == null) {
-                DiscordSRV.debug(Debug.ALERTS, "Not running alert for trigger " + trigger + ": no target channel was defined");
+            if (event instanceof Cancellable && ((Cancellable) event).isCancelled() && rule.isIgnoreCancelled()) {
+                DiscordSRV.debug(Debug.ALERTS, "Not running alert for event " + eventName + ": event was cancelled");
                 return;
             }
-            Set<String> channels = new HashSet<>();
-            if (textChannelsDynamic.isList()) {
-                textChannelsDynamic.children()
-                        .map(Weak::asString)
-                        .filter(Objects::nonNull)
-                        .forEach(channels::add);
-            } else if (textChannelsDynamic.isString()) {
-                channels.add(textChannelsDynamic.asString());
-            }
+
+            Set<String> channels = rule.getChannels();
             Function<Function<String, Collection<TextChannel>>, Set<TextChannel>> channelResolver = converter -> {
                 Set<TextChannel> textChannels = new HashSet<>();
                 channels.forEach(channel -> textChannels.addAll(converter.apply(channel)));
@@ -506,63 +526,42 @@ public class AlertListener implements Listener, EventListener {
                 return;
             }
 
+            Map<String, Object> variables = new HashMap<>();
+            variables.put("event", event);
+            variables.put("player", player);
+            variables.put("sender", sender);
+            variables.put("command", command);
+            variables.put("args", args);
+            variables.put("allArgs", String.join(" ", args));
+
             for (TextChannel textChannel : textChannels) {
+                // plugins, server, discordsrv & jda come from the shared variables
+                StandardEvaluationContext context = SpELExpressionBuilder.createContext(event);
+                context.setVariables(variables);
+                context.setVariable("channel", textChannel);
+
                 // check alert conditions
                 boolean allConditionsMet = true;
-                Dynamic conditionsDynamic = alert.dget("Conditions");
-                if (conditionsDynamic.isPresent()) {
-                    Iterator<Dynamic> conditions = conditionsDynamic.children().iterator();
-                    while (conditions.hasNext()) {
-                        Dynamic dynamic = conditions.next();
-                        String expression = dynamic.convert().intoString();
-                        try {
-                            Boolean value = new SpELExpressionBuilder(expression)
-                                    .withPluginVariables()
-                                    .withVariable("event", event)
-                                    .withVariable("server", Bukkit.getServer())
-                                    .withVariable("discordsrv", DiscordSRV.getPlugin())
-                                    .withVariable("player", player)
-                                    .withVariable("sender", sender)
-                                    .withVariable("command", command)
-                                    .withVariable("args", args)
-                                    .withVariable("allArgs", String.join(" ", args))
-                                    .withVariable("channel", textChannel)
-                                    .withVariable("jda", DiscordUtil.getJda())
-                                    .evaluate(event, Boolean.class);
-                            DiscordSRV.debug(Debug.ALERTS, "Condition \"" + expression + "\" -> " + value);
-                            if (value != null && !value) {
-                                allConditionsMet = false;
-                                break;
-                            }
-                        } catch (ParseException e) {
-                            DiscordSRV.error("Error while parsing expression \"" + expression + "\" for trigger \"" + trigger + "\" -> " + e.getMessage());
-                        } catch (SpelEvaluationException e) {
-                            DiscordSRV.error("Error while evaluating expression \"" + expression + "\" for trigger \"" + trigger + "\" -> " + e.getMessage());
+                for (AlertRule.Condition condition : rule.getConditions()) {
+                    try {
+                        Boolean value = condition.getExpression().getValue(context, Boolean.class);
+                        DiscordSRV.debug(Debug.ALERTS, "Condition \"" + condition.getSource() + "\" -> " + value);
+                        if (value != null && !value) {
+                            allConditionsMet = false;
+                            break;
                         }
+                    } catch (SpelEvaluationException e) {
+                        DiscordSRV.error("Error while evaluating expression \"" + condition.getSource() + "\" for trigger \"" + trigger + "\" -> " + e.getMessage());
                     }
-                    if (!allConditionsMet) continue;
                 }
-
-                CommandSender finalSender = sender;
-                String finalCommand = command;
+                if (!allConditionsMet) continue;
 
                 Player finalPlayer = player;
                 BiFunction<String, Boolean, String> translator = (content, needsEscape) -> {
                     if (content == null) return null;
 
                     // evaluate any SpEL expressions
-                    Map<String, Object> variables = new HashMap<>();
-                    variables.put("event", event);
-                    variables.put("server", Bukkit.getServer());
-                    variables.put("discordsrv", DiscordSRV.getPlugin());
-                    variables.put("player", finalPlayer);
-                    variables.put("sender", finalSender);
-                    variables.put("command", finalCommand);
-                    variables.put("args", args);
-                    variables.put("allArgs", String.join(" ", args));
-                    variables.put("channel", textChannel);
-                    variables.put("jda", DiscordUtil.getJda());
-                    content = NamedValueFormatter.formatExpressions(content, event, variables);
+                    content = rule.evaluateExpressions(content, context);
 
                     // replace any normal placeholders
                     content = NamedValueFormatter.format(content, key -> {
@@ -0,0 +1,214 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.modules.alerts;
+
+import alexh.weak.Dynamic;
+import alexh.weak.Weak;
+import github.scarsz.discordsrv.DiscordSRV;
+import github.scarsz.discordsrv.objects.MessageFormat;
+import github.scarsz.discordsrv.util.SpELExpressionBuilder;
+import lombok.Getter;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ParseException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * An alert from the config with everything that doesn't depend on the event resolved ahead of time:
+ * the triggers, options, target channels, parsed conditions &amp; the parsed {@code ${...}} expressions of the message.
+ */
+public class AlertRule {
+
+    // same as NamedValueFormatter's expression pattern
+    private static final Pattern EXPRESSION_PATTERN = Pattern.compile("\\\\([^\\\\])|\\$\\{(.+?)}");
+
+    @Getter private final int index;
+    @Getter private final Dynamic config;
+    @Getter private final Set<String> triggers;
+    @Getter private final boolean async;
+    @Getter private final boolean ignoreCancelled;
+    @Getter private final Set<String> channels;
+    @Getter private final List<Condition> conditions;
+    @Getter private final MessageFormat messageFormat;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    AlertRule(int index, Dynamic config, Set<String> triggers) {
+        this.index = index;
+        this.config = config;
+        this.triggers = Collections.unmodifiableSet(triggers);
+
+        Dynamic asyncDynamic = config.get("Async");
+        this.async = !asyncDynamic.isPresent()
+                || !(asyncDynamic.convert().intoString().equalsIgnoreCase("false")
+                || asyncDynamic.convert().intoString().equalsIgnoreCase("no"));
+
+        boolean ignoreCancelled = true;
+        Dynamic ignoreCancelledDynamic = config.get("IgnoreCancelled");
+        if (ignoreCancelledDynamic.isPresent()) {
+            try {
+                ignoreCancelled = ignoreCancelledDynamic.as(Boolean.class);
+            } catch (RuntimeException e) {
+                DiscordSRV.warning("Alert #" + index + " has an invalid IgnoreCancelled value, it should be true or false");
+            }
+        }
+        this.ignoreCancelled = ignoreCancelled;
+
+        Set<String> channels = new LinkedHashSet<>();
+        Dynamic textChannelsDynamic = config.get("Channel");
+        if (textChannelsDynamic.isList()) {
+            textChannelsDynamic.children()
+                    .map(Weak::asString)
+                    .filter(Objects::nonNull)
+                    .forEach(channels::add);
+        } else if (textChannelsDynamic.isString()) {
+            channels.add(textChannelsDynamic.asString());
+        }
+        this.channels = Collections.unmodifiableSet(channels);
+
+        List<Condition> conditions = new ArrayList<>();
+        Dynamic conditionsDynamic = config.dget("Conditions");
+        if (conditionsDynamic.isPresent()) {
+            Iterator<Dynamic> iterator = conditionsDynamic.children().iterator();
+            while (iterator.hasNext()) {
+                String expression = iterator.next().convert().intoString();
+                try {
+                    conditions.add(new Condition(expression, SpELExpressionBuilder.parse(expression)));
+                } catch (ParseException e) {
+                    DiscordSRV.error("Error while parsing expression \"" + expression + "\" for alert #" + index + " -> " + e.getMessage());
+                }
+            }
+        }
+        this.conditions = Collections.unmodifiableList(conditions);
+
+        this.messageFormat = DiscordSRV.getPlugin().getMessageFromConfiguration("Alerts." + index);
+        if (messageFormat != null) {
+            // parse the expressions of every part of the message now instead of during the first event
+            List<String> parts = new ArrayList<>(Arrays.asList(
+                    messageFormat.getContent(),
+                    messageFormat.getAuthorName(), messageFormat.getAuthorUrl(), messageFormat.getAuthorImageUrl(),
+                    messageFormat.getThumbnailUrl(), messageFormat.getImageUrl(), messageFormat.getDescription(),
+                    messageFormat.getTitle(), messageFormat.getTitleUrl(),
+                    messageFormat.getFooterText(), messageFormat.getFooterIconUrl(),
+                    messageFormat.getWebhookName(), messageFormat.getWebhookAvatarUrl()
+            ));
+            if (messageFormat.getFields() != null) {
+                for (MessageEmbed.Field field : messageFormat.getFields()) {
+                    parts.add(field.getName());
+                    parts.add(field.getValue());
+                }
+            }
+            for (String part : parts) {
+                if (part != null) getTemplate(part);
+            }
+        }
+    }
+
+    /**
+     * Evaluate the {@code ${...}} expressions in the given part of this alert's message
+     * @param content the part of the message
+     * @param context the evaluation context for the event
+     * @return the content with expressions replaced by their values
+     */
+    public String evaluateExpressions(String content, EvaluationContext context) {
+        return getTemplate(content).render(context);
+    }
+
+    private Template getTemplate(String content) {
+        return templates.computeIfAbsent(content, Template::new);
+    }
+
+    @Override
+    public String toString() {
+        return "AlertRule{#" + index + ", triggers=" + triggers + "}";
+    }
+
+    public static class Condition {
+
+        @Getter private final String source;
+        @Getter private final Expression expression;
+
+        private Condition(String source, Expression expression) {
+            this.source = source;
+            this.expression = expression;
+        }
+
+    }
+
+    /**
+     * A piece of text split into literal text &amp; parsed expressions
+     */
+    private class Template {
+
+        private final List<Object> segments = new ArrayList<>();
+
+        private Template(String content) {
+            Matcher matcher = EXPRESSION_PATTERN.matcher(content);
+            int last = 0;
+            StringBuilder literal = new StringBuilder();
+            while (matcher.find()) {
+                literal.append(content, last, matcher.start());
+                last = matcher.end();
+
+                String expression = matcher.group(2);
+                if (expression == null) {
+                    // escaped character
+                    literal.append(matcher.group(1));
+                    continue;
+                }
+
+                try {
+                    Expression parsed = SpELExpressionBuilder.parse(expression);
+                    if (literal.length() > 0) {
+                        segments.add(literal.toString());
+                        literal.setLength(0);
+                    }
+                    segments.add(parsed);
+                } catch (ParseException e) {
+                    DiscordSRV.error("Error while parsing expression \"" + expression + "\" for alert #" + index + " -> " + e.getMessage());
+                    literal.append(matcher.group());
+                }
+            }
+            literal.append(content, last, content.length());
+            if (literal.length() > 0) segments.add(literal.toString());
+        }
+
+        private String render(EvaluationContext context) {
+            if (segments.size() == 1 && segments.get(0) instanceof String) return (String) segments.get(0);
+
+            StringBuilder builder = new StringBuilder();
+            for (Object segment : segments) {
+                if (segment instanceof Expression) {
+                    builder.append(((Expression) segment).getValue(context));
+                } else {
+                    builder.append((String) segment);
+                }
+            }
+            return builder.toString();
+        }
+
+    }
+
+}
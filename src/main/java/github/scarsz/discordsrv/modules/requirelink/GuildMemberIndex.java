@@ -0,0 +1,167 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.modules.requirelink;
+
+import github.scarsz.discordsrv.Debug;
+import github.scarsz.discordsrv.DiscordSRV;
+import github.scarsz.discordsrv.util.DiscordUtil;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.events.guild.GuildLeaveEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
+import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
+import net.dv8tion.jda.api.exceptions.ErrorResponseException;
+import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import net.dv8tion.jda.api.requests.ErrorResponse;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * <p>Answers whether a Discord user is a member of a guild, for login checks that can't afford a REST request per player.</p>
+ * <p>The JDA member cache is consulted first. Users that aren't cached are looked up over REST, with concurrent lookups
+ * for the same user &amp; guild sharing one request, and the result is remembered for a while (briefly when the
+ * user isn't a member, so that joining the server is noticed quickly). Member join &amp; leave events keep the
+ * remembered results accurate.</p>
+ */
+public class GuildMemberIndex extends ListenerAdapter {
+
+    private static final long PRESENT_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+    private static final long ABSENT_TTL_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final long LOOKUP_TIMEOUT_SECONDS = 10;
+    private static final int MAX_RESULTS = 4096;
+
+    private final Map<String, Result> results = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Boolean>> lookups = new ConcurrentHashMap<>();
+
+    /**
+     * Check if the given user is a member of the given guild, blocking if a REST request is needed
+     * @param guild the guild
+     * @param userId the user's id
+     * @return true if the user is a member of the guild
+     */
+    public boolean isMember(Guild guild, String userId) throws InterruptedException, ExecutionException, TimeoutException {
+        return lookup(guild, userId).get(LOOKUP_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Check if the given user is a member of any guild the bot is in, blocking if REST requests are needed
+     * @param userId the user's id
+     * @return true if the user shares at least one guild with the bot
+     */
+    public boolean isInAnyGuild(String userId) throws InterruptedException, ExecutionException, TimeoutException {
+        List<Guild> guilds = DiscordUtil.getJda().getGuilds();
+        for (Guild guild : guilds) {
+            if (guild.getMemberById(userId) != null) return true;
+        }
+
+        List<CompletableFuture<Boolean>> pending = new ArrayList<>(guilds.size());
+        for (Guild guild : guilds) {
+            CompletableFuture<Boolean> future = lookup(guild, userId);
+            if (future.isDone() && !future.isCompletedExceptionally() && future.join()) return true;
+            pending.add(future);
+        }
+        for (CompletableFuture<Boolean> future : pending) {
+            if (future.get(LOOKUP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) return true;
+        }
+        return false;
+    }
+
+    private CompletableFuture<Boolean> lookup(Guild guild, String userId) {
+        if (guild.getMemberById(userId) != null) return CompletableFuture.completedFuture(true);
+
+        String key = key(guild.getId(), userId);
+        Result result = results.get(key);
+        if (result != null) {
+            if (result.expiresAt > System.currentTimeMillis()) return CompletableFuture.completedFuture(result.present);
+            results.remove(key, result);
+        }
+
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = lookups.putIfAbsent(key, future);
+        if (existing != null) return existing;
+
+        DiscordSRV.debug(Debug.REQUIRE_LINK, "Member " + userId + " of " + guild + " isn't cached, retrieving");
+        guild.retrieveMemberById(userId).submit().whenComplete((member, throwable) -> {
+            if (throwable instanceof CompletionException && throwable.getCause() != null) throwable = throwable.getCause();
+            if (throwable == null) {
+                remember(key, true);
+                future.complete(true);
+            } else if (throwable instanceof ErrorResponseException && isUnknown(((ErrorResponseException) throwable).getErrorResponse())) {
+                remember(key, false);
+                future.complete(false);
+            } else {
+                future.completeExceptionally(throwable);
+            }
+            lookups.remove(key, future);
+        });
+        return future;
+    }
+
+    private void remember(String key, boolean present) {
+        if (results.size() >= MAX_RESULTS) {
+            long now = System.currentTimeMillis();
+            results.values().removeIf(result -> result.expiresAt <= now);
+            if (results.size() >= MAX_RESULTS) results.clear();
+        }
+        long ttl = present ? PRESENT_TTL_MILLIS : ABSENT_TTL_MILLIS;
+        results.put(key, new Result(present, System.currentTimeMillis() + ttl));
+    }
+
+    private static boolean isUnknown(ErrorResponse response) {
+        return response == ErrorResponse.UNKNOWN_MEMBER || response == ErrorResponse.UNKNOWN_USER;
+    }
+
+    private static String key(String guildId, String userId) {
+        return guildId + ":" + userId;
+    }
+
+    @Override
+    public void onGuildMemberJoin(@NotNull GuildMemberJoinEvent event) {
+        remember(key(event.getGuild().getId(), event.getUser().getId()), true);
+    }
+
+    @Override
+    public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event) {
+        remember(key(event.getGuild().getId(), event.getUser().getId()), false);
+    }
+
+    @Override
+    public void onGuildLeave(@NotNull GuildLeaveEvent event) {
+        String prefix = event.getGuild().getId() + ":";
+        results.keySet().removeIf(key -> key.startsWith(prefix));
+    }
+
+    private static class Result {
+
+        private final boolean present;
+        private final long expiresAt;
+
+        private Result(boolean present, long expiresAt) {
+            this.present = present;
+            this.expiresAt = expiresAt;
+        }
+
+    }
+
+}
@@ -26,6 +26,7 @@ import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.util.DiscordUtil;
 import github.scarsz.discordsrv.util.MessageUtil;
 import github.scarsz.discordsrv.util.SchedulerUtil;
+import lombok.Getter;
 import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
@@ -47,6 +48,8 @@ public class RequireLinkModule implements Listener {
     private static final String KICK_REASON_CONFIG_ERROR = AsyncPlayerPreLoginEvent.Result.KICK_OTHER.name();
     private static final String KICK_REASON_NOT_ALLOWED = AsyncPlayerPreLoginEvent.Result.KICK_OTHER.name();
 
+    @Getter private final GuildMemberIndex memberIndex = new GuildMemberIndex();
+
     public RequireLinkModule() {
         Bukkit.getPluginManager().registerEvents(this, DiscordSRV.getPlugin());
     }
@@ -124,8 +127,7 @@ public class RequireLinkModule implements Listener {
             Dynamic mustBeInDiscordServerOption = DiscordSRV.config().dget("Require linked account to play.Must be in Discord server");
             if (mustBeInDiscordServerOption.is(Boolean.class)) {
                 boolean mustBePresent = mustBeInDiscordServerOption.as(Boolean.class);
-                boolean isPresent = DiscordUtil.getJda().retrieveUserById(discordId).complete().getMutualGuilds().size() > 0;
-                if (mustBePresent && !isPresent) {
+                if (mustBePresent && !memberIndex.isInAnyGuild(discordId)) {
                     DiscordSRV.debug(Debug.REQUIRE_LINK, "Player " + playerName + "'s linked Discord account is NOT present, denying login");
                     disallow.accept(
                             KICK_REASON_NOT_ALLOWED,
@@ -147,7 +149,7 @@ public class RequireLinkModule implements Listener {
                     try {
                         Guild guild = DiscordUtil.getJda().getGuildById(guildId);
                         if (guild != null) {
-                            boolean inServer = guild.retrieveMemberById(discordId).complete() != null;
+                            boolean inServer = memberIndex.isMember(guild, discordId);
                             if (!inServer) {
                                 DiscordSRV.debug(Debug.REQUIRE_LINK, "Player " + playerName + "'s linked Discord account is NOT present, denying login");
                                 disallow.accept(
@@ -187,6 +189,11 @@ public class RequireLinkModule implements Listener {
                     }
 
                     Member member = role.getGuild().getMemberById(discordId);
+                    boolean partialCache = !DiscordSRV.getPlugin().getMembersLoaded().isDone() || DiscordSRV.getPlugin().getLinkedMemberCachePolicy() != null;
+                    if (member == null && partialCache && memberIndex.isMember(role.getGuild(), discordId)) {
+                        // not every member is cached, the lookup will have cached them if they're in the server
+                        member = role.getGuild().getMemberById(discordId);
+                    }
                     if (member != null && member.getRoles().contains(role)) {
                         matches++;
                     }
@@ -156,6 +156,13 @@ public class Network {
         return players.contains(uuid);
     }
 
+    /**
+     * @return a read-only view of the players in this network
+     */
+    public Set<UUID> getPlayers() {
+        return Collections.unmodifiableSet(players);
+    }
+
     public int size() {
         return players.size();
     }
@@ -0,0 +1,157 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.modules.voice;
+
+import lombok.Getter;
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * <p>Immutable snapshot of player positions, bucketed per world into square cells on the horizontal plane.</p>
+ * <p>Proximity queries only look at the cells around the origin, so their cost depends on how many players are nearby
+ * rather than how many players are online.</p>
+ */
+public class ProximityGrid {
+
+    private final double cellSize;
+    private final Map<UUID, Position> positions = new HashMap<>();
+    private final Map<String, Map<Long, List<Position>>> cells = new HashMap<>();
+
+    /**
+     * Snapshot the positions of the given players, must be called from the thread that owns the players
+     * @param players the players
+     * @param cellSize the width of a cell, preferably the largest radius that will be queried
+     * @return the snapshot
+     */
+    public static ProximityGrid snapshot(Collection<? extends Player> players, double cellSize) {
+        ProximityGrid grid = new ProximityGrid(cellSize);
+        for (Player player : players) {
+            Location location = player.getLocation();
+            if (location.getWorld() == null) continue;
+            grid.add(new Position(player.getUniqueId(), player.getName(), location.getWorld().getName(),
+                    location.getX(), location.getY(), location.getZ(), player.isDead()));
+        }
+        return grid;
+    }
+
+    private ProximityGrid(double cellSize) {
+        this.cellSize = Math.max(1, cellSize);
+    }
+
+    private void add(Position position) {
+        positions.put(position.getUuid(), position);
+        cells.computeIfAbsent(position.getWorld(), world -> new HashMap<>())
+                .computeIfAbsent(key(cell(position.getX()), cell(position.getZ())), key -> new ArrayList<>(4))
+                .add(position);
+    }
+
+    /**
+     * @return the position of the given player, null if they weren't online when the snapshot was made
+     */
+    public Position get(UUID uuid) {
+        return positions.get(uuid);
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    /**
+     * Run the given consumer for every other player within the given distances of the origin
+     * @param origin the position to search around
+     * @param horizontal the maximum horizontal distance
+     * @param vertical the maximum vertical distance
+     * @param consumer the consumer
+     */
+    public void forEachNear(Position origin, double horizontal, double vertical, Consumer<Position> consumer) {
+        anyNear(origin, horizontal, vertical, position -> {
+            consumer.accept(position);
+            return false;
+        });
+    }
+
+    /**
+     * Check if any other player within the given distances of the origin matches the given predicate
+     * @param origin the position to search around
+     * @param horizontal the maximum horizontal distance
+     * @param vertical the maximum vertical distance
+     * @param predicate the predicate
+     * @return true if a player matched, the search stops at the first match
+     */
+    public boolean anyNear(Position origin, double horizontal, double vertical, Predicate<Position> predicate) {
+        Map<Long, List<Position>> worldCells = cells.get(origin.getWorld());
+        if (worldCells == null) return false;
+
+        int range = (int) Math.ceil(horizontal / cellSize);
+        int originX = cell(origin.getX());
+        int originZ = cell(origin.getZ());
+        double horizontalSquared = horizontal * horizontal;
+        for (int x = originX - range; x <= originX + range; x++) {
+            for (int z = originZ - range; z <= originZ + range; z++) {
+                List<Position> cell = worldCells.get(key(x, z));
+                if (cell == null) continue;
+
+                for (Position position : cell) {
+                    if (position == origin || position.getUuid().equals(origin.getUuid())) continue;
+                    if (Math.abs(position.getY() - origin.getY()) > vertical) continue;
+                    double dx = position.getX() - origin.getX();
+                    double dz = position.getZ() - origin.getZ();
+                    if (dx * dx + dz * dz > horizontalSquared) continue;
+                    if (predicate.test(position)) return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private int cell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    private static long key(int x, int z) {
+        return ((long) x << 32) | (z & 0xFFFFFFFFL);
+    }
+
+    public static class Position {
+
+        @Getter private final UUID uuid;
+        @Getter private final String name;
+        @Getter private final String world;
+        @Getter private final double x, y, z;
+        @Getter private final boolean dead;
+
+        public Position(UUID uuid, String name, String world, double x, double y, double z, boolean dead) {
+            this.uuid = uuid;
+            this.name = name;
+            this.world = world;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.dead = dead;
+        }
+
+    }
+
+}
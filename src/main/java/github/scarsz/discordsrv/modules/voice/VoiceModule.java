@@ -54,7 +54,6 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.stream.Collectors;
 
 public class VoiceModule extends ListenerAdapter implements Listener {
 
@@ -62,7 +61,8 @@ public class VoiceModule extends ListenerAdapter implements Listener {
     private static final List<Permission> CATEGORY_REQUIRED_PERMISSIONS = Arrays.asList(Permission.VIEW_CHANNEL, Permission.VOICE_MOVE_OTHERS, Permission.MANAGE_PERMISSIONS, Permission.MANAGE_CHANNEL);
 
     private final ReentrantLock lock = new ReentrantLock();
-    private Set<UUID> dirtyPlayers = new HashSet<>();
+    private volatile Set<UUID> dirtyPlayers = ConcurrentHashMap.newKeySet();
+    private volatile ProximityGrid grid = null;
     @Getter
     private final Set<Network> networks = ConcurrentHashMap.newKeySet();
     @Getter
@@ -77,9 +77,9 @@ public class VoiceModule extends ListenerAdapter implements Listener {
             DiscordSRV.getPlugin().getJda().addEventListener(this);
             Bukkit.getPluginManager().registerEvents(this, DiscordSRV.getPlugin());
             SchedulerUtil.runTaskLater(DiscordSRV.getPlugin(), () ->
-                    SchedulerUtil.runTaskTimerAsynchronously(
+                    SchedulerUtil.runTaskTimer(
                             DiscordSRV.getPlugin(),
-                            this::tick,
+                            this::snapshotAndTick,
                             1,
                             DiscordSRV.config().getInt("Tick speed")
                     ),
@@ -109,6 +109,12 @@ public class VoiceModule extends ListenerAdapter implements Listener {
         }
     }
 
+    private void snapshotAndTick() {
+        // player locations are read on the main thread once per tick, the rest of the tick works off of this snapshot
+        grid = ProximityGrid.snapshot(PlayerUtil.getOnlinePlayerSnapshot(), getHorizontalStrength() + getFalloff());
+        SchedulerUtil.runTaskAsynchronously(DiscordSRV.getPlugin(), this::tick);
+    }
+
     private void tick() {
         if (!lock.tryLock()) {
             DiscordSRV.debug(Debug.VOICE, "Skipping voice module tick, a tick is already in progress");
@@ -163,31 +169,45 @@ public class VoiceModule extends ListenerAdapter implements Listener {
             // remove networks that have no voice channel
             networks.removeIf(network -> network.getChannel() == null && network.isInitialized());
 
-            Set<Player> alivePlayers = PlayerUtil.getOnlinePlayers().stream()
-                    .filter(player -> !player.isDead())
-                    .collect(Collectors.toSet());
+            ProximityGrid grid = this.grid;
+            if (grid == null) return;
+
+            double horizontalStrength = getHorizontalStrength();
+            double verticalStrength = getVerticalStrength();
+            double falloff = getFalloff();
+
+            // which networks each player is in, networks that get merged during this tick are resolved through the union-find
+            Map<UUID, Set<Network>> memberships = new HashMap<>();
+            for (Network network : networks) {
+                for (UUID member : network.getPlayers()) memberships.computeIfAbsent(member, k -> new HashSet<>()).add(network);
+            }
+            NetworkUnion union = new NetworkUnion();
 
             Set<UUID> oldDirtyPlayers = dirtyPlayers;
-            dirtyPlayers = new HashSet<>();
+            dirtyPlayers = ConcurrentHashMap.newKeySet();
             for (UUID uuid : oldDirtyPlayers) {
-                Player player = Bukkit.getPlayer(uuid);
-                if (player == null) continue;
+                ProximityGrid.Position position = grid.get(uuid);
+                if (position == null) {
+                    // joined after the snapshot was made
+                    if (Bukkit.getPlayer(uuid) != null) dirtyPlayers.add(uuid);
+                    continue;
+                }
 
-                Member member = getMember(player.getUniqueId());
+                Member member = getMember(uuid);
                 if (member == null) {
-                    DiscordSRV.debug(Debug.VOICE, "Player " + player.getName() + " isn't linked, skipping voice checks");
+                    DiscordSRV.debug(Debug.VOICE, "Player " + position.getName() + " isn't linked, skipping voice checks");
                     continue;
                 }
 
                 if (member.getVoiceState() == null || member.getVoiceState().getChannel() == null) {
-                    DiscordSRV.debug(Debug.VOICE, "Player " + player.getName() + " is not connected to voice");
+                    DiscordSRV.debug(Debug.VOICE, "Player " + position.getName() + " is not connected to voice");
                     continue;
                 }
 
                 VoiceChannel playerChannel = member.getVoiceState().getChannel();
                 boolean isLobby = playerChannel.getId().equals(getLobbyChannel().getId());
                 if (!isLobby && (playerChannel.getParent() == null || !playerChannel.getParent().getId().equals(getCategory().getId()))) {
-                    DiscordSRV.debug(Debug.VOICE, "Player " + player.getName() + " was not in the voice lobby or category");
+                    DiscordSRV.debug(Debug.VOICE, "Player " + position.getName() + " was not in the voice lobby or category");
 
                     // cancel existing moves if they changed to a different channel
                     Pair<String, CompletableFuture<Void>> pair = awaitingMoves.get(member.getId());
@@ -197,43 +217,43 @@ public class VoiceModule extends ListenerAdapter implements Listener {
 
                 // add player to networks that they may have came into contact with
                 // and combine multiple networks if the player is connecting them together
-                networks.stream()
-                        .filter(network -> network.isPlayerInRangeToBeAdded(player))
-                        // combine multiple networks if player is bridging both of them together
-                        .reduce((network1, network2) -> network1.size() > network2.size() ? network1.engulf(network2) : network2.engulf(network1))
-                        // add the player to the network if they aren't in it already
-                        .filter(network -> !network.contains(player.getUniqueId()))
-                        .ifPresent(network -> {
-                            DiscordSRV.debug(Debug.VOICE, player.getName() + " has entered network " + network + "'s influence, connecting");
-                            network.add(player.getUniqueId());
-                        });
-
-                // remove player from networks that they lost connection to
-                networks.stream()
-                        .filter(network -> network.contains(player.getUniqueId()))
-                        .filter(network -> !network.isPlayerInRangeToStayConnected(player))
-                        .forEach(network -> {
-                            DiscordSRV.debug(Debug.VOICE, "Player " + player.getName() + " lost connection to " + network + ", disconnecting");
-                            network.remove(player.getUniqueId());
-                            if (network.size() == 1) network.clear();
-                        });
+                Set<Network> networksInRange = new HashSet<>();
+                grid.forEachNear(position, horizontalStrength, verticalStrength, other ->
+                        networksInRange.addAll(networksOf(memberships, union, other.getUuid())));
+                Network joined = null;
+                for (Network network : networksInRange) {
+                    joined = joined == null ? union.find(network) : union.union(joined, network);
+                }
+                if (joined != null && !joined.contains(uuid)) {
+                    DiscordSRV.debug(Debug.VOICE, position.getName() + " has entered network " + joined + "'s influence, connecting");
+                    joined.add(uuid);
+                    memberships.computeIfAbsent(uuid, k -> new HashSet<>()).add(joined);
+                }
+
+                // remove player from every network that they lost connection to
+                // (stale memberships are left behind, networksOf only returns networks that still contain the player)
+                for (Network current : networksOf(memberships, union, uuid)) {
+                    if (grid.anyNear(position, horizontalStrength + falloff, verticalStrength + falloff, other -> current.contains(other.getUuid()))) continue;
+
+                    DiscordSRV.debug(Debug.VOICE, "Player " + position.getName() + " lost connection to " + current + ", disconnecting");
+                    current.remove(uuid);
+                    if (current.size() == 1) current.clear();
+                }
 
                 // create networks if two players are within activation distance
-                Set<UUID> playersWithinRange = alivePlayers.stream()
-                        .filter(p -> networks.stream().noneMatch(network -> network.contains(p)))
-                        .filter(p -> !p.equals(player))
-                        .filter(p -> p.getWorld().getName().equals(player.getWorld().getName()))
-                        .filter(p -> horizontalDistance(p.getLocation(), player.getLocation()) <= getHorizontalStrength()
-                                && verticalDistance(p.getLocation(), player.getLocation()) <= getVerticalStrength())
-                        .filter(p -> {
-                            Member m = getMember(p.getUniqueId());
-                            return m != null && m.getVoiceState() != null
-                                    && m.getVoiceState().getChannel() != null
-                                    && m.getVoiceState().getChannel().getParent() != null
-                                    && m.getVoiceState().getChannel().getParent().equals(category);
-                        })
-                        .map(Player::getUniqueId)
-                        .collect(Collectors.toCollection(ConcurrentHashMap::newKeySet));
+                Set<UUID> playersWithinRange = ConcurrentHashMap.newKeySet();
+                grid.forEachNear(position, horizontalStrength, verticalStrength, other -> {
+                    if (other.isDead()) return;
+                    if (!networksOf(memberships, union, other.getUuid()).isEmpty()) return;
+
+                    Member m = getMember(other.getUuid());
+                    if (m != null && m.getVoiceState() != null
+                            && m.getVoiceState().getChannel() != null
+                            && m.getVoiceState().getChannel().getParent() != null
+                            && m.getVoiceState().getChannel().getParent().equals(category)) {
+                        playersWithinRange.add(other.getUuid());
+                    }
+                });
                 if (!playersWithinRange.isEmpty()) {
                     if (category.getChannels().size() == 50) {
                         DiscordSRV.debug(Debug.VOICE, "Can't create new voice network because category " + category.getName() + " is full of channels");
@@ -241,7 +261,9 @@ public class VoiceModule extends ListenerAdapter implements Listener {
                     }
 
                     playersWithinRange.add(uuid);
-                    networks.add(new Network(playersWithinRange));
+                    Network network = new Network(playersWithinRange);
+                    networks.add(network);
+                    for (UUID player : playersWithinRange) memberships.computeIfAbsent(player, k -> new HashSet<>()).add(network);
                 }
             }
 
@@ -253,13 +275,16 @@ public class VoiceModule extends ListenerAdapter implements Listener {
                 members.addAll(voiceChannel.getMembers());
             }
 
+            Map<UUID, Network> playerNetworks = new HashMap<>();
+            for (Network network : networks) {
+                for (UUID player : network.getPlayers()) playerNetworks.putIfAbsent(player, network);
+            }
+
             for (Member member : members) {
                 UUID uuid = getUniqueId(member);
                 VoiceChannel playerChannel = member.getVoiceState().getChannel();
 
-                Network playerNetwork = uuid != null ? networks.stream()
-                        .filter(n -> n.contains(uuid))
-                        .findAny().orElse(null) : null;
+                Network playerNetwork = uuid != null ? playerNetworks.get(uuid) : null;
 
                 VoiceChannel shouldBeInChannel;
                 if (playerNetwork != null) {
@@ -419,6 +444,56 @@ public class VoiceModule extends ListenerAdapter implements Listener {
         this.networks.clear();
     }
 
+    /**
+     * @return the networks the given player is currently in, resolved through the union-find
+     */
+    private static Set<Network> networksOf(Map<UUID, Set<Network>> memberships, NetworkUnion union, UUID uuid) {
+        Set<Network> networks = memberships.get(uuid);
+        if (networks == null) return Collections.emptySet();
+        Set<Network> current = new HashSet<>();
+        for (Network network : networks) {
+            Network root = union.find(network);
+            if (root.contains(uuid)) current.add(root);
+        }
+        return current;
+    }
+
+    /**
+     * Union-find over the networks of a single tick, so networks merged by a player bridging them
+     * don't need to be re-indexed: their previous members resolve to the network that engulfed them
+     */
+    private static class NetworkUnion {
+
+        private final Map<Network, Network> parents = new HashMap<>();
+
+        private Network find(Network network) {
+            if (network == null) return null;
+            Network root = network;
+            Network parent;
+            while ((parent = parents.get(root)) != null) root = parent;
+
+            // path compression
+            while (network != root) {
+                Network next = parents.put(network, root);
+                network = next;
+            }
+            return root;
+        }
+
+        private Network union(Network network1, Network network2) {
+            network1 = find(network1);
+            network2 = find(network2);
+            if (network1 == network2) return network1;
+
+            Network larger = network1.size() > network2.size() ? network1 : network2;
+            Network smaller = larger == network1 ? network2 : network1;
+            larger.engulf(smaller);
+            parents.put(smaller, larger);
+            return larger;
+        }
+
+    }
+
     public static VoiceModule get() {
         return DiscordSRV.getPlugin().getVoiceModule();
     }
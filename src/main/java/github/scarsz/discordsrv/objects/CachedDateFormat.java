@@ -0,0 +1,139 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TimeZone;
+
+/**
+ * <p>A thread-safe {@link SimpleDateFormat} pattern that remembers the text it last rendered,
+ * reusing it for as long as the second doesn't change.</p>
+ * <p>Patterns that only use letters meaning the same to both APIs are rendered by an immutable {@link DateTimeFormatter},
+ * anything else (eg. {@code [}, {@code S}, {@code MMMMM}) by a thread-local {@link SimpleDateFormat} so the output
+ * stays exactly what it has always been.</p>
+ */
+public class CachedDateFormat {
+
+    // pattern letter -> the highest count that DateTimeFormatter renders the same as SimpleDateFormat
+    private static final Map<Character, Integer> COMPATIBLE_LETTERS = new HashMap<>();
+
+    static {
+        COMPATIBLE_LETTERS.put('G', 3);
+        COMPATIBLE_LETTERS.put('y', 4);
+        COMPATIBLE_LETTERS.put('M', 4);
+        COMPATIBLE_LETTERS.put('d', 2);
+        COMPATIBLE_LETTERS.put('D', 3);
+        COMPATIBLE_LETTERS.put('E', 4);
+        COMPATIBLE_LETTERS.put('a', 1);
+        COMPATIBLE_LETTERS.put('H', 2);
+        COMPATIBLE_LETTERS.put('k', 2);
+        COMPATIBLE_LETTERS.put('K', 2);
+        COMPATIBLE_LETTERS.put('h', 2);
+        COMPATIBLE_LETTERS.put('m', 2);
+        COMPATIBLE_LETTERS.put('s', 2);
+        COMPATIBLE_LETTERS.put('z', 4);
+        COMPATIBLE_LETTERS.put('Z', 3);
+    }
+
+    private final DateTimeFormatter formatter;
+    private final ThreadLocal<SimpleDateFormat> legacyFormat;
+    private final boolean cacheable;
+    private volatile Rendered last = null;
+
+    /**
+     * @param pattern the {@link SimpleDateFormat} pattern
+     * @param zone the time zone to render in
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    public CachedDateFormat(String pattern, TimeZone zone) {
+        if (isCompatible(pattern)) {
+            this.formatter = DateTimeFormatter.ofPattern(pattern, Locale.getDefault(Locale.Category.FORMAT)).withZone(zone.toZoneId());
+            this.legacyFormat = null;
+        } else {
+            SimpleDateFormat simpleDateFormat = new SimpleDateFormat(pattern);
+            simpleDateFormat.setTimeZone(zone);
+            this.formatter = null;
+            this.legacyFormat = ThreadLocal.withInitial(() -> (SimpleDateFormat) simpleDateFormat.clone());
+        }
+        // milliseconds change within the second
+        this.cacheable = pattern.indexOf('S') < 0;
+    }
+
+    /**
+     * @param pattern a {@link SimpleDateFormat} pattern
+     * @return true if {@link DateTimeFormatter} renders the pattern exactly like {@link SimpleDateFormat} does
+     */
+    public static boolean isCompatible(String pattern) {
+        int length = pattern.length();
+        for (int i = 0; i < length; i++) {
+            char c = pattern.charAt(i);
+            if (c == '\'') {
+                // quoted text ('' being a quote) is literal to both
+                int end = pattern.indexOf('\'', i + 1);
+                if (end < 0) return false;
+                i = end;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                int count = 1;
+                while (i + 1 < length && pattern.charAt(i + 1) == c) {
+                    count++;
+                    i++;
+                }
+                Integer max = COMPATIBLE_LETTERS.get(c);
+                if (max == null || count > max) return false;
+            } else if (c == '[' || c == ']' || c == '{' || c == '}' || c == '#') {
+                // reserved by DateTimeFormatter, literal to SimpleDateFormat
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String format(long timestamp) {
+        long second = Math.floorDiv(timestamp, 1000L);
+        Rendered rendered = last;
+        if (cacheable && rendered != null && rendered.second == second) return rendered.text;
+
+        String text = formatter != null
+                ? formatter.format(Instant.ofEpochMilli(timestamp))
+                : legacyFormat.get().format(new Date(timestamp));
+        if (cacheable) last = new Rendered(second, text);
+        return text;
+    }
+
+    private static class Rendered {
+
+        private final long second;
+        private final String text;
+
+        private Rendered(long second, String text) {
+            this.second = second;
+            this.text = text;
+        }
+
+    }
+
+}
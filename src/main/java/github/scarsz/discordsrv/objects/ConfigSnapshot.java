@@ -0,0 +1,103 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import github.scarsz.configuralize.DynamicConfig;
+import github.scarsz.discordsrv.util.LangUtil;
+import github.scarsz.discordsrv.util.MessageUtil;
+import lombok.Getter;
+
+import java.util.*;
+
+/**
+ * <p>Immutable copy of the options read for every chat message, taken whenever the config is (re)loaded.</p>
+ * <p>Reading a field is a plain field access, where {@link DynamicConfig} has to look the key up in every source.
+ * Message formats are stored both as written &amp; with their legacy color codes already translated.</p>
+ */
+public class ConfigSnapshot {
+
+    // Minecraft -> Discord
+    @Getter private final boolean respectChatPlugins;
+    @Getter private final boolean minecraftToDiscord;
+    @Getter private final String prefixRequiredToProcessMessage;
+    @Getter private final boolean prefixActsAsBlacklist;
+    @Getter private final boolean reserializerToDiscord;
+    @Getter private final boolean webhookChatMessageDelivery;
+    @Getter private final boolean translateMentions;
+
+    // Discord -> Minecraft
+    @Getter private final boolean discordToMinecraft;
+    @Getter private final boolean blockWebhooks;
+    @Getter private final boolean blockBots;
+    @Getter private final boolean requireLinkedAccount;
+    @Getter private final Set<String> blockedIds;
+    @Getter private final Set<String> blockedRoleIds;
+    @Getter private final boolean blockedRolesAsWhitelist;
+    @Getter private final int truncateLength;
+    @Getter private final Set<String> rolesAllowedToUseColorCodes;
+    @Getter private final String emojiBehavior;
+
+    private final Map<LangUtil.Message, String> messages = new EnumMap<>(LangUtil.Message.class);
+    private final Map<LangUtil.Message, String> translatedMessages = new EnumMap<>(LangUtil.Message.class);
+
+    public ConfigSnapshot(DynamicConfig config) {
+        this.respectChatPlugins = config.getBooleanElse("RespectChatPlugins", true);
+        this.minecraftToDiscord = config.getBoolean("DiscordChatChannelMinecraftToDiscord");
+        this.prefixRequiredToProcessMessage = config.getString("DiscordChatChannelPrefixRequiredToProcessMessage");
+        this.prefixActsAsBlacklist = config.getBoolean("DiscordChatChannelPrefixActsAsBlacklist");
+        this.reserializerToDiscord = config.getBoolean("Experiment_MCDiscordReserializer_ToDiscord");
+        this.webhookChatMessageDelivery = config.getBoolean("Experiment_WebhookChatMessageDelivery");
+        this.translateMentions = config.getBoolean("DiscordChatChannelTranslateMentions");
+
+        this.discordToMinecraft = config.getBoolean("DiscordChatChannelDiscordToMinecraft");
+        this.blockWebhooks = config.getBoolean("DiscordChatChannelBlockWebhooks");
+        this.blockBots = config.getBoolean("DiscordChatChannelBlockBots");
+        this.requireLinkedAccount = config.getBoolean("DiscordChatChannelRequireLinkedAccount");
+        this.blockedIds = Collections.unmodifiableSet(new HashSet<>(config.getStringList("DiscordChatChannelBlockedIds")));
+        this.blockedRoleIds = Collections.unmodifiableSet(new HashSet<>(config.getStringList("DiscordChatChannelBlockedRolesIds")));
+        this.blockedRolesAsWhitelist = config.getBoolean("DiscordChatChannelBlockedRolesAsWhitelist");
+        this.truncateLength = config.getInt("DiscordChatChannelTruncateLength");
+        this.rolesAllowedToUseColorCodes = Collections.unmodifiableSet(new HashSet<>(config.getStringList("DiscordChatChannelRolesAllowedToUseColorCodesInChat")));
+        this.emojiBehavior = config.getString("DiscordChatChannelEmojiBehavior");
+
+        for (LangUtil.Message message : LangUtil.Message.values()) {
+            String value;
+            try {
+                value = config.getString(message.getKeyName());
+            } catch (Exception e) {
+                continue; // looked up (and failing) as before when used
+            }
+            if (value == null) continue;
+            messages.put(message, value);
+            translatedMessages.put(message, MessageUtil.translateLegacy(value));
+        }
+    }
+
+    /**
+     * @param message the message
+     * @param translateColors if legacy color codes should be translated
+     * @return the message's format, null if it wasn't available when the snapshot was taken
+     */
+    public String getMessage(LangUtil.Message message, boolean translateColors) {
+        return translateColors ? translatedMessages.get(message) : messages.get(message);
+    }
+
+}
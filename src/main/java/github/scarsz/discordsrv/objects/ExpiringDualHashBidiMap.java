@@ -20,126 +20,225 @@
 
 package github.scarsz.discordsrv.objects;
 
+import org.apache.commons.collections4.MapIterator;
 import org.apache.commons.collections4.bidimap.DualHashBidiMap;
 
 import java.lang.ref.WeakReference;
 import java.util.*;
-
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>A {@link DualHashBidiMap} where entries expire after a delay or at a given time.</p>
+ * <p>Expired entries read as absent immediately and are removed by {@link #expireAll()} shortly after,
+ * which only has to look at the entries that expired thanks to a queue ordered by expiry time.
+ * Writes, {@link #size()} &amp; the views remove due entries themselves, so they stay accurate without that task
+ * (eg. before DiscordSRV is enabled or after it's disabled).</p>
+ */
 public class ExpiringDualHashBidiMap<K, V> extends DualHashBidiMap<K, V> {
 
-    private final HashMap<K, Long> expiryTimes = new HashMap<>();
+    private static final Object NULL_KEY = new Object();
+    private static final Set<WeakReference<ExpiringDualHashBidiMap<?, ?>>> references = ConcurrentHashMap.newKeySet();
+
+    // keys are masked, the concurrent map doesn't allow the null key that the bidi map does
+    private final Map<Object, Long> expiryTimes = new ConcurrentHashMap<>();
+    // may contain outdated entries for keys that were removed or given a new expiry time, those are skipped
+    private final PriorityQueue<Expiry> expiryQueue = new PriorityQueue<>();
+    // the time of the head of the expiry queue, so checking whether anything is due doesn't need the queue's lock
+    private volatile long nextExpiry = Long.MAX_VALUE;
     private final long expiryDelay;
 
     public ExpiringDualHashBidiMap(long expiryDelayMillis) {
         this.expiryDelay = expiryDelayMillis;
-        ExpiryThread.references.add(new WeakReference<>(this));
+        references.add(new WeakReference<>(this));
     }
 
     @Override
     public V put(K key, V value) {
-        synchronized (expiryTimes) {
-            expiryTimes.put(key, System.currentTimeMillis() + expiryDelay);
-        }
+        expireIfDue();
+        scheduleExpiry(key, System.currentTimeMillis() + expiryDelay);
         return super.put(key, value);
     }
 
     @SuppressWarnings("UnusedReturnValue")
     public V putNotExpiring(K key, V value) {
+        expireIfDue();
         return super.put(key, value);
     }
 
     public V putExpiring(K key, V value, long expiryTime) {
         if (expiryTime < System.currentTimeMillis()) throw new IllegalArgumentException("The expiry time must be in the future");
-        synchronized (expiryTimes) {
-            expiryTimes.put(key, expiryTime);
-        }
+        expireIfDue();
+        scheduleExpiry(key, expiryTime);
         return super.put(key, value);
     }
 
+    @Override
+    public int size() {
+        expireIfDue();
+        return super.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        expireIfDue();
+        return super.isEmpty();
+    }
+
+    @Override
+    public Set<K> keySet() {
+        expireIfDue();
+        return super.keySet();
+    }
+
+    @Override
+    public Set<V> values() {
+        expireIfDue();
+        return super.values();
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        expireIfDue();
+        return super.entrySet();
+    }
+
+    @Override
+    public MapIterator<K, V> mapIterator() {
+        expireIfDue();
+        return super.mapIterator();
+    }
+
+    @Override
+    public V get(Object key) {
+        return isExpired(key) ? null : super.get(key);
+    }
+
+    @Override
+    public K getKey(Object value) {
+        K key = super.getKey(value);
+        return key != null && isExpired(key) ? null : key;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return super.containsKey(key) && !isExpired(key);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return super.containsValue(value) && !isExpired(super.getKey(value));
+    }
+
     @Override
     public V remove(Object key) {
-        synchronized (expiryTimes) {
-            expiryTimes.remove(key);
-        }
+        expiryTimes.remove(mask(key));
         return super.remove(key);
     }
 
     @Override
     public K removeValue(Object value) {
-        K key = getKey(value);
-        if (key != null) {
-            synchronized (expiryTimes) {
-                expiryTimes.remove(key);
-            }
+        K key = super.getKey(value);
+        if (key != null || super.containsValue(value)) {
+            expiryTimes.remove(mask(key));
         }
         return super.removeValue(value);
     }
 
     public long getExpiryTime(K key) {
-        if (!containsKey(key)) throw new IllegalArgumentException("The given key is not in the map");
-        return expiryTimes.get(key);
+        if (!super.containsKey(key)) throw new IllegalArgumentException("The given key is not in the map");
+        return expiryTimes.get(mask(key));
     }
 
     public void setExpiryTime(K key, long expiryTimeMillis) {
-        if (!containsKey(key)) throw new IllegalArgumentException("The given key is not in the map");
-        expiryTimes.put(key, expiryTimeMillis);
+        if (!super.containsKey(key)) throw new IllegalArgumentException("The given key is not in the map");
+        scheduleExpiry(key, expiryTimeMillis);
     }
 
     public long getExpiryDelay() {
         return expiryDelay;
     }
 
-    @SuppressWarnings({"SuspiciousMethodCalls"})
-    private void keyExpired(Object key) {
-        remove(key);
-        expiryTimes.remove(key);
+    private void scheduleExpiry(Object key, long expiryTime) {
+        Object masked = mask(key);
+        expiryTimes.put(masked, expiryTime);
+        synchronized (expiryQueue) {
+            expiryQueue.add(new Expiry(masked, expiryTime));
+            nextExpiry = expiryQueue.peek().time;
+        }
     }
 
-    public static class ExpiryThread extends Thread {
+    private boolean isExpired(Object key) {
+        Long expiryTime = expiryTimes.get(mask(key));
+        return expiryTime != null && expiryTime < System.currentTimeMillis();
+    }
 
-        private static final Set<WeakReference<ExpiringDualHashBidiMap<?, ?>>> references = new HashSet<>();
+    private void expireIfDue() {
+        long currentTime = System.currentTimeMillis();
+        if (nextExpiry < currentTime) expireEntries(currentTime);
+    }
 
-        private ExpiryThread() {
-            super("DiscordSRV " + ExpiryThread.class.getSimpleName());
-            Runtime.getRuntime().addShutdownHook(new Thread(this::interrupt));
+    private void expireEntries(long currentTime) {
+        List<Expiry> expired = null;
+        synchronized (expiryQueue) {
+            Expiry expiry;
+            while ((expiry = expiryQueue.peek()) != null && expiry.time < currentTime) {
+                expiryQueue.poll();
+                Long expiryTime = expiryTimes.get(expiry.key);
+                if (expiryTime == null || expiryTime != expiry.time) continue; // outdated
+                if (expired == null) expired = new ArrayList<>();
+                expired.add(expiry);
+            }
+            nextExpiry = expiry != null ? expiry.time : Long.MAX_VALUE;
         }
+        if (expired == null) return;
 
-        @SuppressWarnings("SynchronizationOnLocalVariableOrMethodParameter")
-        @Override
-        public void run() {
-            while (!isInterrupted()) {
-                long currentTime = System.currentTimeMillis();
-                for (WeakReference<ExpiringDualHashBidiMap<?, ?>> reference : new HashSet<>(references)) {
-                    final ExpiringDualHashBidiMap<?, ?> collection = reference.get();
-                    if (collection == null) {
-                        references.remove(reference);
-                        continue;
-                    }
-                    Map<?, Long> expiryTimes;
-                    synchronized (collection.expiryTimes) {
-                        expiryTimes = new HashMap<>(collection.expiryTimes);
-                    }
-                    List<Object> removals = new ArrayList<>();
-                    expiryTimes.entrySet().stream()
-                            .filter(entry -> entry.getValue() < currentTime)
-                            .forEach(entry -> removals.add(entry.getKey()));
-                    synchronized (collection) {
-                        removals.forEach(collection::keyExpired);
-                    }
-                }
-
-                try {
-                    Thread.sleep(1000);
-                } catch (InterruptedException ignored) {
-                    break;
-                }
+        synchronized (this) {
+            for (Expiry expiry : expired) {
+                // the key might've been put again since it was polled
+                if (expiryTimes.remove(expiry.key, expiry.time)) super.remove(unmask(expiry.key));
             }
         }
+    }
+
+    private static Object mask(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static Object unmask(Object key) {
+        return key == NULL_KEY ? null : key;
+    }
+
+    private static class Expiry implements Comparable<Expiry> {
+
+        private final Object key;
+        private final long time;
 
-        static {
-            new ExpiryThread().start();
+        private Expiry(Object key, long time) {
+            this.key = key;
+            this.time = time;
         }
 
+        @Override
+        public int compareTo(Expiry other) {
+            return Long.compare(time, other.time);
+        }
+
+    }
+
+    /**
+     * Remove the expired entries of every map, run every second by DiscordSRV's task scheduler
+     */
+    public static void expireAll() {
+        long currentTime = System.currentTimeMillis();
+        Iterator<WeakReference<ExpiringDualHashBidiMap<?, ?>>> iterator = references.iterator();
+        while (iterator.hasNext()) {
+            ExpiringDualHashBidiMap<?, ?> collection = iterator.next().get();
+            if (collection == null) {
+                iterator.remove();
+                continue;
+            }
+            collection.expireEntries(currentTime);
+        }
     }
 
 }
@@ -0,0 +1,151 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Lock-free latency histogram with log-linear buckets, in the spirit of HdrHistogram.</p>
+ * <p>Values are recorded in microseconds: exact below 32 microseconds and within ~6% above that, up to ~50 days.
+ * Recording is a handful of atomic increments, so it's cheap enough to leave on in hot paths.</p>
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKETS = 32;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS / 2;
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int MAX_MAGNITUDE = 41;
+    private static final long MAX_VALUE = (1L << (MAX_MAGNITUDE + 1)) - 1;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * HALF_SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * Record the time elapsed since the given {@link System#nanoTime()}
+     * @param startNanos the start of the measured operation
+     */
+    public void recordSince(long startNanos) {
+        recordNanos(System.nanoTime() - startNanos);
+    }
+
+    public void recordNanos(long nanos) {
+        record(nanos / 1000);
+    }
+
+    /**
+     * @param micros the latency in microseconds
+     */
+    public void record(long micros) {
+        if (micros < 0) micros = 0;
+        if (micros > MAX_VALUE) micros = MAX_VALUE;
+        counts.incrementAndGet(indexOf(micros));
+        count.increment();
+        sum.add(micros);
+
+        long currentMax = max.get();
+        while (micros > currentMax && !max.compareAndSet(currentMax, micros)) currentMax = max.get();
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * @return the largest recorded value in microseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * @return the mean of the recorded values in microseconds
+     */
+    public double getMean() {
+        long count = getCount();
+        return count == 0 ? 0 : (double) sum.sum() / count;
+    }
+
+    /**
+     * @param percentile the percentile to get, 0-100
+     * @return the value in microseconds at the given percentile
+     */
+    public long getPercentile(double percentile) {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += snapshot[i] = counts.get(i);
+        if (total == 0) return 0;
+
+        long target = Math.max(1, (long) Math.ceil(Math.min(percentile, 100) / 100D * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += snapshot[i];
+            if (seen >= target) return Math.min(highestEquivalentValue(i), getMax());
+        }
+        return getMax();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count.reset();
+        sum.reset();
+        max.set(0);
+    }
+
+    @Override
+    public String toString() {
+        return "count " + getCount()
+                + ", mean " + format(Math.round(getMean()))
+                + ", p50 " + format(getPercentile(50))
+                + ", p90 " + format(getPercentile(90))
+                + ", p99 " + format(getPercentile(99))
+                + ", max " + format(getMax());
+    }
+
+    /**
+     * @param micros a value in microseconds
+     * @return the value as milliseconds with three decimals, eg. 1.234ms
+     */
+    public static String format(long micros) {
+        return String.format("%.3fms", micros / 1000D);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (value >>> shift) - HALF_SUB_BUCKETS;
+        return SUB_BUCKETS + (magnitude - SUB_BUCKET_BITS) * HALF_SUB_BUCKETS + subBucket;
+    }
+
+    private static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) return index;
+        int magnitude = (index - SUB_BUCKETS) / HALF_SUB_BUCKETS + SUB_BUCKET_BITS;
+        int subBucket = (index - SUB_BUCKETS) % HALF_SUB_BUCKETS + HALF_SUB_BUCKETS;
+        int shift = magnitude - SUB_BUCKET_BITS + 1;
+        return (((long) subBucket + 1) << shift) - 1;
+    }
+
+}
@@ -0,0 +1,110 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import github.scarsz.discordsrv.DiscordSRV;
+import net.dv8tion.jda.api.JDA;
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.utils.MemberCachePolicy;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Member cache policy that only keeps the members DiscordSRV actually works with: guild owners, members connected
+ * to voice and members with a linked Minecraft account. Any other member that shows up (e.g. by sending a message)
+ * is kept in a bounded least recently used cache.</p>
+ * <p>Linked accounts are fed in from the account link manager, so that the policy never has to look them up itself
+ * while JDA is processing events.</p>
+ */
+public class LinkedMemberCachePolicy implements MemberCachePolicy {
+
+    private static final int MEMBER_CHUNK_SIZE = 100;
+
+    private final Set<String> linkedIds = ConcurrentHashMap.newKeySet();
+    private final MemberCachePolicy policy;
+
+    /**
+     * @param recentMembers the maximum amount of members that aren't linked to keep cached
+     */
+    public LinkedMemberCachePolicy(int recentMembers) {
+        MemberCachePolicy keep = MemberCachePolicy.OWNER
+                .or(MemberCachePolicy.VOICE)
+                .or(member -> linkedIds.contains(member.getId()));
+        this.policy = keep.or(MemberCachePolicy.lru(Math.max(1, recentMembers)).unloadUnless(keep));
+    }
+
+    @Override
+    public boolean cacheMember(@NotNull Member member) {
+        return policy.cacheMember(member);
+    }
+
+    public void link(String discordId) {
+        linkedIds.add(discordId);
+    }
+
+    public void unlink(String discordId) {
+        linkedIds.remove(discordId);
+    }
+
+    public int getLinkedCount() {
+        return linkedIds.size();
+    }
+
+    /**
+     * Replace the known linked accounts &amp; retrieve the ones that aren't cached yet from every guild
+     * @param jda the bot
+     * @param discordIds the Discord ids of every linked account
+     * @return a future that completes once every guild has been checked, even if some requests failed
+     */
+    public CompletableFuture<Void> loadLinkedMembers(JDA jda, Collection<String> discordIds) {
+        linkedIds.retainAll(discordIds);
+        linkedIds.addAll(discordIds);
+
+        List<CompletableFuture<Void>> loads = new ArrayList<>();
+        for (Guild guild : jda.getGuilds()) {
+            List<String> missing = new ArrayList<>();
+            for (String discordId : discordIds) {
+                if (guild.getMemberById(discordId) == null) missing.add(discordId);
+            }
+
+            for (int i = 0; i < missing.size(); i += MEMBER_CHUNK_SIZE) {
+                List<String> chunk = missing.subList(i, Math.min(i + MEMBER_CHUNK_SIZE, missing.size()));
+                CompletableFuture<Void> load = new CompletableFuture<>();
+                guild.retrieveMembersByIds(chunk.toArray(new String[0]))
+                        .onSuccess(members -> load.complete(null))
+                        .onError(throwable -> {
+                            DiscordSRV.error("Failed to retrieve " + chunk.size() + " linked members of guild " + guild, throwable);
+                            load.complete(null);
+                        });
+                loads.add(load);
+            }
+        }
+        return CompletableFuture.allOf(loads.toArray(new CompletableFuture[0]));
+    }
+
+}
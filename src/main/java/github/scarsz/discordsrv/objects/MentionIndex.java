@@ -0,0 +1,293 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Member;
+import net.dv8tion.jda.api.entities.Role;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * <p>Case-insensitive index of {@code @name} tokens to Discord mentions for the roles &amp; members of a guild.</p>
+ * <p>Names are kept in a ternary search trie so a message is resolved in a single pass: at every {@code @}
+ * (that isn't part of an existing {@code <@mention>}) the longest matching name is replaced with its mention.</p>
+ */
+public class MentionIndex {
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Entry> entries = new HashMap<>(); // mentionable id -> indexed entry
+    private Node root = null;
+    private int memberCount = 0;
+    private int staleEntries = 0;
+
+    /**
+     * Build an index of the given guild's roles and cached members
+     * @param guild the guild
+     * @return the index
+     */
+    public static MentionIndex of(Guild guild) {
+        MentionIndex index = new MentionIndex();
+        for (Role role : guild.getRoles()) index.put(role);
+        guild.getMemberCache().forEach(index::put);
+        return index;
+    }
+
+    public void put(Role role) {
+        put(role.getId(), role.getName(), role.getAsMention(), false);
+    }
+
+    public void put(Member member) {
+        put(member.getId(), member.getEffectiveName(), member.getAsMention(), true);
+    }
+
+    /**
+     * Add or update the name of a mentionable, doing nothing if it's already indexed under the same name &amp; mention
+     * @param id the id of the role or member
+     * @param name the name the mentionable can be mentioned by, without the @
+     * @param mention the mention to replace {@code @name} with
+     * @param member whether this is a member (as opposed to a role)
+     */
+    public void put(String id, String name, String mention, boolean member) {
+        String key = name == null || name.isEmpty() ? null : fold(name);
+
+        // called for every chat message, which usually doesn't change anything
+        lock.readLock().lock();
+        try {
+            if (isIndexed(entries.get(id), key, mention, member)) return;
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.get(id);
+            if (isIndexed(previous, key, mention, member)) return;
+            if (previous != null) {
+                entries.remove(id);
+                unlink(previous);
+                if (previous.member) memberCount--;
+            }
+            if (key == null) return;
+
+            Entry entry = new Entry(key, mention, member);
+            entries.put(id, entry);
+            link(entry);
+            if (member) memberCount++;
+            if (staleEntries > entries.size()) compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a mentionable from the index
+     * @param id the id of the role or member
+     */
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Entry previous = entries.remove(id);
+            if (previous == null) return;
+            unlink(previous);
+            if (previous.member) memberCount--;
+            if (staleEntries > entries.size()) compact();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return the amount of members in this index
+     */
+    public int getMemberCount() {
+        lock.readLock().lock();
+        try {
+            return memberCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replace all {@code @name} occurrences in the given message with the matching mentions
+     * @param message the message
+     * @return the message with names converted to mentions
+     */
+    public String resolve(String message) {
+        int at = message.indexOf('@');
+        if (at == -1) return message;
+
+        lock.readLock().lock();
+        try {
+            if (root == null) return message;
+
+            StringBuilder builder = null;
+            int copied = 0;
+            while (at != -1) {
+                if (at > 0 && message.charAt(at - 1) == '<') {
+                    // already a mention
+                    at = message.indexOf('@', at + 1);
+                    continue;
+                }
+
+                int end = -1;
+                String mention = null;
+                Node node = root;
+                for (int i = at + 1; i < message.length() && node != null; ) {
+                    char c = fold(message.charAt(i));
+                    if (c < node.c) {
+                        node = node.left;
+                    } else if (c > node.c) {
+                        node = node.right;
+                    } else {
+                        i++;
+                        if (node.values != null) {
+                            end = i;
+                            mention = node.values.get(0).mention;
+                        }
+                        node = node.mid;
+                    }
+                }
+
+                if (mention == null) {
+                    at = message.indexOf('@', at + 1);
+                    continue;
+                }
+
+                if (builder == null) builder = new StringBuilder(message.length() + 16);
+                builder.append(message, copied, at).append(mention);
+                copied = end;
+                at = message.indexOf('@', end);
+            }
+
+            if (builder == null) return message;
+            return builder.append(message, copied, message.length()).toString();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static boolean isIndexed(Entry entry, String key, String mention, boolean member) {
+        if (entry == null) return key == null;
+        return entry.key.equals(key) && entry.mention.equals(mention) && entry.member == member;
+    }
+
+    private void link(Entry entry) {
+        String key = entry.key;
+        if (root == null) root = new Node(key.charAt(0));
+        Node node = root;
+        int i = 0;
+        while (true) {
+            char c = key.charAt(i);
+            if (c < node.c) {
+                if (node.left == null) node.left = new Node(c);
+                node = node.left;
+            } else if (c > node.c) {
+                if (node.right == null) node.right = new Node(c);
+                node = node.right;
+            } else if (i < key.length() - 1) {
+                i++;
+                if (node.mid == null) node.mid = new Node(key.charAt(i));
+                node = node.mid;
+            } else {
+                if (node.values == null) node.values = new ArrayList<>(1);
+                node.values.add(entry);
+                return;
+            }
+        }
+    }
+
+    private void unlink(Entry entry) {
+        Node node = root;
+        String key = entry.key;
+        int i = 0;
+        while (node != null) {
+            char c = key.charAt(i);
+            if (c < node.c) {
+                node = node.left;
+            } else if (c > node.c) {
+                node = node.right;
+            } else if (i < key.length() - 1) {
+                i++;
+                node = node.mid;
+            } else {
+                if (node.values != null) {
+                    node.values.remove(entry);
+                    if (node.values.isEmpty()) {
+                        node.values = null;
+                        staleEntries++; // the nodes leading here may now be dead weight
+                    }
+                }
+                return;
+            }
+        }
+    }
+
+    private void compact() {
+        root = null;
+        staleEntries = 0;
+        for (Entry entry : entries.values()) link(entry);
+    }
+
+    private static String fold(String name) {
+        char[] chars = new char[name.length()];
+        for (int i = 0; i < chars.length; i++) chars[i] = fold(name.charAt(i));
+        return new String(chars);
+    }
+
+    private static char fold(char c) {
+        // same folding as Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static final class Node {
+
+        private final char c;
+        private Node left, mid, right;
+        private List<Entry> values;
+
+        private Node(char c) {
+            this.c = c;
+        }
+
+    }
+
+    private static final class Entry {
+
+        private final String key;
+        private final String mention;
+        private final boolean member;
+
+        private Entry(String key, String mention, boolean member) {
+            this.key = key;
+            this.mention = mention;
+            this.member = member;
+        }
+
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * <p>A message format split once into literal segments &amp; {@code %placeholder%} slots,
+ * so that rendering it is a single pass instead of a {@link String#replace} per placeholder.</p>
+ * <p>Placeholders the resolver doesn't know are left as they are, for PlaceholderAPI to handle afterwards.</p>
+ */
+public class MessageTemplate {
+
+    // formats come from the config so this is plenty, it's only there in case something feeds us dynamic formats
+    private static final int CACHE_LIMIT = 512;
+    private static final Map<String, MessageTemplate> CACHE = new ConcurrentHashMap<>();
+    private static final ThreadLocal<StringBuilder> BUILDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String format;
+    private final String[] literals; // literals[i] comes before placeholders[i], the last one after all placeholders
+    private final String[] placeholders;
+
+    /**
+     * Get the compiled template for the given format, compiling it if it hasn't been compiled yet
+     * @param format the format
+     * @return the template
+     */
+    public static MessageTemplate of(String format) {
+        MessageTemplate template = CACHE.get(format);
+        if (template == null) {
+            if (CACHE.size() >= CACHE_LIMIT) CACHE.clear();
+            template = new MessageTemplate(format);
+            CACHE.put(format, template);
+        }
+        return template;
+    }
+
+    /**
+     * Drop all compiled templates, used when the messages are reloaded
+     */
+    public static void clearCache() {
+        CACHE.clear();
+    }
+
+    private MessageTemplate(String format) {
+        this.format = format;
+
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        int literalStart = 0;
+        int start = format.indexOf('%');
+        while (start != -1) {
+            int end = format.indexOf('%', start + 1);
+            if (end == -1) break;
+
+            if (isPlaceholderName(format, start + 1, end)) {
+                literals.add(format.substring(literalStart, start));
+                placeholders.add(format.substring(start + 1, end));
+                literalStart = end + 1;
+                start = format.indexOf('%', end + 1);
+            } else {
+                // not a placeholder (ex. "100% of %username%"), the closing % might still open one
+                start = end;
+            }
+        }
+        literals.add(format.substring(literalStart));
+
+        this.literals = literals.toArray(new String[0]);
+        this.placeholders = placeholders.toArray(new String[0]);
+    }
+
+    private static boolean isPlaceholderName(String format, int start, int end) {
+        if (start == end) return false;
+        for (int i = start; i < end; i++) {
+            char c = format.charAt(i);
+            if (!Character.isLetterOrDigit(c) && c != '_' && c != '-') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Render this template
+     * @param resolver gives the value for a placeholder name (without the %s), or null to leave the placeholder as is
+     * @return the rendered message
+     */
+    public String render(Function<String, String> resolver) {
+        if (placeholders.length == 0) return format;
+
+        // resolve everything first, the resolver might render templates itself
+        String[] values = new String[placeholders.length];
+        for (int i = 0; i < placeholders.length; i++) values[i] = resolver.apply(placeholders[i]);
+
+        StringBuilder builder = BUILDER.get();
+        builder.setLength(0);
+        for (int i = 0; i < placeholders.length; i++) {
+            builder.append(literals[i]);
+            if (values[i] != null) {
+                builder.append(values[i]);
+            } else {
+                builder.append('%').append(placeholders[i]).append('%');
+            }
+        }
+        builder.append(literals[placeholders.length]);
+
+        String rendered = builder.toString();
+        if (builder.capacity() > 16384) BUILDER.remove(); // don't keep huge buffers around
+        return rendered;
+    }
+
+    @Override
+    public String toString() {
+        return format;
+    }
+
+}
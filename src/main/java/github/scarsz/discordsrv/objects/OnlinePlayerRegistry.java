@@ -0,0 +1,129 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import github.scarsz.discordsrv.util.PlayerUtil;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Copy-on-write list of the online players, maintained from join &amp; quit events.</p>
+ * <p>Reads return the current immutable snapshot without copying or locking. The list of players that aren't vanished
+ * is cached as well, it's recomputed when a player joins or quits, when a vanish hook reports a change
+ * or after {@link #VANISH_STATE_TTL_MILLIS} for vanish plugins that don't tell us about changes.</p>
+ */
+public class OnlinePlayerRegistry implements Listener {
+
+    private static final long VANISH_STATE_TTL_MILLIS = TimeUnit.SECONDS.toMillis(1);
+
+    private volatile List<Player> players = Collections.emptyList();
+    private volatile VisiblePlayers visiblePlayers = null;
+
+    /**
+     * Replace the snapshot with the players currently known to the server
+     */
+    public synchronized void refresh() {
+        players = Collections.unmodifiableList(PlayerUtil.lookupOnlinePlayers());
+        visiblePlayers = null;
+    }
+
+    /**
+     * @return an immutable snapshot of the online players
+     */
+    public List<Player> getPlayers() {
+        return players;
+    }
+
+    /**
+     * @return an immutable snapshot of the online players that aren't vanished
+     */
+    public List<Player> getVisiblePlayers() {
+        VisiblePlayers visible = visiblePlayers;
+        long now = System.currentTimeMillis();
+        if (visible == null || visible.source != players || now - visible.computedAt > VANISH_STATE_TTL_MILLIS) {
+            List<Player> source = players;
+            List<Player> filtered = new ArrayList<>(source.size());
+            for (Player player : source) {
+                if (!PlayerUtil.isVanished(player)) filtered.add(player);
+            }
+            visible = new VisiblePlayers(source, Collections.unmodifiableList(filtered), now);
+            visiblePlayers = visible;
+        }
+        return visible.players;
+    }
+
+    /**
+     * Forget the cached vanish states, to be called when a player (un)vanishes
+     */
+    public void invalidateVanishState() {
+        visiblePlayers = null;
+    }
+
+    @EventHandler(priority = EventPriority.LOWEST)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        Player player = event.getPlayer();
+        synchronized (this) {
+            List<Player> updated = new ArrayList<>(players.size() + 1);
+            UUID uuid = player.getUniqueId();
+            for (Player online : players) {
+                if (!online.getUniqueId().equals(uuid)) updated.add(online);
+            }
+            updated.add(player);
+            players = Collections.unmodifiableList(updated);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        UUID uuid = event.getPlayer().getUniqueId();
+        synchronized (this) {
+            List<Player> updated = new ArrayList<>(players);
+            if (updated.removeIf(online -> online.getUniqueId().equals(uuid))) {
+                players = Collections.unmodifiableList(updated);
+            }
+        }
+    }
+
+    private static class VisiblePlayers {
+
+        private final List<Player> source;
+        private final List<Player> players;
+        private final long computedAt;
+
+        private VisiblePlayers(List<Player> source, List<Player> players, long computedAt) {
+            this.source = source;
+            this.players = players;
+            this.computedAt = computedAt;
+        }
+
+    }
+
+}
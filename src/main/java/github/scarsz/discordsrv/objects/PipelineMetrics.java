@@ -0,0 +1,138 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import lombok.Getter;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Always-on latency histograms for the stages of the chat pipeline in both directions
+ */
+public class PipelineMetrics {
+
+    private static volatile long since = System.currentTimeMillis();
+
+    public enum Stage {
+
+        TO_DISCORD_PRE_PROCESS("todiscord_preprocess", "GameChatMessagePreProcessEvent"),
+        TO_DISCORD_REGEX("todiscord_regex", "Regex filters"),
+        TO_DISCORD_MENTIONS("todiscord_mentions", "Mention conversion"),
+        TO_DISCORD_FORMATTING("todiscord_formatting", "Formatting & placeholders"),
+        TO_DISCORD_POST_PROCESS("todiscord_postprocess", "GameChatMessagePostProcessEvent"),
+        TO_DISCORD_TOTAL("todiscord_total", "Total processing"),
+        TO_DISCORD_SEND("todiscord_send", "Queue to sent (bot message)"),
+        TO_DISCORD_WEBHOOK("todiscord_webhook", "Queue to sent (webhook)"),
+
+        TO_MINECRAFT_PRE_PROCESS("tominecraft_preprocess", "DiscordGuildMessagePreProcessEvent"),
+        TO_MINECRAFT_REGEX("tominecraft_regex", "Regex filters"),
+        TO_MINECRAFT_MENTIONS("tominecraft_mentions", "Mention conversion"),
+        TO_MINECRAFT_FORMATTING("tominecraft_formatting", "Formatting & placeholders"),
+        TO_MINECRAFT_POST_PROCESS("tominecraft_postprocess", "DiscordGuildMessagePostProcessEvent"),
+        TO_MINECRAFT_BROADCAST("tominecraft_broadcast", "Broadcast to players"),
+        TO_MINECRAFT_TOTAL("tominecraft_total", "Total processing");
+
+        @Getter private final String key;
+        @Getter private final String description;
+        @Getter private final LatencyHistogram histogram = new LatencyHistogram();
+
+        Stage(String key, String description) {
+            this.key = key;
+            this.description = description;
+        }
+
+        /**
+         * Record the time elapsed since the given {@link System#nanoTime()} for this stage
+         * @param startNanos the start of the stage
+         * @return the current {@link System#nanoTime()}, to be used as the start of the next stage
+         */
+        public long record(long startNanos) {
+            long now = System.nanoTime();
+            histogram.recordNanos(now - startNanos);
+            return now;
+        }
+
+        public static Stage fromKey(String key) {
+            for (Stage stage : values()) {
+                if (stage.key.equalsIgnoreCase(key)) return stage;
+            }
+            return null;
+        }
+
+    }
+
+    /**
+     * Get a single statistic for a stage, used by the PlaceholderAPI expansion
+     * @param stage the stage
+     * @param statistic one of count, mean, max or pN (eg. p50, p99, p999 for 99.9, p100 for the maximum)
+     * @return the value (in milliseconds for latencies), null if the statistic is unknown
+     */
+    public static String getStatistic(Stage stage, String statistic) {
+        LatencyHistogram histogram = stage.getHistogram();
+        switch (statistic.toLowerCase()) {
+            case "count": return String.valueOf(histogram.getCount());
+            case "mean": return String.format("%.3f", histogram.getMean() / 1000D);
+            case "max": return String.format("%.3f", histogram.getMax() / 1000D);
+        }
+        if (statistic.length() > 1 && (statistic.charAt(0) == 'p' || statistic.charAt(0) == 'P')) {
+            String digits = statistic.substring(1);
+            if (!digits.chars().allMatch(Character::isDigit)) return null;
+            double percentile;
+            if (digits.equals("100")) {
+                percentile = 100;
+            } else if (digits.length() > 2) {
+                // anything starting with 100 would be above the maximum of 100
+                if (digits.startsWith("100")) return null;
+                // p999 -> 99.9
+                percentile = Double.parseDouble(digits.substring(0, 2) + "." + digits.substring(2));
+            } else {
+                percentile = Double.parseDouble(digits);
+            }
+            return String.format("%.3f", histogram.getPercentile(percentile) / 1000D);
+        }
+        return null;
+    }
+
+    /**
+     * @return a human readable table of all stages
+     */
+    public static String report() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Since ").append(TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis() - since)).append(" minute(s) ago\n");
+        String direction = null;
+        for (Stage stage : Stage.values()) {
+            String stageDirection = stage.name().startsWith("TO_DISCORD") ? "Minecraft -> Discord" : "Discord -> Minecraft";
+            if (!stageDirection.equals(direction)) {
+                direction = stageDirection;
+                builder.append('\n').append(direction).append('\n');
+            }
+            builder.append("  ").append(stage.getDescription()).append(" (").append(stage.getKey()).append("): ")
+                    .append(stage.getHistogram()).append('\n');
+        }
+        return builder.toString();
+    }
+
+    public static void reset() {
+        for (Stage stage : Stage.values()) stage.getHistogram().reset();
+        since = System.currentTimeMillis();
+    }
+
+}
@@ -0,0 +1,153 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import github.scarsz.discordsrv.DiscordSRV;
+import github.scarsz.discordsrv.hooks.VaultHook;
+import github.scarsz.discordsrv.util.LangUtil;
+import github.scarsz.discordsrv.util.MessageUtil;
+import github.scarsz.discordsrv.util.PlaceholderUtil;
+import github.scarsz.discordsrv.util.PlayerUtil;
+import org.apache.commons.lang3.StringUtils;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>The response to the Discord player list command, kept up to date incrementally.</p>
+ * <p>Each player's entry is rendered once and only rendered again after they join, quit or change worlds,
+ * or once the whole list expires (every {@code DiscordChatChannelListCommandRefreshSeconds}, for placeholders that
+ * change by themselves). Requests that arrive while the list is being rendered wait for that render instead of
+ * starting their own.</p>
+ */
+public class PlayerListCache implements Listener {
+
+    private static final int MAX_LENGTH = 1996;
+
+    private final Set<UUID> dirty = ConcurrentHashMap.newKeySet();
+    private final Map<UUID, String> entries = new HashMap<>(); // guarded by this
+    private volatile boolean invalidated = true;
+    private String message = null; // guarded by this
+    private long renderedAt = 0; // guarded by this
+
+    /**
+     * @return the player list message, rendered again only if something changed or it expired
+     */
+    public synchronized String getMessage() {
+        long now = System.currentTimeMillis();
+        long refreshMillis = TimeUnit.SECONDS.toMillis(Math.max(0, DiscordSRV.config().getIntElse("DiscordChatChannelListCommandRefreshSeconds", 10)));
+        boolean expired = invalidated || now - renderedAt >= refreshMillis;
+        if (message != null && !expired && dirty.isEmpty()) return message;
+
+        if (expired) {
+            invalidated = false;
+            entries.clear();
+        }
+
+        List<Player> players = PlayerUtil.getOnlinePlayerSnapshot(true);
+        if (players.isEmpty()) {
+            entries.clear();
+            dirty.clear();
+            message = PlaceholderUtil.replacePlaceholdersToDiscord(LangUtil.Message.PLAYER_LIST_COMMAND_NO_PLAYERS.toString());
+        } else {
+            Set<UUID> online = new HashSet<>(players.size());
+            for (Player player : players) {
+                UUID uuid = player.getUniqueId();
+                online.add(uuid);
+                if (dirty.remove(uuid) || !entries.containsKey(uuid)) entries.put(uuid, renderEntry(player));
+            }
+            entries.keySet().retainAll(online);
+            dirty.removeIf(uuid -> !online.contains(uuid));
+
+            message = render(players.size());
+        }
+        if (expired) renderedAt = now;
+        return message;
+    }
+
+    /**
+     * Render every entry again on the next request, used when the messages are reloaded
+     */
+    public void invalidate() {
+        invalidated = true;
+    }
+
+    private String render(int playerCount) {
+        String header = LangUtil.Message.PLAYER_LIST_COMMAND.toString().replace("%playercount%", playerCount + "/" + Bukkit.getMaxPlayers());
+        StringBuilder builder = new StringBuilder(PlaceholderUtil.replacePlaceholdersToDiscord(header)).append("\n```\n");
+
+        List<String> sorted = new ArrayList<>(entries.values());
+        sorted.sort(Comparator.naturalOrder());
+        String separator = LangUtil.Message.PLAYER_LIST_COMMAND_ALL_PLAYERS_SEPARATOR.toString();
+        for (int i = 0; i < sorted.size(); i++) {
+            if (i > 0) builder.append(separator);
+            builder.append(sorted.get(i));
+            // the rest would be cut off anyway
+            if (builder.length() > MAX_LENGTH) break;
+        }
+
+        String playerListMessage = builder.toString();
+        if (playerListMessage.length() > MAX_LENGTH) playerListMessage = playerListMessage.substring(0, 1993) + "...";
+        return playerListMessage + "\n```";
+    }
+
+    private String renderEntry(Player player) {
+        String userPrimaryGroup = VaultHook.getPrimaryGroup(player);
+        boolean hasGoodGroup = StringUtils.isNotBlank(userPrimaryGroup);
+        // capitalize the first letter of the user's primary group to look neater
+        if (hasGoodGroup) userPrimaryGroup = userPrimaryGroup.substring(0, 1).toUpperCase() + userPrimaryGroup.substring(1);
+
+        String playerFormat = LangUtil.Message.PLAYER_LIST_COMMAND_PLAYER.toString()
+                .replace("%username%", player.getName())
+                .replace("%displayname%", MessageUtil.strip(player.getDisplayName()))
+                .replace("%primarygroup%", userPrimaryGroup)
+                .replace("%world%", player.getWorld().getName())
+                .replace("%worldalias%", MessageUtil.strip(DiscordSRV.getPlugin().getWorldAlias(player.getWorld().getName())));
+
+        // use PlaceholderAPI if available
+        return PlaceholderUtil.replacePlaceholdersToDiscord(playerFormat, player);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        dirty.add(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerQuit(PlayerQuitEvent event) {
+        dirty.add(event.getPlayer().getUniqueId());
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent event) {
+        dirty.add(event.getPlayer().getUniqueId());
+    }
+
+}
@@ -0,0 +1,266 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Immutable, compiled form of a set of regex filters (pattern to replacement), applied in the configured order.</p>
+ * <p>Consecutive filters that are plain text on both sides are merged into a single Aho-Corasick pass when doing so
+ * can't change the result, i.e. their texts can't overlap and no replacement can form or break a later match.
+ * Every other filter keeps its own pass, reusing a {@link Matcher} per thread.</p>
+ */
+public class RegexFilterChain {
+
+    public static final RegexFilterChain EMPTY = new RegexFilterChain(Collections.emptyMap());
+
+    private static final String REGEX_METACHARACTERS = "\\^$.|?*+()[]{}";
+
+    private final Map<Pattern, String> rules;
+    private final Stage[] stages;
+
+    /**
+     * @param rules the filters, in the order that they should be applied
+     */
+    public RegexFilterChain(Map<Pattern, String> rules) {
+        this.rules = Collections.unmodifiableMap(new LinkedHashMap<>(rules));
+
+        List<Stage> stages = new ArrayList<>();
+        List<RegexStage> literals = new ArrayList<>();
+        for (Map.Entry<Pattern, String> entry : this.rules.entrySet()) {
+            RegexStage stage = new RegexStage(entry.getKey(), entry.getValue());
+            if (!stage.isMergeable()) {
+                flushLiterals(literals, stages);
+                stages.add(stage);
+                continue;
+            }
+            if (!canMerge(literals, stage)) flushLiterals(literals, stages);
+            literals.add(stage);
+        }
+        flushLiterals(literals, stages);
+        this.stages = stages.toArray(new Stage[0]);
+    }
+
+    public Map<Pattern, String> getRules() {
+        return rules;
+    }
+
+    public boolean isEmpty() {
+        return stages.length == 0;
+    }
+
+    /**
+     * Apply every filter to the given text
+     * @param input the text
+     * @return the filtered text
+     */
+    public String apply(String input) {
+        for (Stage stage : stages) {
+            input = stage.apply(input);
+        }
+        return input;
+    }
+
+    /**
+     * Apply every filter to the given text, giving up as soon as a filter leaves it blank
+     * @param input the text
+     * @param onCleared receives the pattern of the filter that left the text blank
+     * @return the filtered text, or null if a filter left it blank
+     */
+    public String filter(String input, Consumer<String> onCleared) {
+        for (Stage stage : stages) {
+            input = stage.filter(input, onCleared);
+            if (input == null) return null;
+        }
+        return input;
+    }
+
+    private static void flushLiterals(List<RegexStage> literals, List<Stage> stages) {
+        if (literals.isEmpty()) return;
+        stages.add(literals.size() == 1 ? literals.get(0) : new LiteralStage(literals));
+        literals.clear();
+    }
+
+    /**
+     * A plain text filter can join the previous ones if its text can't overlap theirs and their replacements can't
+     * be matched by it.
+     */
+    private static boolean canMerge(List<RegexStage> literals, RegexStage candidate) {
+        String text = candidate.pattern.pattern();
+        for (RegexStage literal : literals) {
+            String other = literal.pattern.pattern();
+            if (other.contains(text) || text.contains(other) || overlaps(other, text) || overlaps(text, other)) return false;
+            if (StringUtils.containsAny(literal.replacement, text)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return true if a suffix of the first text is a prefix of the second
+     */
+    private static boolean overlaps(String first, String second) {
+        for (int length = Math.min(first.length(), second.length()) - 1; length > 0; length--) {
+            if (first.regionMatches(first.length() - length, second, 0, length)) return true;
+        }
+        return false;
+    }
+
+    private interface Stage {
+
+        String apply(String input);
+
+        String filter(String input, Consumer<String> onCleared);
+
+    }
+
+    private static class RegexStage implements Stage {
+
+        private final Pattern pattern;
+        private final String replacement;
+        private final ThreadLocal<Matcher> matcher;
+
+        private RegexStage(Pattern pattern, String replacement) {
+            this.pattern = pattern;
+            this.replacement = replacement;
+            this.matcher = ThreadLocal.withInitial(() -> pattern.matcher(""));
+        }
+
+        /**
+         * Only plain text can be merged. The replacement also has to contain something other than whitespace,
+         * so that a merged pass can't leave the text blank halfway through.
+         */
+        private boolean isMergeable() {
+            String text = pattern.pattern();
+            return !text.isEmpty()
+                    && StringUtils.isNotBlank(replacement)
+                    && (pattern.flags() & ~Pattern.DOTALL) == 0
+                    && !StringUtils.containsAny(text, REGEX_METACHARACTERS)
+                    && !StringUtils.containsAny(replacement, '$', '\\');
+        }
+
+        @Override
+        public String apply(String input) {
+            return matcher.get().reset(input).replaceAll(replacement);
+        }
+
+        @Override
+        public String filter(String input, Consumer<String> onCleared) {
+            String output = apply(input);
+            if (StringUtils.isBlank(output)) {
+                onCleared.accept(pattern.pattern());
+                return null;
+            }
+            return output;
+        }
+
+    }
+
+    private static class LiteralStage implements Stage {
+
+        private final RegexStage[] rules;
+        private final List<Map<Character, Integer>> transitions = new ArrayList<>();
+        private final List<Integer> failures = new ArrayList<>();
+        private final List<Integer> outputs = new ArrayList<>();
+
+        private LiteralStage(List<RegexStage> rules) {
+            this.rules = rules.toArray(new RegexStage[0]);
+            addState();
+            for (int i = 0; i < this.rules.length; i++) {
+                int state = 0;
+                for (char c : this.rules[i].pattern.pattern().toCharArray()) {
+                    Integer next = transitions.get(state).get(c);
+                    if (next == null) {
+                        next = addState();
+                        transitions.get(state).put(c, next);
+                    }
+                    state = next;
+                }
+                outputs.set(state, i);
+            }
+
+            Deque<Integer> queue = new ArrayDeque<>(transitions.get(0).values());
+            while (!queue.isEmpty()) {
+                int state = queue.poll();
+                for (Map.Entry<Character, Integer> entry : transitions.get(state).entrySet()) {
+                    int child = entry.getValue();
+                    int failure = failures.get(state);
+                    while (failure != 0 && !transitions.get(failure).containsKey(entry.getKey())) failure = failures.get(failure);
+                    Integer target = state == 0 ? null : transitions.get(failure).get(entry.getKey());
+                    failures.set(child, target != null ? target : 0);
+                    queue.add(child);
+                }
+            }
+        }
+
+        private int addState() {
+            transitions.add(new HashMap<>());
+            failures.add(0);
+            outputs.add(-1);
+            return transitions.size() - 1;
+        }
+
+        @Override
+        public String apply(String input) {
+            StringBuilder builder = null;
+            int copiedUntil = 0;
+            int state = 0;
+            for (int i = 0; i < input.length(); i++) {
+                char c = input.charAt(i);
+                Integer next;
+                while ((next = transitions.get(state).get(c)) == null && state != 0) state = failures.get(state);
+                state = next != null ? next : 0;
+
+                int output = outputs.get(state);
+                if (output == -1) continue;
+
+                // the texts can't overlap, so the match can't be part of a longer one & matching restarts after it
+                RegexStage rule = rules[output];
+                int start = i + 1 - rule.pattern.pattern().length();
+                if (builder == null) builder = new StringBuilder(input.length());
+                builder.append(input, copiedUntil, start).append(rule.replacement);
+                copiedUntil = i + 1;
+                state = 0;
+            }
+            if (builder == null) return input;
+            return builder.append(input, copiedUntil, input.length()).toString();
+        }
+
+        @Override
+        public String filter(String input, Consumer<String> onCleared) {
+            if (StringUtils.isBlank(input)) {
+                // only here could a filter leave the text blank, find out which one the same way as unmerged filters
+                for (RegexStage rule : rules) {
+                    input = rule.filter(input, onCleared);
+                    if (input == null) return null;
+                }
+                return input;
+            }
+            return apply(input);
+        }
+
+    }
+
+}
@@ -0,0 +1,217 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import github.scarsz.discordsrv.DiscordSRV;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Runs DiscordSRV's periodic tasks on a small shared pool, instead of a sleeping thread per task.</p>
+ * <p>A task's period is looked up again after every run (and on {@link #rescheduleAll()}), so config changes apply
+ * without restarting it. A bit of jitter is added to every period so that tasks don't keep hitting Discord at the
+ * same moment, and every task keeps track of its run times &amp; last error for the debug report.</p>
+ */
+public class TaskScheduler {
+
+    private static final int THREADS = 2;
+    private static final double JITTER = 0.05;
+
+    private final Map<String, Task> tasks = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor executor;
+
+    public TaskScheduler() {
+        this.executor = new ScheduledThreadPoolExecutor(THREADS, new ThreadFactoryBuilder()
+                .setNameFormat("DiscordSRV - Scheduled Tasks %d")
+                .setDaemon(true)
+                .build());
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Schedule a task that runs periodically until cancelled, replacing any task with the same name
+     * @param name the name of the task
+     * @param runnable what to run
+     * @param initialDelay the delay before the first run
+     * @param period the delay between the end of a run and the start of the next one, looked up after every run
+     * @param unit the unit of the delay &amp; period
+     * @return the task
+     */
+    public Task schedule(String name, Runnable runnable, long initialDelay, LongSupplier period, TimeUnit unit) {
+        Task task = new Task(name, runnable, () -> unit.toMillis(period.getAsLong()));
+        Task previous = tasks.put(name, task);
+        if (previous != null) previous.cancel();
+        task.scheduleIn(unit.toMillis(initialDelay));
+        return task;
+    }
+
+    /**
+     * @param name the name of the task
+     * @return true if a task with the given name was scheduled
+     */
+    public boolean cancel(String name) {
+        Task task = tasks.remove(name);
+        if (task == null) return false;
+        task.cancel();
+        return true;
+    }
+
+    /**
+     * Look up every task's period again, moving their next run accordingly
+     */
+    public void rescheduleAll() {
+        tasks.values().forEach(Task::reschedule);
+    }
+
+    /**
+     * @return the scheduled tasks, ordered by name
+     */
+    public List<Task> getTasks() {
+        List<Task> tasks = new ArrayList<>(this.tasks.values());
+        tasks.sort(Comparator.comparing(Task::getName));
+        return tasks;
+    }
+
+    public void shutdown() {
+        tasks.values().forEach(Task::cancel);
+        tasks.clear();
+        executor.shutdownNow();
+    }
+
+    public class Task {
+
+        @Getter private final String name;
+        private final Runnable runnable;
+        private final LongSupplier period;
+
+        // guarded by this
+        private ScheduledFuture<?> future = null;
+        private int generation = 0; // bumped on every (re)schedule, so a run that was already dequeued can tell it's stale
+        private boolean running = false;
+        private boolean cancelled = false;
+
+        private volatile long lastPeriod = 0;
+        private volatile long lastRunEnd = 0;
+        @Getter private volatile long nextRun = 0;
+        @Getter private volatile int runs = 0;
+        @Getter private volatile long lastRunTime = 0;
+        @Getter private volatile long maxRunTime = 0;
+        private volatile long totalRunTime = 0;
+        @Getter private volatile Throwable lastError = null;
+        @Getter private volatile long lastErrorTime = 0;
+
+        private Task(String name, Runnable runnable, LongSupplier period) {
+            this.name = name;
+            this.runnable = runnable;
+            this.period = period;
+        }
+
+        public synchronized void cancel() {
+            cancelled = true;
+            if (future != null) future.cancel(false);
+            future = null;
+        }
+
+        public synchronized boolean isCancelled() {
+            return cancelled;
+        }
+
+        private synchronized void reschedule() {
+            // a task that's running schedules its next run once it's done, one that never ran keeps its initial delay
+            if (running || cancelled || runs == 0) return;
+            scheduleIn(lastRunEnd + nextDelay() - System.currentTimeMillis());
+        }
+
+        private synchronized void scheduleIn(long delayMillis) {
+            if (cancelled) return;
+            if (future != null) future.cancel(false);
+            delayMillis = Math.max(0, delayMillis);
+            nextRun = System.currentTimeMillis() + delayMillis;
+            int generation = ++this.generation;
+            try {
+                future = executor.schedule(() -> run(generation), delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                cancelled = true;
+                future = null;
+            }
+        }
+
+        private long nextDelay() {
+            long period;
+            try {
+                period = Math.max(1, this.period.getAsLong());
+            } catch (RuntimeException e) {
+                DiscordSRV.error("Failed to get the period of scheduled task \"" + name + "\", keeping the previous one", e);
+                period = Math.max(1, lastPeriod);
+            }
+            lastPeriod = period;
+            return period + ThreadLocalRandom.current().nextLong((long) (period * JITTER) + 1);
+        }
+
+        private void run(int generation) {
+            synchronized (this) {
+                // rescheduled after the executor picked this run up, the new schedule replaces it
+                if (cancelled || generation != this.generation) return;
+                running = true;
+                future = null;
+            }
+
+            long start = System.nanoTime();
+            try {
+                runnable.run();
+            } catch (Throwable t) {
+                lastError = t;
+                lastErrorTime = System.currentTimeMillis();
+                if (!executor.isShutdown()) DiscordSRV.error("Scheduled task \"" + name + "\" failed", t);
+            } finally {
+                long runTime = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                lastRunTime = runTime;
+                maxRunTime = Math.max(maxRunTime, runTime);
+                totalRunTime += runTime;
+                lastRunEnd = System.currentTimeMillis();
+                runs++;
+            }
+
+            synchronized (this) {
+                running = false;
+                scheduleIn(nextDelay());
+            }
+        }
+
+        @Override
+        public String toString() {
+            long now = System.currentTimeMillis();
+            return name + " -> runs: " + runs
+                    + (runs > 0 ? ", last: " + lastRunTime + "ms, average: " + (totalRunTime / runs) + "ms, max: " + maxRunTime + "ms" : "")
+                    + (isCancelled() ? ", cancelled" : ", next in " + TimeUnit.MILLISECONDS.toSeconds(Math.max(0, nextRun - now)) + "s")
+                    + ", last error: " + (lastError != null ? lastError + " (" + TimeUnit.MILLISECONDS.toSeconds(now - lastErrorTime) + "s ago)" : "none");
+        }
+
+    }
+
+}
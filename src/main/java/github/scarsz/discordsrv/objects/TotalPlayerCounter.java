@@ -0,0 +1,150 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import github.scarsz.discordsrv.DiscordSRV;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Counts the players that have ever joined, i.e. the player data files of the main world.</p>
+ * <p>The folder is only listed once, off the main thread. After that the count is increased for every first join.
+ * Optionally, a {@link WatchService} on the folder also picks up player data files that are added or removed
+ * by other means.</p>
+ */
+public class TotalPlayerCounter implements Listener {
+
+    private static final Pattern PLAYER_DATA_FILE = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}\\.dat");
+
+    private final File playerDataFolder;
+    private final AtomicInteger count = new AtomicInteger();
+    // first joins counted before their player data file was written, so that the file isn't counted a second time
+    private final Set<UUID> unsavedFirstJoins = ConcurrentHashMap.newKeySet();
+    private volatile boolean trackUnsaved = true;
+    private volatile WatchService watchService = null;
+
+    public TotalPlayerCounter(File playerDataFolder) {
+        this.playerDataFolder = playerDataFolder;
+    }
+
+    public int getCount() {
+        return count.get();
+    }
+
+    /**
+     * Count the player data files, to be called off the main thread
+     * @param watch if the folder should be watched for changes afterwards, which blocks the calling thread until {@link #shutdown()}
+     */
+    public void start(boolean watch) {
+        if (watch) {
+            try {
+                watchService = playerDataFolder.toPath().getFileSystem().newWatchService();
+                playerDataFolder.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE);
+            } catch (IOException | UnsupportedOperationException e) {
+                DiscordSRV.debug("Not watching " + playerDataFolder + " for player data changes: " + e.getMessage());
+                watchService = null;
+            }
+        }
+
+        // the watcher is registered first so no change is missed, a file written while counting may be counted twice
+        recount();
+        if (watchService != null) {
+            watch(watchService);
+        } else {
+            trackUnsaved = false;
+            unsavedFirstJoins.clear();
+        }
+    }
+
+    public void shutdown() {
+        WatchService watchService = this.watchService;
+        this.watchService = null;
+        if (watchService == null) return;
+        try {
+            watchService.close();
+        } catch (IOException ignored) {}
+    }
+
+    private void recount() {
+        long start = System.currentTimeMillis();
+        int files = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(playerDataFolder.toPath(), "*.dat")) {
+            for (Path ignored : stream) files++;
+        } catch (NoSuchFileException e) {
+            files = 0;
+        } catch (IOException e) {
+            DiscordSRV.error("Failed to count the player data files in " + playerDataFolder, e);
+            return;
+        }
+
+        // first joins that still don't have a file weren't part of the listing
+        unsavedFirstJoins.removeIf(uuid -> new File(playerDataFolder, uuid + ".dat").exists());
+        count.set(files + unsavedFirstJoins.size());
+        DiscordSRV.debug("Counted " + count.get() + " total players in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    private void watch(WatchService watchService) {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            for (WatchEvent<?> event : key.pollEvents()) {
+                if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                    recount();
+                    continue;
+                }
+
+                // the server replaces player data files when saving them (delete followed by create), which evens out
+                String fileName = event.context().toString();
+                if (!PLAYER_DATA_FILE.matcher(fileName).matches()) continue;
+                if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE) {
+                    UUID uuid = UUID.fromString(fileName.substring(0, fileName.length() - 4));
+                    if (!unsavedFirstJoins.remove(uuid)) count.incrementAndGet();
+                } else if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+                    count.decrementAndGet();
+                }
+            }
+            if (!key.reset()) return;
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerJoin(PlayerJoinEvent event) {
+        if (event.getPlayer().hasPlayedBefore()) return;
+        if (!trackUnsaved || unsavedFirstJoins.add(event.getPlayer().getUniqueId())) count.incrementAndGet();
+    }
+
+}
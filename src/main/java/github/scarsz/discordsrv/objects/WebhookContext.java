@@ -0,0 +1,88 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import github.scarsz.discordsrv.DiscordSRV;
+import github.scarsz.discordsrv.util.WebhookUtil;
+import lombok.Getter;
+import net.dv8tion.jda.api.JDA;
+import okhttp3.OkHttpClient;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>Everything needed to execute webhooks as one bot: the HTTP client, the cache of webhook URLs per channel
+ * &amp; the delivery queue that tracks the webhook rate limits.</p>
+ * <p>DiscordSRV's own bot uses {@link DiscordSRV#getWebhookContext()}. Addons running additional bots should create one
+ * per bot with {@link #forJda(String, JDA)}, so that their traffic doesn't compete with the main bot's.</p>
+ */
+public class WebhookContext {
+
+    @Getter private final String name;
+    @Getter private final WebhookDeliveryQueue deliveryQueue;
+    private final Supplier<OkHttpClient> httpClient;
+    private final Map<String, String> channelWebhookUrls = new ConcurrentHashMap<>();
+
+    public WebhookContext(String name, Supplier<OkHttpClient> httpClient) {
+        this.name = name;
+        this.httpClient = httpClient;
+        this.deliveryQueue = new WebhookDeliveryQueue(name, delivery -> WebhookUtil.sendDelivery(this, delivery));
+    }
+
+    /**
+     * Create a context that executes webhooks with the given bot's own HTTP client
+     * @param name the name of the context, used for the delivery threads
+     * @param jda the bot
+     * @return the context, which should be {@link #shutdown(long, TimeUnit) shut down} together with the bot
+     */
+    public static WebhookContext forJda(String name, JDA jda) {
+        return new WebhookContext(name, jda::getHttpClient);
+    }
+
+    public OkHttpClient getHttpClient() {
+        return httpClient.get();
+    }
+
+    public String getCachedWebhookUrl(String channelId) {
+        return channelWebhookUrls.get(channelId);
+    }
+
+    public String getWebhookUrl(String channelId, Function<String, String> resolver) {
+        return channelWebhookUrls.computeIfAbsent(channelId, resolver);
+    }
+
+    public void invalidateWebhookUrl(String channelId) {
+        channelWebhookUrls.remove(channelId);
+    }
+
+    /**
+     * Stop accepting new deliveries, giving already queued deliveries up to the given time to go out
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        deliveryQueue.shutdown(timeout, unit);
+        channelWebhookUrls.clear();
+    }
+
+}
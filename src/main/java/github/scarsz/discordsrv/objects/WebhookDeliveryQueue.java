@@ -0,0 +1,468 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import github.scarsz.discordsrv.Debug;
+import github.scarsz.discordsrv.DiscordSRV;
+import lombok.Getter;
+import net.dv8tion.jda.api.entities.MessageEmbed;
+import net.dv8tion.jda.api.entities.TextChannel;
+import net.dv8tion.jda.api.interactions.components.ActionRow;
+import org.apache.commons.lang3.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Per-channel queue for webhook deliveries that follows Discord's webhook rate limit buckets.</p>
+ * <p>Each channel has at most one delivery in flight. When the bucket is exhausted the queue waits until it resets,
+ * and consecutive plain messages from the same username &amp; avatar that piled up in the meantime are
+ * coalesced into a single payload of up to {@value #MAX_MESSAGE_LENGTH} characters.</p>
+ */
+public class WebhookDeliveryQueue {
+
+    public static final int MAX_MESSAGE_LENGTH = 2000;
+    private static final int MAX_QUEUED_PER_CHANNEL = 500;
+    private static final int MAX_ATTEMPTS = 5;
+
+    private final Sender sender;
+    private final Map<String, ChannelQueue> queues = new ConcurrentHashMap<>();
+    private final ScheduledThreadPoolExecutor executor;
+    // set once shutting down, deliveries that can't go out before the deadline are dropped instead of waited for
+    private volatile boolean closing = false;
+    private volatile long closingDeadline = 0;
+
+    @Getter private final AtomicLong delivered = new AtomicLong();
+    @Getter private final AtomicLong coalesced = new AtomicLong();
+    @Getter private final AtomicLong retried = new AtomicLong();
+    @Getter private final AtomicLong dropped = new AtomicLong();
+
+    public WebhookDeliveryQueue(String name, Sender sender) {
+        this.sender = sender;
+        this.executor = new ScheduledThreadPoolExecutor(4, new ThreadFactoryBuilder()
+                .setNameFormat("DiscordSRV - " + name + " %d")
+                .setDaemon(true)
+                .build());
+        this.executor.setKeepAliveTime(30, TimeUnit.SECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+        this.executor.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Queue the given delivery for its channel
+     * @param delivery the delivery
+     * @return a future completed once the delivery was sent or dropped
+     */
+    public CompletableFuture<Void> submit(Delivery delivery) {
+        CompletableFuture<Void> future = delivery.completions.get(0);
+        ChannelQueue queue = queues.computeIfAbsent(delivery.getChannel().getId(), ChannelQueue::new);
+        synchronized (queue) {
+            if (queue.pending.size() >= MAX_QUEUED_PER_CHANNEL) {
+                drop(delivery, "the queue for #" + delivery.getChannel().getName() + " is full (" + MAX_QUEUED_PER_CHANNEL + " messages)");
+                return future;
+            }
+            queue.pending.add(delivery);
+            if (queue.busy) return future;
+            queue.busy = true;
+        }
+        schedule(queue, 0);
+        return future;
+    }
+
+    /**
+     * Send the given delivery on the calling thread, ahead of anything queued for its channel.
+     * This only waits for the channel's rate limit bucket to reset (and for retries), never for other deliveries.
+     * @param delivery the delivery
+     */
+    public void sendNow(Delivery delivery) {
+        ChannelQueue queue = queues.computeIfAbsent(delivery.getChannel().getId(), ChannelQueue::new);
+        try {
+            while (true) {
+                long wait;
+                synchronized (queue) {
+                    wait = queue.remaining <= 0 ? queue.resetAt - System.currentTimeMillis() : 0;
+                    if (wait <= 0) queue.remaining--;
+                }
+                if (wait > 0) {
+                    if (pastDeadline(wait)) {
+                        drop(delivery, "webhook delivery is shutting down");
+                        return;
+                    }
+                    Thread.sleep(wait);
+                    continue;
+                }
+
+                long retryIn = attempt(queue, delivery);
+                if (retryIn < 0) return;
+                retried.incrementAndGet();
+                Thread.sleep(retryIn);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            drop(delivery, "the sending thread was interrupted");
+        }
+    }
+
+    /**
+     * @return the total amount of deliveries waiting to be sent, across all channels
+     */
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ChannelQueue queue : queues.values()) {
+            synchronized (queue) {
+                depth += queue.pending.size();
+            }
+        }
+        return depth;
+    }
+
+    @Override
+    public String toString() {
+        return "depth " + getQueueDepth()
+                + ", delivered " + delivered.get()
+                + ", coalesced " + coalesced.get()
+                + ", retried " + retried.get()
+                + ", dropped " + dropped.get();
+    }
+
+    /**
+     * Give already queued deliveries up to the given time to go out, then stop &amp; drop whatever is left
+     */
+    public void shutdown(long timeout, TimeUnit unit) {
+        closingDeadline = System.currentTimeMillis() + unit.toMillis(timeout);
+        closing = true;
+        try {
+            while (!isIdle() && System.currentTimeMillis() < closingDeadline) {
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+
+        for (ChannelQueue queue : queues.values()) {
+            synchronized (queue) {
+                Delivery delivery;
+                while ((delivery = queue.pending.poll()) != null) drop(delivery, "webhook delivery is shutting down");
+            }
+        }
+    }
+
+    /**
+     * @return true if no channel has a delivery queued or in flight
+     */
+    private boolean isIdle() {
+        for (ChannelQueue queue : queues.values()) {
+            synchronized (queue) {
+                if (queue.busy) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return true if shutting down &amp; the given delay would end after the deadline
+     */
+    private boolean pastDeadline(long delayMillis) {
+        return closing && System.currentTimeMillis() + delayMillis >= closingDeadline;
+    }
+
+    private void schedule(ChannelQueue queue, long delayMillis) {
+        try {
+            executor.schedule(() -> process(queue), Math.max(0, delayMillis), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            synchronized (queue) {
+                queue.busy = false;
+                Delivery delivery;
+                while ((delivery = queue.pending.poll()) != null) drop(delivery, "webhook delivery is shutting down");
+            }
+        }
+    }
+
+    private void process(ChannelQueue queue) {
+        Delivery delivery;
+        synchronized (queue) {
+            if (queue.pending.isEmpty()) {
+                queue.busy = false;
+                return;
+            }
+
+            long wait = queue.remaining <= 0 ? queue.resetAt - System.currentTimeMillis() : 0;
+            if (wait > 0 && pastDeadline(wait)) {
+                queue.busy = false;
+                while ((delivery = queue.pending.poll()) != null) drop(delivery, "webhook delivery is shutting down");
+                return;
+            }
+            if (wait > 0) {
+                // bucket is exhausted, come back once it resets
+                schedule(queue, wait);
+                return;
+            }
+
+            delivery = queue.pending.poll();
+            Delivery next;
+            while ((next = queue.pending.peek()) != null && delivery.canCoalesce(next)) {
+                delivery = delivery.coalesce(queue.pending.poll());
+                coalesced.incrementAndGet();
+            }
+            queue.remaining--;
+        }
+
+        long retryIn = attempt(queue, delivery);
+        if (retryIn >= 0) {
+            retry(queue, delivery, retryIn);
+        } else {
+            schedule(queue, 0);
+        }
+    }
+
+    /**
+     * Send the given delivery once &amp; update its channel's rate limit state from the response
+     * @return the delay before the delivery should be retried, or -1 if it was delivered or dropped
+     */
+    private long attempt(ChannelQueue queue, Delivery delivery) {
+        Result result;
+        try {
+            delivery.attempts++;
+            result = sender.send(delivery);
+        } catch (Exception e) {
+            DiscordSRV.error("Failed to deliver webhook message to Discord: " + e.getMessage());
+            DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, e);
+            if (delivery.isRetryable() && delivery.attempts < MAX_ATTEMPTS) {
+                return 1000L * delivery.attempts;
+            }
+            drop(delivery, "it failed " + delivery.attempts + " time(s)");
+            return -1;
+        }
+
+        if (result.getStatus() <= 0) {
+            drop(delivery, "no webhook is available for the channel");
+            return -1;
+        }
+
+        long now = System.currentTimeMillis();
+        synchronized (queue) {
+            if (result.getRemaining() >= 0) queue.remaining = result.getRemaining();
+            if (result.getResetAfterMillis() >= 0) queue.resetAt = now + result.getResetAfterMillis();
+        }
+
+        if (result.getStatus() == 429) {
+            long retryAfter = Math.max(result.getRetryAfterMillis(), 0);
+            DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Webhook delivery to #" + delivery.getChannel().getName() + " was rate limited, retrying in " + retryAfter + "ms");
+            synchronized (queue) {
+                queue.remaining = 0;
+                queue.resetAt = now + retryAfter;
+            }
+            if (delivery.isRetryable() && delivery.attempts < MAX_ATTEMPTS) {
+                // the exhausted bucket holds the retry back until it resets
+                return 0;
+            }
+            drop(delivery, "it was rate limited " + delivery.attempts + " time(s)");
+            return -1;
+        }
+
+        if (result.isInvalidWebhook() && delivery.allowSecondAttempt) {
+            delivery.allowSecondAttempt = false;
+            return 0;
+        }
+
+        if (result.getStatus() >= 500) {
+            if (delivery.isRetryable() && delivery.attempts < MAX_ATTEMPTS) {
+                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Webhook delivery to #" + delivery.getChannel().getName() + " failed with status " + result.getStatus() + ", retrying");
+                return 1000L * delivery.attempts;
+            }
+            DiscordSRV.error("Failed to deliver webhook message to #" + delivery.getChannel().getName() + ": Discord responded with status " + result.getStatus());
+            drop(delivery, "it failed " + delivery.attempts + " time(s)");
+            return -1;
+        }
+        if (result.getStatus() < 200 || result.getStatus() >= 300) {
+            DiscordSRV.error("Failed to deliver webhook message to #" + delivery.getChannel().getName() + ": Discord responded with status " + result.getStatus());
+            drop(delivery, "Discord responded with status " + result.getStatus());
+            return -1;
+        }
+
+        delivered.incrementAndGet();
+        PipelineMetrics.Stage.TO_DISCORD_WEBHOOK.record(delivery.queuedAt);
+        delivery.complete();
+        return -1;
+    }
+
+    private void retry(ChannelQueue queue, Delivery delivery, long delayMillis) {
+        if (delayMillis > 0 && pastDeadline(delayMillis)) {
+            drop(delivery, "webhook delivery is shutting down");
+            schedule(queue, 0);
+            return;
+        }
+        retried.incrementAndGet();
+        synchronized (queue) {
+            queue.pending.addFirst(delivery);
+        }
+        schedule(queue, delayMillis);
+    }
+
+    private void drop(Delivery delivery, String reason) {
+        dropped.incrementAndGet();
+        DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Dropping webhook message for #" + delivery.getChannel().getName() + " because " + reason);
+        delivery.discard();
+        delivery.complete();
+    }
+
+    private static class ChannelQueue {
+
+        private final String channelId;
+        private final Deque<Delivery> pending = new ArrayDeque<>();
+        private boolean busy = false;
+        private int remaining = 1;
+        private long resetAt = 0;
+
+        private ChannelQueue(String channelId) {
+            this.channelId = channelId;
+        }
+
+    }
+
+    @FunctionalInterface
+    public interface Sender {
+        Result send(Delivery delivery) throws IOException;
+    }
+
+    /**
+     * A single webhook execution (or edit) waiting to be sent
+     */
+    public static class Delivery {
+
+        @Getter private final TextChannel channel;
+        @Getter private final String webhookName;
+        @Getter private final String webhookAvatarUrl;
+        @Getter private final String editMessageId;
+        @Getter private final String message;
+        @Getter private final Collection<? extends MessageEmbed> embeds;
+        @Getter private final Map<String, InputStream> attachments;
+        @Getter private final Collection<? extends ActionRow> interactions;
+        private final List<CompletableFuture<Void>> completions;
+        private boolean allowSecondAttempt;
+        private int attempts = 0;
+        private long queuedAt = System.nanoTime();
+
+        public Delivery(TextChannel channel, String webhookName, String webhookAvatarUrl, String editMessageId, String message,
+                        Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments,
+                        Collection<? extends ActionRow> interactions, boolean allowSecondAttempt) {
+            this(channel, webhookName, webhookAvatarUrl, editMessageId, message, embeds, attachments, interactions,
+                    allowSecondAttempt, new ArrayList<>(Collections.singletonList(new CompletableFuture<>())));
+        }
+
+        private Delivery(TextChannel channel, String webhookName, String webhookAvatarUrl, String editMessageId, String message,
+                         Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments,
+                         Collection<? extends ActionRow> interactions, boolean allowSecondAttempt,
+                         List<CompletableFuture<Void>> completions) {
+            this.channel = channel;
+            this.webhookName = webhookName;
+            this.webhookAvatarUrl = webhookAvatarUrl;
+            this.editMessageId = editMessageId;
+            this.message = message;
+            this.embeds = embeds;
+            this.attachments = attachments;
+            this.interactions = interactions;
+            this.allowSecondAttempt = allowSecondAttempt;
+            this.completions = completions;
+        }
+
+        public boolean isAllowSecondAttempt() {
+            return allowSecondAttempt;
+        }
+
+        /**
+         * @return whether this is a new message with text content only
+         */
+        private boolean isPlain() {
+            return editMessageId == null
+                    && StringUtils.isNotBlank(message)
+                    && (embeds == null || embeds.stream().allMatch(Objects::isNull))
+                    && (attachments == null || attachments.isEmpty())
+                    && (interactions == null || interactions.isEmpty());
+        }
+
+        /**
+         * Attachment streams are consumed by the first attempt, so those deliveries can't be sent again
+         */
+        private boolean isRetryable() {
+            return attachments == null || attachments.isEmpty();
+        }
+
+        private boolean canCoalesce(Delivery next) {
+            return isPlain() && next.isPlain()
+                    && attempts == 0 && next.attempts == 0
+                    && Objects.equals(webhookName, next.webhookName)
+                    && Objects.equals(webhookAvatarUrl, next.webhookAvatarUrl)
+                    && message.length() + 1 + next.message.length() <= MAX_MESSAGE_LENGTH;
+        }
+
+        private Delivery coalesce(Delivery next) {
+            List<CompletableFuture<Void>> merged = new ArrayList<>(completions);
+            merged.addAll(next.completions);
+            Delivery coalesced = new Delivery(channel, webhookName, webhookAvatarUrl, null, message + "\n" + next.message,
+                    null, null, null, allowSecondAttempt && next.allowSecondAttempt, merged);
+            coalesced.queuedAt = queuedAt;
+            return coalesced;
+        }
+
+        private void discard() {
+            if (attachments == null) return;
+            attachments.values().forEach(inputStream -> {
+                try {
+                    inputStream.close();
+                } catch (IOException ignore) {
+                }
+            });
+        }
+
+        private void complete() {
+            completions.forEach(future -> future.complete(null));
+        }
+
+    }
+
+    /**
+     * The outcome of a webhook request, including the rate limit bucket state Discord returned
+     */
+    public static class Result {
+
+        @Getter private final int status;
+        @Getter private final int remaining;
+        @Getter private final long resetAfterMillis;
+        @Getter private final long retryAfterMillis;
+        @Getter private final boolean invalidWebhook;
+
+        public Result(int status, int remaining, long resetAfterMillis, long retryAfterMillis, boolean invalidWebhook) {
+            this.status = status;
+            this.remaining = remaining;
+            this.resetAfterMillis = resetAfterMillis;
+            this.retryAfterMillis = retryAfterMillis;
+            this.invalidWebhook = invalidWebhook;
+        }
+
+    }
+
+}
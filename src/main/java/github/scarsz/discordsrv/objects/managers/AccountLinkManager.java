@@ -26,6 +26,7 @@ import java.io.IOException;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Class for accessing and managing linked accounts.
@@ -53,6 +54,28 @@ public interface AccountLinkManager extends Listener {
      */
     UUID getUuid(String discordId);
 
+    /**
+     * Gets the Discord ID for a given player's linked account without blocking the calling thread.
+     *
+     * @param uuid the player's UUID
+     * @return a future completed with the player's linked account's Discord user id or {@code null}.
+     * @see #getDiscordId(UUID)
+     */
+    default CompletableFuture<String> getDiscordIdAsync(UUID uuid) {
+        return CompletableFuture.completedFuture(getDiscordId(uuid));
+    }
+
+    /**
+     * Gets the Minecraft uuid for a given user's linked account without blocking the calling thread.
+     *
+     * @param discordId the Discord user's id.
+     * @return a future completed with the user's linked account's uuid or {@code null}.
+     * @see #getUuid(String)
+     */
+    default CompletableFuture<UUID> getUuidAsync(String discordId) {
+        return CompletableFuture.completedFuture(getUuid(discordId));
+    }
+
     /**
      * Gets the amount of linked accounts. This is kept in memory and is recommended over doing {@code getLinkedAccounts().size()}.
      *
@@ -80,6 +103,28 @@ public interface AccountLinkManager extends Listener {
      */
     Map<String, UUID> getManyUuids(Set<String> discordIds);
 
+    /**
+     * Gets multiple Discord id's for multiple uuids at once without blocking the calling thread.
+     *
+     * @param uuids the set of Minecraft player uuids.
+     * @return a future completed with the map of UUID-Discord id pairs
+     * @see #getManyDiscordIds(Set)
+     */
+    default CompletableFuture<Map<UUID, String>> getManyDiscordIdsAsync(Set<UUID> uuids) {
+        return CompletableFuture.completedFuture(getManyDiscordIds(uuids));
+    }
+
+    /**
+     * Gets multiple player uuid's for multiple Discord user ids at once without blocking the calling thread.
+     *
+     * @param discordIds the set of Discord user ids.
+     * @return a future completed with the map of Discord id-UUID pairs
+     * @see #getManyUuids(Set)
+     */
+    default CompletableFuture<Map<String, UUID>> getManyUuidsAsync(Set<String> discordIds) {
+        return CompletableFuture.completedFuture(getManyUuids(discordIds));
+    }
+
     /**
      * Gets all linked accounts.
      *
@@ -20,10 +20,12 @@
 
 package github.scarsz.discordsrv.objects.managers;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.objects.ExpiringDualHashBidiMap;
 import github.scarsz.discordsrv.util.*;
+import lombok.Getter;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
@@ -48,21 +50,25 @@ import org.bukkit.plugin.RegisteredServiceProvider;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class GroupSynchronizationManager extends ListenerAdapter implements Listener {
 
+    // the most members a single gateway member chunk request is allowed to ask for
+    private static final int MEMBER_CHUNK_SIZE = 100;
+
     private final AtomicInteger synchronizationCount = new AtomicInteger(0);
-    private final Map<Member, Map.Entry<Guild, Map<String, Set<Role>>>> justModifiedRoles = new HashMap<>();
+    private final Map<Member, Map.Entry<Guild, Map<String, Set<Role>>>> justModifiedRoles = new ConcurrentHashMap<>();
     // expiring just incase, so it doesn't stick around (avoiding memory leaks)
     private final Map<UUID, Map<String, List<String>>> justModifiedGroups =
             new ExpiringDualHashBidiMap<>(TimeUnit.MINUTES.toMillis(1));
     private final Map<String, Set<String>> membersNotInGuilds = new ConcurrentHashMap<>();
+    @Getter private volatile ResyncProgress resyncProgress = null;
 
     @Deprecated
     public void resync() {
@@ -108,7 +114,7 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
     public void resync(SyncDirection direction, SyncCause cause) {
         if (getPermissions() == null) return;
 
-        Set<OfflinePlayer> players = new HashSet<>(PlayerUtil.getOnlinePlayers());
+        Set<OfflinePlayer> players = new HashSet<>(PlayerUtil.getOnlinePlayerSnapshot());
 
         if (DiscordSRV.config().getBoolean("GroupRoleSynchronizationCycleCompletely")) {
             // synchronize everyone in the connected discord servers
@@ -147,6 +153,13 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
     }
 
     public void resync(OfflinePlayer player, SyncDirection direction, boolean addLinkedRole, SyncCause cause) {
+        resync(player, direction, addLinkedRole, cause, Collections.emptyMap());
+    }
+
+    /**
+     * @param prefetchedMembers members that were already retrieved from Discord, by guild id &amp; user id
+     */
+    private void resync(OfflinePlayer player, SyncDirection direction, boolean addLinkedRole, SyncCause cause, Map<String, Map<String, Member>> prefetchedMembers) {
         if (player == null) return;
         if (getPermissions() == null) {
             DiscordSRV.debug(Debug.GROUP_SYNC, "Can't synchronize groups/roles for " + player.getName() + ", permissions provider is null");
@@ -181,6 +194,8 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
         List<String> groupsDeniedByPermission = new ArrayList<>();
 
         Map<Guild, Map<String, Set<Role>>> roleChanges = new HashMap<>();
+        Map<Guild, Member> members = new HashMap<>();
+        String[] playerGroups = null;
 
         // Check if Minecraft or Discord is strictly authoritative.
         boolean oneWaySynchronisation = DiscordSRV.config().getBoolean("GroupRoleSynchronizationOneWay");
@@ -214,40 +229,47 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
             Guild guild = role.getGuild();
 
             // get the member, from cache if it's there otherwise from Discord
-            Set<String> membersNotInGuild = membersNotInGuilds.computeIfAbsent(guild.getId(), key -> new HashSet<>());
+            Set<String> membersNotInGuild = membersNotInGuilds.computeIfAbsent(guild.getId(), key -> ConcurrentHashMap.newKeySet());
             if (guild.getMember(user) != null) membersNotInGuild.remove(user.getId()); // is in cache, so is in the server too
             if (membersNotInGuild.contains(user.getId())) {
                 synchronizationSummary.add("Tried to sync role " + role + " but the user wasn't a member in the guild the role is in (cached)");
                 continue;
             }
 
-            Member member;
-            try {
-                member = guild.retrieveMember(user, false).complete();
-            } catch (ErrorResponseException e) {
-                if (e.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER) {
-                    membersNotInGuild.add(user.getId());
-                    synchronizationSummary.add("Tried to sync role " + role + " but the user wasn't a member in the guild the role is in (Discord response)");
+            Member member = members.get(guild);
+            if (member == null) member = prefetchedMembers.getOrDefault(guild.getId(), Collections.emptyMap()).get(user.getId());
+            if (member == null) {
+                try {
+                    member = guild.retrieveMember(user, false).complete();
+                } catch (ErrorResponseException e) {
+                    if (e.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER) {
+                        membersNotInGuild.add(user.getId());
+                        synchronizationSummary.add("Tried to sync role " + role + " but the user wasn't a member in the guild the role is in (Discord response)");
+                        continue;
+                    }
+                    DiscordSRV.error(e);
                     continue;
                 }
-                DiscordSRV.error(e);
-                continue;
             }
             if (member == null) {
                 // this is treated below as if they do not have the role
                 synchronizationSummary.add("Tried to sync " + role + " but could not find " + user + " in the role's Discord server, treating it as if they don't have the role");
+            } else {
+                members.put(guild, member);
             }
 
-            String[] playerGroups;
-            try {
-                playerGroups = getPermissions().getPlayerGroups(null, player);
-                if (playerGroups == null) {
-                    synchronizationSummary.add("Tried to sync {" + role + ":" + groupName + "} but Vault returned null as the player's groups (Player is " + (player.isOnline() ? "online" : "offline") + ")");
+            if (playerGroups == null) {
+                // the player's groups don't change between roles, only ask Vault once
+                try {
+                    playerGroups = getPermissions().getPlayerGroups(null, player);
+                    if (playerGroups == null) {
+                        synchronizationSummary.add("Tried to sync {" + role + ":" + groupName + "} but Vault returned null as the player's groups (Player is " + (player.isOnline() ? "online" : "offline") + ")");
+                        continue;
+                    }
+                } catch (Throwable t) {
+                    vaultError("Could not get player's groups", t);
                     continue;
                 }
-            } catch (Throwable t) {
-                vaultError("Could not get player's groups", t);
-                continue;
             }
 
             boolean primaryGroupOnly = DiscordSRV.config().getBoolean("GroupRoleSynchronizationPrimaryGroupOnly");
@@ -303,7 +325,10 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
                     synchronizationSummary.add("{" + groupName + ":" + role + "} removes Discord role");
                 } else {
                     boolean luckPerms = PluginUtil.pluginHookIsEnabled("LuckPerms");
-                    List<String> additions = justModifiedGroups.computeIfAbsent(player.getUniqueId(), key -> new HashMap<>()).computeIfAbsent("add", key -> new ArrayList<>());
+                    List<String> additions;
+                    synchronized (justModifiedGroups) {
+                        additions = justModifiedGroups.computeIfAbsent(player.getUniqueId(), key -> new HashMap<>()).computeIfAbsent("add", key -> new ArrayList<>());
+                    }
                     Runnable runnable = () -> {
                         try {
                             String[] serverGroups = getPermissions().getGroups();
@@ -335,7 +360,10 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
                     synchronizationSummary.add("{" + groupName + ":" + role + "} adds Discord role");
                 } else {
                     boolean luckPerms = PluginUtil.pluginHookIsEnabled("LuckPerms");
-                    List<String> removals = justModifiedGroups.computeIfAbsent(player.getUniqueId(), key -> new HashMap<>()).computeIfAbsent("remove", key -> new ArrayList<>());
+                    List<String> removals;
+                    synchronized (justModifiedGroups) {
+                        removals = justModifiedGroups.computeIfAbsent(player.getUniqueId(), key -> new HashMap<>()).computeIfAbsent("remove", key -> new ArrayList<>());
+                    }
                     Runnable runnable = () -> {
                         try {
                             if (getPermissions().playerInGroup(null, player, groupName)) {
@@ -390,7 +418,7 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
 
         for (Map.Entry<Guild, Map<String, Set<Role>>> guildEntry : roleChanges.entrySet()) {
             Guild guild = guildEntry.getKey();
-            Member member = guild.getMember(user);
+            Member member = members.containsKey(guild) ? members.get(guild) : guild.getMember(user);
             Set<Role> add = guildEntry.getValue().getOrDefault("add", Collections.emptySet());
             Set<Role> remove = guildEntry.getValue().getOrDefault("remove", Collections.emptySet());
 
@@ -439,7 +467,7 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
                 }
             }
 
-            Iterator<Role> removeIterator = add.iterator();
+            Iterator<Role> removeIterator = remove.iterator();
             while (removeIterator.hasNext()) {
                 Role role = removeIterator.next();
                 if (!selfMember.canInteract(role)) {
@@ -458,6 +486,9 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
                 );
             }
 
+            if (add.isEmpty() && remove.isEmpty()) continue;
+
+            // every change for this member in this guild goes out as a single request
             guild.modifyMemberRoles(member, add, remove).reason("DiscordSRV synchronization").queue(
                     v -> DiscordSRV.debug(Debug.GROUP_SYNC, "Synchronization #" + id + " for {" + player.getName() + ":" + member + "} successful in " + guild + ": {add=" + add + ", remove=" + remove + "}"),
                     t -> DiscordSRV.debug(Debug.GROUP_SYNC, "Synchronization #" + id + " for {" + player.getName() + ":" + member + "} failed in " + guild + ": " + ExceptionUtils.getStackTrace(t)));
@@ -481,36 +512,112 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
     public void resyncEveryone(SyncCause cause) {
         resyncEveryone(SyncDirection.AUTHORITATIVE, cause);
     }
-    @SuppressWarnings("ConstantConditions") // I'm tired of hearing this
+
     public void resyncEveryone(SyncDirection direction, SyncCause cause) {
-        Set<OfflinePlayer> players = new HashSet<>();
+        resyncEveryone(direction, cause, null);
+    }
+
+    /**
+     * Synchronize everyone with a linked account that has played on the server or is in one of the connected
+     * Discord servers, spread over {@code GroupRoleSynchronizationResyncThreads} worker threads. Blocks until done.
+     * @param progressCallback called every {@code GroupRoleSynchronizationResyncProgressInterval} seconds while running, may be null
+     */
+    @SuppressWarnings("ConstantConditions") // I'm tired of hearing this
+    public void resyncEveryone(SyncDirection direction, SyncCause cause, Consumer<ResyncProgress> progressCallback) {
+        AccountLinkManager accountLinkManager = DiscordSRV.getPlugin().getAccountLinkManager();
+        Map<UUID, String> linkedPlayers = new HashMap<>();
 
         // synchronize everyone with a linked account that's played on the server
-        DiscordSRV.getPlugin().getAccountLinkManager().getManyDiscordIds(Arrays.stream(Bukkit.getOfflinePlayers())
+        linkedPlayers.putAll(accountLinkManager.getManyDiscordIds(Arrays.stream(Bukkit.getOfflinePlayers())
                 .map(OfflinePlayer::getUniqueId)
                 .collect(Collectors.toSet())
-        ).keySet().stream()
-                .map(Bukkit::getOfflinePlayer)
-                .filter(Objects::nonNull)
-                .forEach(players::add);
+        ));
 
         // synchronize everyone with a linked account in the connected discord servers
-        Map<String, UUID> linkedDiscords = DiscordSRV.getPlugin().getAccountLinkManager().getManyUuids(
+        Map<String, UUID> linkedDiscords = accountLinkManager.getManyUuids(
                 DiscordUtil.getJda().getGuilds().stream()
                         .flatMap(guild -> guild.getMembers().stream())
                         .map(ISnowflake::getId)
                         .collect(Collectors.toSet())
         );
-        DiscordUtil.getJda().getGuilds().stream()
-                .flatMap(guild -> guild.getMembers().stream())
-                .filter(member -> linkedDiscords.containsKey(member.getId()))
-                .map(member -> linkedDiscords.get(member.getId()))
-                .filter(Objects::nonNull)
-                .map(Bukkit::getOfflinePlayer)
+        linkedDiscords.forEach((discordId, uuid) -> {
+            if (uuid != null) linkedPlayers.put(uuid, discordId);
+        });
+
+        ResyncProgress progress = new ResyncProgress(linkedPlayers.size());
+        resyncProgress = progress;
+        Map<String, Map<String, Member>> prefetchedMembers = prefetchMembers(linkedPlayers.values());
+
+        int threads = Math.max(1, DiscordSRV.config().getIntElse("GroupRoleSynchronizationResyncThreads", 4));
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactoryBuilder().setNameFormat("DiscordSRV - Group Resync %d").setDaemon(true).build());
+        try {
+            for (UUID uuid : linkedPlayers.keySet()) {
+                executor.execute(() -> {
+                    try {
+                        resync(Bukkit.getOfflinePlayer(uuid), direction, false, cause, prefetchedMembers);
+                    } catch (Throwable t) {
+                        progress.failed.incrementAndGet();
+                        DiscordSRV.error("Failed to synchronize " + uuid + " during a full resync", t);
+                    } finally {
+                        progress.completed.incrementAndGet();
+                    }
+                });
+            }
+            executor.shutdown();
+
+            long interval = Math.max(1, DiscordSRV.config().getIntElse("GroupRoleSynchronizationResyncProgressInterval", 10));
+            while (!executor.awaitTermination(interval, TimeUnit.SECONDS)) {
+                DiscordSRV.debug(Debug.GROUP_SYNC, "Full resync progress: " + progress);
+                if (progressCallback != null) progressCallback.accept(progress);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            progress.finished = System.currentTimeMillis();
+        }
+        DiscordSRV.debug(Debug.GROUP_SYNC, "Full resync finished: " + progress);
+    }
+
+    /**
+     * Retrieve the members for the given users that aren't cached from every guild with synchronized roles,
+     * using gateway member chunk requests instead of a REST request per user
+     * @return the retrieved members by guild id &amp; user id
+     */
+    private Map<String, Map<String, Member>> prefetchMembers(Collection<String> discordIds) {
+        Map<String, Map<String, Member>> members = new HashMap<>();
+
+        Set<Guild> guilds = DiscordSRV.getPlugin().getGroupSynchronizables().values().stream()
+                .map(DiscordUtil::getRole)
                 .filter(Objects::nonNull)
-                .forEach(players::add);
+                .map(Role::getGuild)
+                .collect(Collectors.toSet());
+        for (Guild guild : guilds) {
+            Set<String> membersNotInGuild = membersNotInGuilds.computeIfAbsent(guild.getId(), key -> ConcurrentHashMap.newKeySet());
+            List<String> missing = discordIds.stream()
+                    .filter(id -> guild.getMemberById(id) == null)
+                    .filter(id -> !membersNotInGuild.contains(id))
+                    .collect(Collectors.toList());
+            if (missing.isEmpty()) continue;
+
+            Map<String, Member> guildMembers = members.computeIfAbsent(guild.getId(), key -> new ConcurrentHashMap<>());
+            for (int i = 0; i < missing.size(); i += MEMBER_CHUNK_SIZE) {
+                List<String> chunk = missing.subList(i, Math.min(i + MEMBER_CHUNK_SIZE, missing.size()));
+                try {
+                    for (Member member : guild.retrieveMembersByIds(chunk.toArray(new String[0])).get()) guildMembers.put(member.getId(), member);
+                } catch (Throwable t) {
+                    // the workers will fall back to retrieving them one by one
+                    DiscordSRV.debug(Debug.GROUP_SYNC, "Failed to retrieve " + chunk.size() + " members from " + guild + ": " + ExceptionUtils.getMessage(t));
+                    continue;
+                }
+                for (String id : chunk) {
+                    if (!guildMembers.containsKey(id)) membersNotInGuild.add(id);
+                }
+            }
+            DiscordSRV.debug(Debug.GROUP_SYNC, "Retrieved " + guildMembers.size() + " of " + missing.size() + " uncached members from " + guild + " for full resync");
+        }
 
-        players.forEach(player -> resync(player, direction, cause));
+        return members;
     }
 
     public void removeSynchronizables(OfflinePlayer player) {
@@ -572,12 +679,12 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
 
     @Override
     public void onGuildMemberJoin(@NotNull GuildMemberJoinEvent event) {
-        membersNotInGuilds.computeIfAbsent(event.getGuild().getId(), key -> new HashSet<>()).remove(event.getMember().getId());
+        membersNotInGuilds.computeIfAbsent(event.getGuild().getId(), key -> ConcurrentHashMap.newKeySet()).remove(event.getMember().getId());
     }
 
     @Override
     public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event) {
-        membersNotInGuilds.computeIfAbsent(event.getGuild().getId(), key -> new HashSet<>()).add(event.getUser().getId());
+        membersNotInGuilds.computeIfAbsent(event.getGuild().getId(), key -> ConcurrentHashMap.newKeySet()).add(event.getUser().getId());
     }
 
     @Override
@@ -695,6 +802,52 @@ public class GroupSynchronizationManager extends ListenerAdapter implements List
         }
     }
 
+    public static class ResyncProgress {
+
+        @Getter private final int total;
+        @Getter private final long started = System.currentTimeMillis();
+        private final AtomicInteger completed = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private volatile long finished = -1;
+
+        private ResyncProgress(int total) {
+            this.total = total;
+        }
+
+        public int getCompleted() {
+            return completed.get();
+        }
+
+        public int getFailed() {
+            return failed.get();
+        }
+
+        public boolean isFinished() {
+            return finished != -1;
+        }
+
+        public long getElapsedMillis() {
+            return (isFinished() ? finished : System.currentTimeMillis()) - started;
+        }
+
+        /**
+         * @return the amount of players synchronized per second
+         */
+        public double getThroughput() {
+            long elapsed = getElapsedMillis();
+            return elapsed > 0 ? getCompleted() * 1000D / elapsed : 0;
+        }
+
+        @Override
+        public String toString() {
+            return getCompleted() + "/" + total + " players (" + (total > 0 ? getCompleted() * 100 / total : 100) + "%)"
+                    + (getFailed() > 0 ? ", " + getFailed() + " failed" : "")
+                    + ", " + String.format("%.1f", getThroughput()) + " players/s"
+                    + ", " + TimeUnit.MILLISECONDS.toSeconds(getElapsedMillis()) + "s elapsed";
+        }
+
+    }
+
     public enum SyncDirection {
 
         TO_MINECRAFT("to Minecraft"),
@@ -24,6 +24,7 @@ import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.api.events.AccountLinkedEvent;
 import github.scarsz.discordsrv.api.events.AccountUnlinkedEvent;
+import github.scarsz.discordsrv.objects.LinkedMemberCachePolicy;
 import github.scarsz.discordsrv.objects.managers.AccountLinkManager;
 import github.scarsz.discordsrv.objects.managers.GroupSynchronizationManager;
 import github.scarsz.discordsrv.util.DiscordUtil;
@@ -31,6 +32,7 @@ import github.scarsz.discordsrv.util.PluginUtil;
 import github.scarsz.discordsrv.util.PrettyUtil;
 import github.scarsz.discordsrv.util.SchedulerUtil;
 import lombok.Getter;
+import net.dv8tion.jda.api.entities.Guild;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.User;
@@ -87,6 +89,9 @@ public abstract class AbstractAccountLinkManager implements AccountLinkManager {
     }
 
     protected void afterLink(String discordId, UUID uuid) {
+        LinkedMemberCachePolicy memberCachePolicy = DiscordSRV.getPlugin().getLinkedMemberCachePolicy();
+        if (memberCachePolicy != null) memberCachePolicy.link(discordId);
+
         // call link event
         DiscordSRV.api.callEvent(new AccountLinkedEvent(DiscordUtil.getUserById(discordId), uuid));
 
@@ -129,6 +134,12 @@ public abstract class AbstractAccountLinkManager implements AccountLinkManager {
                     Member member = roleToAdd.getGuild().getMemberById(discordId);
                     if (member != null) {
                         DiscordUtil.addRoleToMember(member, roleToAdd);
+                    } else if (memberCachePolicy != null) {
+                        // only linked members are cached, this one may not have been retrieved yet
+                        roleToAdd.getGuild().retrieveMemberById(discordId).queue(
+                                retrieved -> DiscordUtil.addRoleToMember(retrieved, roleToAdd),
+                                throwable -> DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Couldn't find member for " + offlinePlayer.getName() + " in " + roleToAdd.getGuild())
+                        );
                     } else {
                         DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Couldn't find member for " + offlinePlayer.getName() + " in " + roleToAdd.getGuild());
                     }
@@ -142,7 +153,16 @@ public abstract class AbstractAccountLinkManager implements AccountLinkManager {
 
         // set user's discord nickname as their in-game name
         if (DiscordSRV.config().getBoolean("NicknameSynchronizationEnabled")) {
-            DiscordSRV.getPlugin().getNicknameUpdater().setNickname(DiscordUtil.getMemberById(discordId), offlinePlayer);
+            Member member = DiscordUtil.getMemberById(discordId);
+            Guild mainGuild = DiscordSRV.getPlugin().getMainGuild();
+            if (member == null && memberCachePolicy != null && mainGuild != null) {
+                mainGuild.retrieveMemberById(discordId).queue(
+                        retrieved -> DiscordSRV.getPlugin().getNicknameUpdater().setNickname(retrieved, offlinePlayer),
+                        throwable -> DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Couldn't find member for " + offlinePlayer.getName() + " in " + mainGuild + " to set their nickname")
+                );
+            } else {
+                DiscordSRV.getPlugin().getNicknameUpdater().setNickname(member, offlinePlayer);
+            }
         }
     }
 
@@ -204,6 +224,9 @@ public abstract class AbstractAccountLinkManager implements AccountLinkManager {
         if (player != null) {
             DiscordSRV.getPlugin().getRequireLinkModule().noticePlayerUnlink(player);
         }
+
+        LinkedMemberCachePolicy memberCachePolicy = DiscordSRV.getPlugin().getLinkedMemberCachePolicy();
+        if (memberCachePolicy != null) memberCachePolicy.unlink(discordId);
     }
 
 }
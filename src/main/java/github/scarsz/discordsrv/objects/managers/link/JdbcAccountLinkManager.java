@@ -20,6 +20,7 @@
 
 package github.scarsz.discordsrv.objects.managers.link;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.objects.ExpiringDualHashBidiMap;
@@ -38,8 +39,7 @@ import org.bukkit.event.player.PlayerQuitEvent;
 import java.io.File;
 import java.sql.*;
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.*;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -50,8 +50,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
     private final static Pattern JDBC_PATTERN = Pattern.compile("^(?<proto>\\w+):(?<engine>\\w+)://(?<host>.+?)(:(?<port>\\d{1,5}|PORT))?/(?<name>\\w+)\\??(?<params>.+)$");
     private final static long EXPIRY_TIME_ONLINE = TimeUnit.MINUTES.toMillis(3);
 
-    private final Connection connection;
-    private final String database;
+    private final JdbcConnectionPool pool;
+    private final ThreadPoolExecutor lookupExecutor;
     private final String accountsTable;
     private final String codesTable;
 
@@ -120,32 +120,71 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         if (StringUtils.isNotBlank(jdbcUsername)) properties.put("user", jdbcUsername);
         if (StringUtils.isNotBlank(jdbcPassword)) properties.put("password", jdbcPassword);
 
-        Connection conn;
+        int poolSize = Math.max(1, DiscordSRV.config().getIntElse("Experiment_JdbcPoolSize", 4));
+        this.pool = new JdbcConnectionPool(() -> connect(jdbc, properties), poolSize, 10, TimeUnit.SECONDS);
+        // lookups never need more threads than there are connections to run them on
+        this.lookupExecutor = new ThreadPoolExecutor(poolSize, poolSize, 30, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+                new ThreadFactoryBuilder().setNameFormat("DiscordSRV - Account Link Lookup %d").setDaemon(true).build());
+        this.lookupExecutor.allowCoreThreadTimeOut(true);
+
+        String tablePrefix = DiscordSRV.config().getString("Experiment_JdbcTablePrefix");
+        if (StringUtils.isBlank(tablePrefix)) tablePrefix = ""; else tablePrefix += "_";
+        accountsTable = tablePrefix + "accounts";
+        codesTable = tablePrefix + "codes";
+
+        try (Connection connection = pool.getConnection()) {
+            validateTables(connection);
+        } catch (SQLException | RuntimeException e) {
+            close();
+            throw e;
+        }
+
+        DiscordSRV.info("JDBC tables passed validation, using JDBC account backend");
+
+        SchedulerUtil.runTaskTimerAsynchronously(DiscordSRV.getPlugin(), () -> {
+            long currentTime = System.currentTimeMillis();
+            for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
+                UUID uuid = onlinePlayer.getUniqueId();
+                if (!cache.containsKey(uuid) || cache.getExpiryTime(uuid) - TimeUnit.SECONDS.toMillis(30) < currentTime) {
+                    putExpiring(uuid, getDiscordIdBypassCache(uuid), currentTime + EXPIRY_TIME_ONLINE);
+                }
+            }
+
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement(
+                    "select COUNT(*) as accountcount from " + accountsTable + ";")) {
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    if (resultSet.next()) {
+                        count = resultSet.getInt("accountcount");
+                    }
+                }
+            } catch (SQLException t) {
+                t.printStackTrace();
+            }
+        }, 1L, 200L);
+    }
+
+    private static Connection connect(String jdbc, Properties properties) throws SQLException {
         try {
             // new driver
             Class.forName("com.mysql.cj.jdbc.NonRegisteringDriver");
-            conn = new com.mysql.cj.jdbc.NonRegisteringDriver().connect(jdbc, properties);
+            return new com.mysql.cj.jdbc.NonRegisteringDriver().connect(jdbc, properties);
         } catch (ClassNotFoundException ignored) {
             // old driver
             try {
                 Class<?> driverClass = Class.forName("com.mysql.jdbc.Driver");
                 Object driver = driverClass.getDeclaredConstructor().newInstance();
                 // We have to do this via reflection because Paper's plugin mapping loads all referenced classes...
-                conn = (Connection) driverClass
+                return (Connection) driverClass
                         .getMethod("connect", String.class, Properties.class)
                         .invoke(driver, jdbc, properties);
             } catch (ReflectiveOperationException e) {
                 throw new RuntimeException("Failed to connect with old MySQL driver", e);
             }
         }
-        this.connection = conn;
-
-        database = connection.getCatalog();
-        String tablePrefix = DiscordSRV.config().getString("Experiment_JdbcTablePrefix");
-        if (StringUtils.isBlank(tablePrefix)) tablePrefix = ""; else tablePrefix += "_";
-        accountsTable = tablePrefix + "accounts";
-        codesTable = tablePrefix + "codes";
+    }
 
+    private void validateTables(Connection connection) throws SQLException {
         if (SQLUtil.checkIfTableExists(connection, accountsTable)) {
             Map<String, String> expected = new HashMap<>();
             expected.put("discord", "varchar(32)");
@@ -191,29 +230,6 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
                 statement.executeUpdate();
             }
         }
-
-        DiscordSRV.info("JDBC tables passed validation, using JDBC account backend");
-
-        SchedulerUtil.runTaskTimerAsynchronously(DiscordSRV.getPlugin(), () -> {
-            long currentTime = System.currentTimeMillis();
-            for (Player onlinePlayer : Bukkit.getOnlinePlayers()) {
-                UUID uuid = onlinePlayer.getUniqueId();
-                if (!cache.containsKey(uuid) || cache.getExpiryTime(uuid) - TimeUnit.SECONDS.toMillis(30) < currentTime) {
-                    putExpiring(uuid, getDiscordIdBypassCache(uuid), currentTime + EXPIRY_TIME_ONLINE);
-                }
-            }
-
-            try (final PreparedStatement statement = connection.prepareStatement(
-                    "select COUNT(*) as accountcount from " + accountsTable + ";")) {
-                try (ResultSet resultSet = statement.executeQuery()) {
-                    if (resultSet.next()) {
-                        count = resultSet.getInt("accountcount");
-                    }
-                }
-            } catch (SQLException t) {
-                t.printStackTrace();
-            }
-        }, 1L, 200L);
     }
 
     public void migrateFile() {
@@ -225,22 +241,23 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
                     Map<String, UUID> accounts = new AppendOnlyFileAccountLinkManager().getLinkedAccounts();
                     File importFile = new File(accountsFile.getParentFile(), "accounts.aof.imported");
                     if (!accountsFile.renameTo(importFile)) throw new RuntimeException("Failed to move accounts file to " + importFile.getName());
-                    connection.setAutoCommit(false);
+                    // unlink before borrowing the import connection, unlinking needs a connection of its own
                     for (Map.Entry<String, UUID> entry : accounts.entrySet()) {
-                        String discord = entry.getKey();
-                        UUID uuid = entry.getValue();
-
-                        unlink(discord);
-                        unlink(uuid);
-
-                        try (final PreparedStatement statement = connection.prepareStatement("insert into " + accountsTable + " (discord, uuid) VALUES (?, ?)")) {
-                            statement.setString(1, discord);
-                            statement.setString(2, uuid.toString());
-                            statement.executeUpdate();
+                        unlink(entry.getKey());
+                        unlink(entry.getValue());
+                    }
+                    try (Connection connection = pool.getConnection()) {
+                        connection.setAutoCommit(false);
+                        for (Map.Entry<String, UUID> entry : accounts.entrySet()) {
+                            try (final PreparedStatement statement = connection.prepareStatement("insert into " + accountsTable + " (discord, uuid) VALUES (?, ?)")) {
+                                statement.setString(1, entry.getKey());
+                                statement.setString(2, entry.getValue().toString());
+                                statement.executeUpdate();
+                            }
                         }
+                        DiscordSRV.info("Imported " + accounts.size() + " accounts to JDBC, committing...");
+                        connection.commit(); // commit all changes at once
                     }
-                    DiscordSRV.info("Imported " + accounts.size() + " accounts to JDBC, committing...");
-                    connection.setAutoCommit(true); // commit all changes at once
                     DiscordSRV.info("Finished importing accounts to JDBC backend");
                 } else {
                     if (!accountsFile.delete()) {
@@ -258,7 +275,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
     }
 
     private void dropExpiredCodes() {
-        try (final PreparedStatement statement = connection.prepareStatement("delete from " + codesTable + " where `expiration` < ?")) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("delete from " + codesTable + " where `expiration` < ?")) {
             statement.setLong(1, System.currentTimeMillis());
             statement.executeUpdate();
         } catch (SQLException e) {
@@ -273,7 +291,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
 
         Map<String, UUID> codes = new HashMap<>();
 
-        try (final PreparedStatement statement = connection.prepareStatement("select * from " + codesTable)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select * from " + codesTable)) {
             try (final ResultSet result = statement.executeQuery()) {
                 while (result.next()) {
                     codes.put(result.getString("code"), UUID.fromString(result.getString("uuid")));
@@ -291,7 +310,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         ensureOffThread(false);
         Map<String, UUID> accounts = new HashMap<>();
 
-        try (final PreparedStatement statement = connection.prepareStatement("select * from " + accountsTable)) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select * from " + accountsTable)) {
             try (final ResultSet result = statement.executeQuery()) {
                 while (result.next()) {
                     accounts.put(result.getString("discord"), UUID.fromString(result.getString("uuid")));
@@ -318,7 +338,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
     public String generateCode(UUID playerUuid) {
         // delete an already existing code if one exists
         if (getLinkingCodes().values().stream().anyMatch(playerUuid::equals)) {
-            try (final PreparedStatement statement = connection.prepareStatement("delete from " + codesTable + " where `uuid` = ?")) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("delete from " + codesTable + " where `uuid` = ?")) {
                 statement.setString(1, playerUuid.toString());
                 statement.executeUpdate();
             } catch (SQLException e) {
@@ -332,7 +353,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
             code = String.format("%04d", numbers);
         } while (getLinkingCodes().containsKey(code));
 
-        try (final PreparedStatement statement = connection.prepareStatement("insert into " + codesTable + " (`code`, `uuid`, `expiration`) VALUES (?, ?, ?)")) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into " + codesTable + " (`code`, `uuid`, `expiration`) VALUES (?, ?, ?)")) {
             statement.setString(1, code);
             statement.setString(2, playerUuid.toString());
             statement.setLong(3, System.currentTimeMillis() + TimeUnit.MINUTES.toMillis(5));
@@ -371,7 +393,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         if (uuid != null) {
             link(discordId, uuid);
 
-            try (final PreparedStatement statement = connection.prepareStatement("delete from " + codesTable + " where `code` = ?")) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("delete from " + codesTable + " where `code` = ?")) {
                 statement.setString(1, code);
                 statement.executeUpdate();
             } catch (SQLException e) {
@@ -417,7 +440,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
     @Override
     public String getDiscordIdBypassCache(UUID uuid) {
         String discordId = null;
-        try (final PreparedStatement statement = connection.prepareStatement("select discord from " + accountsTable + " where uuid = ?")) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select discord from " + accountsTable + " where uuid = ?")) {
             statement.setString(1, uuid.toString());
             try (final ResultSet result = statement.executeQuery()) {
                 if (result.next()) {
@@ -430,29 +454,40 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         return discordId;
     }
 
+    @Override
+    public CompletableFuture<String> getDiscordIdAsync(UUID uuid) {
+        synchronized (cache) {
+            if (cache.containsKey(uuid)) return CompletableFuture.completedFuture(cache.get(uuid));
+        }
+        return CompletableFuture.supplyAsync(() -> getDiscordId(uuid), lookupExecutor);
+    }
+
+    @Override
+    public CompletableFuture<Map<UUID, String>> getManyDiscordIdsAsync(Set<UUID> uuids) {
+        return CompletableFuture.supplyAsync(() -> getManyDiscordIds(uuids), lookupExecutor);
+    }
+
     @Override
     public Map<UUID, String> getManyDiscordIds(Set<UUID> uuids) {
         ensureOffThread(false);
         Map<UUID, String> results = new HashMap<>();
 
-        try {
-            Array uuidArray = connection.createArrayOf("varchar", uuids.toArray(new UUID[0]));
-            try (final PreparedStatement statement = connection.prepareStatement("select uuid, discord from " + accountsTable + " where uuid in (?)")) {
-                statement.setArray(1, uuidArray);
-                try (final ResultSet result = statement.executeQuery()) {
-                    while (result.next()) {
-                        UUID uuid = UUID.fromString(result.getString("uuid"));
-                        String discordId = result.getString("discord");
-                        results.put(uuid, discordId);
+        try (Connection connection = pool.getConnection()) {
+            try {
+                Array uuidArray = connection.createArrayOf("varchar", uuids.toArray(new UUID[0]));
+                try (final PreparedStatement statement = connection.prepareStatement("select uuid, discord from " + accountsTable + " where uuid in (?)")) {
+                    statement.setArray(1, uuidArray);
+                    try (final ResultSet result = statement.executeQuery()) {
+                        while (result.next()) {
+                            UUID uuid = UUID.fromString(result.getString("uuid"));
+                            String discordId = result.getString("discord");
+                            results.put(uuid, discordId);
+                        }
                     }
                 }
-            } catch (SQLException e) {
-                DiscordSRV.error(e);
-            }
-        } catch (SQLFeatureNotSupportedException e) {
-            try {
-                for (UUID uuid : uuids) {
-                    try (final PreparedStatement statement = connection.prepareStatement("select discord from " + accountsTable + " where uuid = ?")) {
+            } catch (SQLFeatureNotSupportedException e) {
+                try (final PreparedStatement statement = connection.prepareStatement("select discord from " + accountsTable + " where uuid = ?")) {
+                    for (UUID uuid : uuids) {
                         statement.setString(1, uuid.toString());
                         try (final ResultSet result = statement.executeQuery()) {
                             while (result.next()) {
@@ -462,8 +497,6 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
                         }
                     }
                 }
-            } catch (SQLException e2) {
-                DiscordSRV.error(e2);
             }
         } catch (SQLException e) {
             DiscordSRV.error(e);
@@ -485,6 +518,14 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         return uuid;
     }
 
+    @Override
+    public CompletableFuture<UUID> getUuidAsync(String discordId) {
+        synchronized (cache) {
+            if (cache.containsValue(discordId)) return CompletableFuture.completedFuture(cache.getKey(discordId));
+        }
+        return CompletableFuture.supplyAsync(() -> getUuid(discordId), lookupExecutor);
+    }
+
     @Override
     public int getLinkedAccountCount() {
         return count;
@@ -493,7 +534,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
     @Override
     public UUID getUuidBypassCache(String discordId) {
         UUID uuid = null;
-        try (final PreparedStatement statement = connection.prepareStatement("select uuid from " + accountsTable + " where discord = ?")) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("select uuid from " + accountsTable + " where discord = ?")) {
             statement.setString(1, discordId);
 
             try (final ResultSet result = statement.executeQuery()) {
@@ -522,32 +564,30 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         ensureOffThread(false);
         Map<String, UUID> results = new HashMap<>();
 
-        try {
-            Array discordIdArray = connection.createArrayOf("varchar", discordIds.toArray(new String[0]));
-            try (final PreparedStatement statement = connection.prepareStatement("select discord, uuid from " + accountsTable + " where discord in (?)")) {
-                statement.setArray(1, discordIdArray);
-                try (final ResultSet result = statement.executeQuery()) {
-                    while (result.next()) {
-                        String discordId = result.getString("discord");
-                        UUID uuid = UUID.fromString(result.getString("uuid"));
-                        results.put(discordId, uuid);
-                    }
-                }
-            } catch (SQLException e) {
-                DiscordSRV.error(e);
-            }
-        } catch (SQLFeatureNotSupportedException e) {
-            for (String discordId : discordIds) {
-                try (final PreparedStatement statement = connection.prepareStatement("select uuid from " + accountsTable + " where discord = ?")) {
-                    statement.setString(1, discordId);
+        try (Connection connection = pool.getConnection()) {
+            try {
+                Array discordIdArray = connection.createArrayOf("varchar", discordIds.toArray(new String[0]));
+                try (final PreparedStatement statement = connection.prepareStatement("select discord, uuid from " + accountsTable + " where discord in (?)")) {
+                    statement.setArray(1, discordIdArray);
                     try (final ResultSet result = statement.executeQuery()) {
                         while (result.next()) {
+                            String discordId = result.getString("discord");
                             UUID uuid = UUID.fromString(result.getString("uuid"));
                             results.put(discordId, uuid);
                         }
                     }
-                } catch (SQLException e2) {
-                    DiscordSRV.error(e2);
+                }
+            } catch (SQLFeatureNotSupportedException e) {
+                try (final PreparedStatement statement = connection.prepareStatement("select uuid from " + accountsTable + " where discord = ?")) {
+                    for (String discordId : discordIds) {
+                        statement.setString(1, discordId);
+                        try (final ResultSet result = statement.executeQuery()) {
+                            while (result.next()) {
+                                UUID uuid = UUID.fromString(result.getString("uuid"));
+                                results.put(discordId, uuid);
+                            }
+                        }
+                    }
                 }
             }
         } catch (SQLException e) {
@@ -557,6 +597,11 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         return results;
     }
 
+    @Override
+    public CompletableFuture<Map<String, UUID>> getManyUuidsAsync(Set<String> discordIds) {
+        return CompletableFuture.supplyAsync(() -> getManyUuids(discordIds), lookupExecutor);
+    }
+
     @Override
     public void link(String discordId, UUID uuid) {
         if (discordId.trim().isEmpty()) {
@@ -569,17 +614,19 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         unlink(discordId);
         unlink(uuid);
 
-        try (final PreparedStatement statement = connection.prepareStatement("insert into " + accountsTable + " (discord, uuid) VALUES (?, ?)")) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("insert into " + accountsTable + " (discord, uuid) VALUES (?, ?)")) {
             statement.setString(1, discordId);
             statement.setString(2, uuid.toString());
             statement.executeUpdate();
-
-            // put in cache so after link procedures will for sure have the links available
-            cache.put(uuid, discordId);
-            afterLink(discordId, uuid);
         } catch (SQLException e) {
             DiscordSRV.error(e);
+            return;
         }
+
+        // put in cache so after link procedures will for sure have the links available
+        cache.put(uuid, discordId);
+        afterLink(discordId, uuid);
     }
 
     @Override
@@ -589,7 +636,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         if (discord == null) return;
 
         beforeUnlink(uuid, discord);
-        try (final PreparedStatement statement = connection.prepareStatement("delete from " + accountsTable + " where `uuid` = ?")) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("delete from " + accountsTable + " where `uuid` = ?")) {
             statement.setString(1, uuid.toString());
             statement.executeUpdate();
         } catch (SQLException e) {
@@ -606,7 +654,8 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
         if (uuid == null) return;
 
         beforeUnlink(uuid, discordId);
-        try (final PreparedStatement statement = connection.prepareStatement("delete from " + accountsTable + " where `discord` = ?")) {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement statement = connection.prepareStatement("delete from " + accountsTable + " where `discord` = ?")) {
             statement.setString(1, discordId);
             statement.executeUpdate();
         } catch (SQLException e) {
@@ -618,13 +667,20 @@ public class JdbcAccountLinkManager extends AbstractAccountLinkManager {
 
     @Override
     public void save() {
+        // every statement is committed as it's executed, pooled connections are never left mid-transaction
+    }
+
+    /**
+     * Stop accepting async lookups and close all pooled connections
+     */
+    public void close() {
+        lookupExecutor.shutdown();
         try {
-            if (!connection.getAutoCommit()) {
-                connection.commit();
-            }
-        } catch (SQLException e) {
-            DiscordSRV.error(e);
+            if (!lookupExecutor.awaitTermination(5, TimeUnit.SECONDS)) lookupExecutor.shutdownNow();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        pool.close();
     }
 
     @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
@@ -0,0 +1,213 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.objects.managers.link;
+
+import github.scarsz.discordsrv.Debug;
+import github.scarsz.discordsrv.DiscordSRV;
+import lombok.Getter;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * <p>Small bounded pool of JDBC connections.</p>
+ * <p>Connections handed out by {@link #getConnection()} are returned to the pool when closed. Idle connections are
+ * validated before being reused and replaced by a new connection if the database dropped them.</p>
+ */
+public class JdbcConnectionPool implements AutoCloseable {
+
+    private static final long VALIDATE_AFTER_IDLE_MILLIS = TimeUnit.SECONDS.toMillis(1);
+    private static final int VALIDATION_TIMEOUT_SECONDS = 3;
+
+    private final Connector connector;
+    @Getter private final int size;
+    private final long timeoutMillis;
+    private final Semaphore permits;
+    private final BlockingDeque<IdleConnection> idle = new LinkedBlockingDeque<>();
+    private volatile boolean closed = false;
+
+    public JdbcConnectionPool(Connector connector, int size, long timeout, TimeUnit unit) {
+        if (size < 1) throw new IllegalArgumentException("Pool size must be at least 1");
+        this.connector = connector;
+        this.size = size;
+        this.timeoutMillis = unit.toMillis(timeout);
+        this.permits = new Semaphore(size, true);
+    }
+
+    /**
+     * Borrow a connection from the pool, opening a new one if no valid idle connection is available.
+     * The connection <b>must</b> be closed to return it to the pool.
+     * @return a connection to the database
+     * @throws SQLTimeoutException if all connections remained in use for the pool's timeout
+     * @throws SQLException if the pool is closed or connecting to the database failed
+     */
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool is closed");
+        try {
+            if (!permits.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new SQLTimeoutException("Timed out waiting for a JDBC connection, all " + size + " are in use");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a JDBC connection", e);
+        }
+
+        try {
+            IdleConnection candidate;
+            while ((candidate = idle.pollFirst()) != null) {
+                if (isUsable(candidate)) return wrap(candidate.connection);
+                DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Discarding broken JDBC connection, reconnecting");
+                closeQuietly(candidate.connection);
+            }
+            Connection connection = connector.connect();
+            if (connection == null) throw new SQLException("No driver accepted the JDBC url");
+            return wrap(connection);
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * @return the amount of connections currently borrowed from the pool
+     */
+    public int getActive() {
+        return size - permits.availablePermits();
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        IdleConnection candidate;
+        while ((candidate = idle.pollFirst()) != null) closeQuietly(candidate.connection);
+    }
+
+    private boolean isUsable(IdleConnection candidate) {
+        try {
+            if (candidate.connection.isClosed()) return false;
+            if (System.currentTimeMillis() - candidate.idleSince < VALIDATE_AFTER_IDLE_MILLIS) return true;
+            return candidate.connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void release(Connection connection) {
+        try {
+            if (connection.isClosed()) return;
+            if (!connection.getAutoCommit()) {
+                // don't leak half finished transactions into the next borrower
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (closed) {
+                connection.close();
+            } else {
+                // most recently used first, so surplus connections go idle and get validated when they come back
+                idle.offerFirst(new IdleConnection(connection, System.currentTimeMillis()));
+            }
+        } catch (SQLException e) {
+            DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Failed to return JDBC connection to the pool: " + e.getMessage());
+            closeQuietly(connection);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private Connection wrap(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(
+                JdbcConnectionPool.class.getClassLoader(),
+                new Class[] {Connection.class},
+                new PooledConnectionHandler(connection)
+        );
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException ignored) {}
+    }
+
+    @FunctionalInterface
+    public interface Connector {
+        Connection connect() throws SQLException;
+    }
+
+    private static class IdleConnection {
+
+        private final Connection connection;
+        private final long idleSince;
+
+        private IdleConnection(Connection connection, long idleSince) {
+            this.connection = connection;
+            this.idleSince = idleSince;
+        }
+
+    }
+
+    private class PooledConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+        private boolean returned = false;
+
+        private PooledConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(connection);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || connection.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Pooled" + connection;
+            }
+            if (returned) throw new SQLException("Connection was already returned to the pool");
+
+            try {
+                return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+
+    }
+
+}
@@ -203,6 +203,7 @@ public abstract class AbstractFileAccountLinkManager extends AbstractAccountLink
 
         synchronized (linkedAccounts) {
             linkedAccounts.put(discordId, uuid);
+            linked(discordId, uuid);
         }
         afterLink(discordId, uuid);
     }
@@ -238,6 +239,11 @@ public abstract class AbstractFileAccountLinkManager extends AbstractAccountLink
         afterUnlink(uuid, discordId);
     }
 
+    /**
+     * Called while still holding the lock on {@link #linkedAccounts} after a link was added
+     */
+    void linked(String discordId, UUID uuid) {}
+
     abstract void load() throws IOException;
     abstract File getFile();
 
@@ -23,7 +23,6 @@ package github.scarsz.discordsrv.objects.managers.link.file;
 import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.util.LangUtil;
-import lombok.SneakyThrows;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.lang3.StringUtils;
 
@@ -31,8 +30,14 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.Map;
-import java.util.UUID;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -43,6 +48,22 @@ public class AppendOnlyFileAccountLinkManager extends AbstractFileAccountLinkMan
     private static final Pattern LINK_PATTERN = Pattern.compile("^(?<discord>\\d+) (?<uuid>[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}).*");
     // matches "-discordId" or "-uuid" or "-discord uuid" or "-uuid discord" https://regex101.com/r/IkDT4K/3
     private static final Pattern MODIFICATION_PATTERN = Pattern.compile("^-(?>(?>(?<discord>\\d{17,}+)|(?<uuid>[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})) ?){1,2}.*");
+    private static final long MAX_RETRY_DELAY = TimeUnit.SECONDS.toMillis(5);
+
+    // these are assigned in load(), which runs in the super constructor before any field initializers would
+    // records waiting for the writer thread, an empty record only wakes it up
+    private BlockingQueue<String> pending;
+    // records taken off the queue that couldn't be written yet, retried before any newer record
+    private List<String> unwritten;
+    // guards the append channel & the record counters, held while appending or rewriting the file
+    private Object fileLock;
+    private volatile boolean running;
+    private FileChannel channel;
+    private Thread writerThread;
+    private boolean unsynced;
+    private long lastSync;
+    private int records;
+    private int modifications;
 
     public AppendOnlyFileAccountLinkManager() {
         super();
@@ -50,6 +71,11 @@ public class AppendOnlyFileAccountLinkManager extends AbstractFileAccountLinkMan
 
     @Override
     void load() throws IOException {
+        pending = new LinkedBlockingQueue<>();
+        unwritten = new ArrayList<>();
+        fileLock = new Object();
+        running = true;
+
         readAOF();
         importJsonFile();
     }
@@ -116,9 +142,13 @@ public class AppendOnlyFileAccountLinkManager extends AbstractFileAccountLinkMan
         }
         DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Finished reading accounts.aof file");
 
-        if ((double) modifications / split.length >= .10) {
-            // 10% of files are modifications, force a clean save
-            clean = false;
+        synchronized (fileLock) {
+            this.records = split.length;
+            this.modifications = modifications;
+            if (needsCompaction()) {
+                // 10% of files are modifications, force a clean save
+                clean = false;
+            }
         }
 
         if (!clean) save();
@@ -147,52 +177,102 @@ public class AppendOnlyFileAccountLinkManager extends AbstractFileAccountLinkMan
 
     @Override
     public void save() {
-        File file = getFile();
-        File tmpFile = getTemporaryFile();
-        tmpFile.deleteOnExit();
-
-
         DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Saving accounts.aof file...");
 
         long startTime = System.currentTimeMillis();
-        try {
-            try (FileWriter fileWriter = new FileWriter(tmpFile);
-                 BufferedWriter writer = new BufferedWriter(fileWriter)) {
-                for (Map.Entry<String, UUID> entry : linkedAccounts.entrySet()) {
-                    String discordId = entry.getKey();
-                    UUID uuid = entry.getValue();
-                    writer.write(discordId + " " + uuid + "\n");
-                }
+        if (!rewrite()) return;
+        DiscordSRV.info(LangUtil.InternalMessage.LINKED_ACCOUNTS_SAVED.toString()
+                .replace("{ms}", String.valueOf(System.currentTimeMillis() - startTime))
+        );
+    }
+
+    /**
+     * Write every pending record to disk, sync it and stop the writer thread
+     */
+    public void close() {
+        running = false;
+        pending.offer("");
+        Thread thread;
+        synchronized (pending) {
+            thread = writerThread;
+        }
+        if (thread != null) {
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        synchronized (fileLock) {
+            // anything the writer didn't get to
+            pending.drainTo(unwritten);
+            try {
+                append(unwritten);
+                unwritten.clear();
+                if (channel != null) channel.force(false);
             } catch (IOException e) {
                 DiscordSRV.error(LangUtil.InternalMessage.LINKED_ACCOUNTS_SAVE_FAILED + ": " + e.getMessage());
-                return;
             }
-            //noinspection ResultOfMethodCallIgnored
-            file.delete();
+            closeChannel();
+        }
+    }
+
+    /**
+     * Rewrite the file from the in-memory links, dropping all modification records
+     * @return if the file was written successfully
+     */
+    private boolean rewrite() {
+        synchronized (fileLock) {
+            Map<String, UUID> snapshot;
+            synchronized (linkedAccounts) {
+                snapshot = new HashMap<>(linkedAccounts);
+                // these are already reflected in the snapshot
+                pending.clear();
+                unwritten.clear();
+            }
+            closeChannel();
+
+            File file = getFile();
+            File tmpFile = getTemporaryFile();
+            tmpFile.deleteOnExit();
             try {
-                FileUtils.moveFile(tmpFile, file);
-            } catch (IOException e) {
-                DiscordSRV.error("Failed moving accounts.aof.tmp to accounts.aof: " + e.getMessage());
+                try (FileWriter fileWriter = new FileWriter(tmpFile);
+                     BufferedWriter writer = new BufferedWriter(fileWriter)) {
+                    for (Map.Entry<String, UUID> entry : snapshot.entrySet()) {
+                        String discordId = entry.getKey();
+                        UUID uuid = entry.getValue();
+                        writer.write(discordId + " " + uuid + "\n");
+                    }
+                } catch (IOException e) {
+                    DiscordSRV.error(LangUtil.InternalMessage.LINKED_ACCOUNTS_SAVE_FAILED + ": " + e.getMessage());
+                    return false;
+                }
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+                try {
+                    FileUtils.moveFile(tmpFile, file);
+                } catch (IOException e) {
+                    DiscordSRV.error("Failed moving accounts.aof.tmp to accounts.aof: " + e.getMessage());
+                    return false;
+                }
+            } finally {
+                //noinspection ResultOfMethodCallIgnored
+                tmpFile.delete();
             }
-        } finally {
-            //noinspection ResultOfMethodCallIgnored
-            tmpFile.delete();
+
+            records = snapshot.size();
+            modifications = 0;
+            return true;
         }
-        DiscordSRV.info(LangUtil.InternalMessage.LINKED_ACCOUNTS_SAVED.toString()
-                .replace("{ms}", String.valueOf(System.currentTimeMillis() - startTime))
-        );
     }
 
     @Override
-    @SneakyThrows
-    public void link(String discordId, UUID uuid) {
-        super.link(discordId, uuid);
-
-        FileUtils.writeStringToFile(getFile(), discordId + " " + uuid + "\n", "UTF-8", true);
+    void linked(String discordId, UUID uuid) {
+        enqueue(discordId + " " + uuid + "\n");
     }
 
     @Override
-    @SneakyThrows
     public void unlink(UUID uuid) {
         String discordId;
         synchronized (linkedAccounts) {
@@ -203,13 +283,13 @@ public class AppendOnlyFileAccountLinkManager extends AbstractFileAccountLinkMan
         synchronized (linkedAccounts) {
             beforeUnlink(uuid, discordId);
             linkedAccounts.removeValue(uuid);
-            FileUtils.writeStringToFile(getFile(), "-" + discordId + " " + uuid + "\n", "UTF-8", true);
+            // enqueued under the same lock as the change, so that the file has the changes in the same order
+            enqueue("-" + discordId + " " + uuid + "\n");
         }
 
         afterUnlink(uuid, discordId);
     }
     @Override
-    @SneakyThrows
     public void unlink(String discordId) {
         UUID uuid;
         synchronized (linkedAccounts) {
@@ -220,11 +300,114 @@ public class AppendOnlyFileAccountLinkManager extends AbstractFileAccountLinkMan
         synchronized (linkedAccounts) {
             beforeUnlink(uuid, discordId);
             linkedAccounts.remove(discordId);
-            FileUtils.writeStringToFile(getFile(), "-" + discordId + " " + uuid + "\n", "UTF-8", true);
+            // enqueued under the same lock as the change, so that the file has the changes in the same order
+            enqueue("-" + discordId + " " + uuid + "\n");
         }
+
         afterUnlink(uuid, discordId);
     }
 
+    private void enqueue(String record) {
+        pending.offer(record);
+        synchronized (pending) {
+            if (writerThread != null || !running) return;
+            writerThread = new Thread(this::writeLoop, "DiscordSRV - Linked Accounts Writer");
+            writerThread.setDaemon(true);
+            writerThread.start();
+        }
+    }
+
+    private void writeLoop() {
+        long syncInterval = Math.max(0, DiscordSRV.config().getIntElse("AccountLinkFileSyncIntervalMillis", 1000));
+        long retryDelay = 0;
+        while (running) {
+            List<String> batch = new ArrayList<>();
+            try {
+                if (retryDelay > 0) {
+                    Thread.sleep(retryDelay);
+                } else {
+                    String record = pending.poll(Math.max(syncInterval, 1000), TimeUnit.MILLISECONDS);
+                    if (record != null) {
+                        batch.add(record);
+                        pending.drainTo(batch);
+                    }
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+
+            synchronized (fileLock) {
+                unwritten.addAll(batch);
+                try {
+                    append(unwritten);
+                    unwritten.clear();
+                    if (unsynced && System.currentTimeMillis() - lastSync >= syncInterval) {
+                        channel.force(false);
+                        unsynced = false;
+                        lastSync = System.currentTimeMillis();
+                    }
+                    retryDelay = 0;
+                } catch (IOException e) {
+                    DiscordSRV.error(LangUtil.InternalMessage.LINKED_ACCOUNTS_SAVE_FAILED + ": " + e.getMessage());
+                    closeChannel(); // reopen for the retry
+                    retryDelay = Math.min(Math.max(retryDelay * 2, 250), MAX_RETRY_DELAY);
+                    continue;
+                }
+
+                if (needsCompaction()) {
+                    DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Compacting accounts.aof, " + modifications + " of " + records + " records are modifications");
+                    rewrite();
+                }
+            }
+        }
+    }
+
+    private void append(List<String> batch) throws IOException {
+        StringBuilder builder = new StringBuilder();
+        int records = 0, modifications = 0;
+        for (String record : batch) {
+            if (record.isEmpty()) continue;
+            builder.append(record);
+            records++;
+            if (record.charAt(0) == '-') modifications++;
+        }
+        if (builder.length() == 0) return;
+
+        if (channel == null) {
+            channel = FileChannel.open(getFile().toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+        long size = channel.size();
+        ByteBuffer buffer = ByteBuffer.wrap(builder.toString().getBytes(StandardCharsets.UTF_8));
+        try {
+            while (buffer.hasRemaining()) channel.write(buffer);
+        } catch (IOException e) {
+            // don't leave half a batch behind, the whole batch is written again on retry
+            try {
+                channel.truncate(size);
+            } catch (IOException ignored) {}
+            throw e;
+        }
+        unsynced = true;
+        this.records += records;
+        this.modifications += modifications;
+    }
+
+    private void closeChannel() {
+        if (channel == null) return;
+        try {
+            if (unsynced) channel.force(false);
+            channel.close();
+        } catch (IOException e) {
+            DiscordSRV.debug(Debug.ACCOUNT_LINKING, "Failed to close accounts.aof: " + e.getMessage());
+        }
+        channel = null;
+        unsynced = false;
+    }
+
+    private boolean needsCompaction() {
+        return records > 0 && (double) modifications / records >= .10;
+    }
+
     @Override
     File getFile() {
         return new File(DiscordSRV.getPlugin().getDataFolder(), "accounts.aof");
@@ -26,38 +26,20 @@ import github.scarsz.discordsrv.util.LangUtil;
 import github.scarsz.discordsrv.util.PlaceholderUtil;
 import org.apache.commons.lang3.StringUtils;
 
-import java.util.concurrent.TimeUnit;
-
-public class ChannelTopicUpdater extends Thread {
-
-    public ChannelTopicUpdater() {
-        setName("DiscordSRV - Channel Topic Updater");
-    }
+public class ChannelTopicUpdater implements Runnable {
 
     @Override
     public void run() {
-        while (true) {
-            int rate = DiscordSRV.config().getInt("ChannelTopicUpdaterRateInMinutes");
-            if (rate < 10) rate = 10;
-
-            if (DiscordUtil.getJda() != null) {
-                String chatTopic = PlaceholderUtil.replaceChannelUpdaterPlaceholders(LangUtil.Message.CHAT_CHANNEL_TOPIC.toString());
-                if (StringUtils.isNotBlank(chatTopic))
-                    DiscordUtil.setTextChannelTopic(DiscordSRV.getPlugin().getMainTextChannel(), chatTopic);
-
-                String consoleTopic = PlaceholderUtil.replaceChannelUpdaterPlaceholders(LangUtil.Message.CONSOLE_CHANNEL_TOPIC.toString());
-                if (StringUtils.isNotBlank(consoleTopic))
-                    DiscordUtil.setTextChannelTopic(DiscordSRV.getPlugin().getConsoleChannel(), consoleTopic);
-            } else {
-                DiscordSRV.debug("Skipping channel topic update cycle, JDA was null");
-            }
-
-            try {
-                Thread.sleep(TimeUnit.MINUTES.toMillis(rate));
-            } catch (InterruptedException e) {
-                DiscordSRV.debug("Broke from Channel Topic Updater thread: sleep interrupted");
-                return;
-            }
+        if (DiscordUtil.getJda() != null) {
+            String chatTopic = PlaceholderUtil.replaceChannelUpdaterPlaceholders(LangUtil.Message.CHAT_CHANNEL_TOPIC.toString());
+            if (StringUtils.isNotBlank(chatTopic))
+                DiscordUtil.setTextChannelTopic(DiscordSRV.getPlugin().getMainTextChannel(), chatTopic);
+
+            String consoleTopic = PlaceholderUtil.replaceChannelUpdaterPlaceholders(LangUtil.Message.CONSOLE_CHANNEL_TOPIC.toString());
+            if (StringUtils.isNotBlank(consoleTopic))
+                DiscordUtil.setTextChannelTopic(DiscordSRV.getPlugin().getConsoleChannel(), consoleTopic);
+        } else {
+            DiscordSRV.debug("Skipping channel topic update cycle, JDA was null");
         }
     }
 
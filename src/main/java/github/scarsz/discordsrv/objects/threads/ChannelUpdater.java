@@ -35,16 +35,17 @@ import org.jetbrains.annotations.Nullable;
 import java.util.*;
 import java.util.concurrent.TimeUnit;
 
-public class ChannelUpdater extends Thread {
+public class ChannelUpdater {
 
-    @Getter private final Set<UpdaterChannel> updaterChannels = new HashSet<>();
+    private static final String TASK_PREFIX = "Channel Updater ";
 
-    public ChannelUpdater() {
-        setName("DiscordSRV - Channel Updater");
-    }
+    @Getter private final Set<UpdaterChannel> updaterChannels = new HashSet<>();
+    private final List<String> taskNames = new ArrayList<>();
 
-    public void reload() {
+    public synchronized void reload() {
         // Deleting and recreating the list of updater channels
+        this.taskNames.forEach(DiscordSRV.getPlugin().getTaskScheduler()::cancel);
+        this.taskNames.clear();
         this.updaterChannels.clear();
 
         final List<Map<?, ?>> configEntries = DiscordSRV.config().get("ChannelUpdater");
@@ -79,26 +80,11 @@ public class ChannelUpdater extends Thread {
             UpdaterChannel updaterChannel = new UpdaterChannel(channel, format, interval, shutdownFormat);
             this.updaterChannels.add(updaterChannel);
             updaterChannel.update();
-        }
-    }
-
-    @Override
-    public void run() {
-        reload();
-        for (final UpdaterChannel channel : this.updaterChannels) {
-            channel.update();
-        }
-        while (true) {
-            try {
-                Thread.sleep(TimeUnit.MINUTES.toMillis(1));
 
-                for (final UpdaterChannel channel : this.updaterChannels) {
-                    channel.performTick();
-                }
-            } catch (InterruptedException e) {
-                DiscordSRV.debug(Debug.CHANNEL_UPDATER, "Broke from Channel Updater thread: sleep interrupted");
-                return;
-            }
+            String taskName = TASK_PREFIX + (this.taskNames.size() + 1) + " (" + channelId + ")";
+            this.taskNames.add(taskName);
+            DiscordSRV.getPlugin().getTaskScheduler().schedule(taskName, updaterChannel::update,
+                    updaterChannel.getInterval(), updaterChannel::getInterval, TimeUnit.MINUTES);
         }
     }
 
@@ -109,7 +95,6 @@ public class ChannelUpdater extends Thread {
         @Getter private final String format;
         @Getter private final int interval;
         @Getter @Nullable private final String shutdownFormat;
-        private int minutesUntilRefresh;
 
         public UpdaterChannel(GuildChannel channel, String format, int interval, @Nullable String shutdownFormat) {
             this.channelId = channel.getId();
@@ -121,9 +106,6 @@ public class ChannelUpdater extends Thread {
                 DiscordSRV.warning("Update interval in minutes for channel \"" + channel.getName() + "\" was below the minimum value of 10. Using 10 as the interval.");
                 this.interval = 10;
             } else this.interval = interval;
-
-            this.minutesUntilRefresh = this.interval;
-
         }
 
         public void update() {
@@ -157,15 +139,6 @@ public class ChannelUpdater extends Thread {
             parseChannelName(discordChannel, newName, true);
         }
 
-        public void performTick() {
-            this.minutesUntilRefresh--;
-
-            if (this.minutesUntilRefresh <= 0) {
-                this.update();
-                this.minutesUntilRefresh = this.interval;
-            }
-        }
-
         private void parseChannelName(GuildChannel discordChannel, String newName, boolean blockThread) {
             if (newName.length() > MAX_CHANNEL_NAME) {
                 newName = newName.substring(0, MAX_CHANNEL_NAME - 1);
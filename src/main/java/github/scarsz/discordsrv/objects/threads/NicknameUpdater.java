@@ -36,89 +36,63 @@ import org.bukkit.entity.Player;
 
 import java.util.HashSet;
 import java.util.Set;
-import java.util.concurrent.TimeUnit;
 
-public class NicknameUpdater extends Thread {
+public class NicknameUpdater implements Runnable {
 
     private final Set<String> nonMembers = new HashSet<>();
 
-    public NicknameUpdater() {
-        setName("DiscordSRV - Nickname Updater");
-    }
-
     @Override
     public void run() {
-        while (true) {
-            int rate = DiscordSRV.config().getInt("NicknameSynchronizationCycleTime");
-            if (rate < 3) rate = 3;
-
-            if (DiscordSRV.config().getBoolean("NicknameSynchronizationEnabled")) {
-                DiscordSRV.debug(Debug.NICKNAME_SYNC, "Synchronizing nicknames...");
-
-                // Fix NPE with AccountLinkManager
-                if (!DiscordSRV.isReady) {
-                    try {
-                        Thread.sleep(TimeUnit.MINUTES.toMillis(rate));
-                    } catch (InterruptedException ignored) {
-                        DiscordSRV.debug(Debug.NICKNAME_SYNC, "Broke from Nickname Updater thread: sleep interrupted");
-                        return;
-                    }
-                    continue;
-                }
+        if (!DiscordSRV.config().getBoolean("NicknameSynchronizationEnabled")) return;
+        DiscordSRV.debug(Debug.NICKNAME_SYNC, "Synchronizing nicknames...");
+
+        // Fix NPE with AccountLinkManager
+        if (!DiscordSRV.isReady) return;
+
+        Guild guild = DiscordSRV.getPlugin().getMainGuild();
+        for (Player onlinePlayer : PlayerUtil.getOnlinePlayerSnapshot()) {
+            String playerName = onlinePlayer.getName();
+            // skip vanished players
+            if (PlayerUtil.isVanished(onlinePlayer)) {
+                DiscordSRV.debug(Debug.NICKNAME_SYNC, playerName + " is vanished, not setting nickname");
+                continue;
+            }
 
-                Guild guild = DiscordSRV.getPlugin().getMainGuild();
-                for (Player onlinePlayer : PlayerUtil.getOnlinePlayers()) {
-                    String playerName = onlinePlayer.getName();
-                    // skip vanished players
-                    if (PlayerUtil.isVanished(onlinePlayer)) {
-                        DiscordSRV.debug(Debug.NICKNAME_SYNC, playerName + " is vanished, not setting nickname");
-                        continue;
-                    }
-
-                    String userId = DiscordSRV.getPlugin().getAccountLinkManager().getDiscordId(onlinePlayer.getUniqueId());
-                    if (userId == null) {
-                        DiscordSRV.debug(Debug.NICKNAME_SYNC, playerName + " isn't linked, not setting nickname");
-                        continue;
-                    }
-
-                    User linkedUser = DiscordUtil.getJda().getUserById(userId);
-                    if (linkedUser == null) {
-                        DiscordSRV.debug(Debug.NICKNAME_SYNC, "Could not resolve a valid Discord user for " + playerName + ", not setting nickname");
-                        continue;
-                    }
-
-                    if (guild.getMember(linkedUser) != null) nonMembers.remove(linkedUser.getId());
-                    if (nonMembers.contains(linkedUser.getId())) {
-                        DiscordSRV.debug(Debug.NICKNAME_SYNC, linkedUser.getName() + " is not in the Main guild, not setting nickname");
-                        continue;
-                    }
-
-                    // get the member, from cache if it's there otherwise from Discord
-                    Member member;
-                    try {
-                        member = guild.retrieveMember(linkedUser, false).complete();
-                    } catch (ErrorResponseException e) {
-                        if (e.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER) {
-                            nonMembers.add(linkedUser.getId());
-                            continue;
-                        }
-                        throw e;
-                    }
-                    if (member == null) {
-                        DiscordSRV.debug(Debug.NICKNAME_SYNC, linkedUser.getName() + " is not in the Main guild, not setting nickname");
-                        continue;
-                    }
-
-                    setNickname(member, onlinePlayer);
-                }
+            String userId = DiscordSRV.getPlugin().getAccountLinkManager().getDiscordId(onlinePlayer.getUniqueId());
+            if (userId == null) {
+                DiscordSRV.debug(Debug.NICKNAME_SYNC, playerName + " isn't linked, not setting nickname");
+                continue;
+            }
+
+            User linkedUser = DiscordUtil.getJda().getUserById(userId);
+            if (linkedUser == null) {
+                DiscordSRV.debug(Debug.NICKNAME_SYNC, "Could not resolve a valid Discord user for " + playerName + ", not setting nickname");
+                continue;
             }
 
+            if (guild.getMember(linkedUser) != null) nonMembers.remove(linkedUser.getId());
+            if (nonMembers.contains(linkedUser.getId())) {
+                DiscordSRV.debug(Debug.NICKNAME_SYNC, linkedUser.getName() + " is not in the Main guild, not setting nickname");
+                continue;
+            }
+
+            // get the member, from cache if it's there otherwise from Discord
+            Member member;
             try {
-                Thread.sleep(TimeUnit.MINUTES.toMillis(rate));
-            } catch (InterruptedException ignored) {
-                DiscordSRV.debug(Debug.NICKNAME_SYNC, "Broke from Nickname Updater thread: sleep interrupted");
-                return;
+                member = guild.retrieveMember(linkedUser, false).complete();
+            } catch (ErrorResponseException e) {
+                if (e.getErrorResponse() == ErrorResponse.UNKNOWN_MEMBER) {
+                    nonMembers.add(linkedUser.getId());
+                    continue;
+                }
+                throw e;
+            }
+            if (member == null) {
+                DiscordSRV.debug(Debug.NICKNAME_SYNC, linkedUser.getName() + " is not in the Main guild, not setting nickname");
+                continue;
             }
+
+            setNickname(member, onlinePlayer);
         }
     }
 
@@ -35,93 +35,76 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Objects;
-import java.util.concurrent.TimeUnit;
 
-public class PresenceUpdater extends Thread {
+public class PresenceUpdater implements Runnable {
 
     private int lastStatusIndex = 0;
     private String lastStatus = null;
     private OnlineStatus lastOnlineStatus = null;
 
-    public PresenceUpdater() {
-        setName("DiscordSRV - Presence Updater");
-    }
-
     @Override
     public void run() {
-        while (true) {
-            int rate = DiscordSRV.config().getInt("StatusUpdateRateInMinutes");
-            if (rate < 1) rate = 1;
-
-            if (DiscordUtil.getJda() != null) {
-                Dynamic dynamic = DiscordSRV.config().dget("DiscordGameStatus");
-                List<String> statuses = new LinkedList<>();
-                if (dynamic.isList()) {
-                    statuses.addAll(dynamic.asList());
-                } else {
-                    statuses.add(dynamic.convert().intoString());
-                }
-
-                String status;
-                if (statuses.size() == 0) {
-                    status = null;
-                } else {
-                    int nextStatusIndex = lastStatusIndex + 1;
-                    if (nextStatusIndex >= statuses.size()) nextStatusIndex = 0;
-                    status = statuses.size() >= nextStatusIndex + 1 ? statuses.get(nextStatusIndex) : null;
-
-                    lastStatusIndex = nextStatusIndex;
-                }
-
-                if (status != null) {
-                    status = status.replace("%online%", String.valueOf(PlayerUtil.getOnlinePlayers(true).size()));
-                    status = PlaceholderUtil.replacePlaceholders(status);
-                    status = MessageUtil.strip(status); // remove color codes
-                }
-
-                String onlineStatusString = DiscordSRV.config().getString("DiscordOnlineStatus").toUpperCase(Locale.ROOT).trim();
+        if (DiscordUtil.getJda() != null) {
+            Dynamic dynamic = DiscordSRV.config().dget("DiscordGameStatus");
+            List<String> statuses = new LinkedList<>();
+            if (dynamic.isList()) {
+                statuses.addAll(dynamic.asList());
+            } else {
+                statuses.add(dynamic.convert().intoString());
+            }
 
-                OnlineStatus onlineStatus = OnlineStatus.fromKey(onlineStatusString);
-                if (onlineStatus == OnlineStatus.UNKNOWN) onlineStatus = OnlineStatus.ONLINE;
+            String status;
+            if (statuses.size() == 0) {
+                status = null;
+            } else {
+                int nextStatusIndex = lastStatusIndex + 1;
+                if (nextStatusIndex >= statuses.size()) nextStatusIndex = 0;
+                status = statuses.size() >= nextStatusIndex + 1 ? statuses.get(nextStatusIndex) : null;
 
-                boolean same = Objects.equals(lastStatus, status) && Objects.equals(onlineStatus, lastOnlineStatus);
-                lastStatus = status;
-                lastOnlineStatus = onlineStatus;
+                lastStatusIndex = nextStatusIndex;
+            }
 
-                if (!same) {
-                    if (StringUtils.isNotBlank(status)) {
-                        DiscordSRV.debug(Debug.PRESENCE, "Setting presence to \"" + status + "\"" + " and online status to \"" + onlineStatus.name() + "\"");
+            if (status != null) {
+                status = status.replace("%online%", String.valueOf(PlayerUtil.getOnlinePlayerSnapshot(true).size()));
+                status = PlaceholderUtil.replacePlaceholders(status);
+                status = MessageUtil.strip(status); // remove color codes
+            }
 
-                        if (StringUtils.startsWithIgnoreCase(status, "watching")) {
-                            String removed = status.substring("watching".length()).trim();
-                            DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.watching(removed), false);
-                        } else if (StringUtils.startsWithIgnoreCase(status, "listening to")) {
-                            String removed = status.substring("listening to".length()).trim();
-                            DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.listening(removed), false);
-                        } else if (StringUtils.startsWithIgnoreCase(status, "playing")) {
-                            String removed = status.substring("playing".length()).trim();
-                            DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.playing(removed), false);
-                        } else if (StringUtils.startsWithIgnoreCase(status, "competing")) {
-                            String removed = status.substring("competing".length()).trim();
-                            DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.competing(removed), false);
-                        } else {
-                            DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.customStatus(status), false);
-                        }
+            String onlineStatusString = DiscordSRV.config().getString("DiscordOnlineStatus").toUpperCase(Locale.ROOT).trim();
+
+            OnlineStatus onlineStatus = OnlineStatus.fromKey(onlineStatusString);
+            if (onlineStatus == OnlineStatus.UNKNOWN) onlineStatus = OnlineStatus.ONLINE;
+
+            boolean same = Objects.equals(lastStatus, status) && Objects.equals(onlineStatus, lastOnlineStatus);
+            lastStatus = status;
+            lastOnlineStatus = onlineStatus;
+
+            if (!same) {
+                if (StringUtils.isNotBlank(status)) {
+                    DiscordSRV.debug(Debug.PRESENCE, "Setting presence to \"" + status + "\"" + " and online status to \"" + onlineStatus.name() + "\"");
+
+                    if (StringUtils.startsWithIgnoreCase(status, "watching")) {
+                        String removed = status.substring("watching".length()).trim();
+                        DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.watching(removed), false);
+                    } else if (StringUtils.startsWithIgnoreCase(status, "listening to")) {
+                        String removed = status.substring("listening to".length()).trim();
+                        DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.listening(removed), false);
+                    } else if (StringUtils.startsWithIgnoreCase(status, "playing")) {
+                        String removed = status.substring("playing".length()).trim();
+                        DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.playing(removed), false);
+                    } else if (StringUtils.startsWithIgnoreCase(status, "competing")) {
+                        String removed = status.substring("competing".length()).trim();
+                        DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.competing(removed), false);
                     } else {
-                        DiscordUtil.getJda().getPresence().setPresence(onlineStatus, null, false);
-                        DiscordSRV.debug(Debug.PRESENCE, "Cleared presence status");
+                        DiscordUtil.getJda().getPresence().setPresence(onlineStatus, Activity.customStatus(status), false);
                     }
+                } else {
+                    DiscordUtil.getJda().getPresence().setPresence(onlineStatus, null, false);
+                    DiscordSRV.debug(Debug.PRESENCE, "Cleared presence status");
                 }
-            } else {
-                DiscordSRV.debug(Debug.PRESENCE, "Skipping presence status update cycle, JDA was null");
-            }
-
-            try {
-                Thread.sleep(TimeUnit.MINUTES.toMillis(rate));
-            } catch (InterruptedException ignored) {
-                DiscordSRV.debug(Debug.PRESENCE, "Broke from Status Updater thread: sleep interrupted");
-                return;
             }
+        } else {
+            DiscordSRV.debug(Debug.PRESENCE, "Skipping presence status update cycle, JDA was null");
         }
     }
 
@@ -33,82 +33,75 @@ import org.bukkit.Bukkit;
 
 import java.util.concurrent.TimeUnit;
 
-public class ServerWatchdog extends Thread {
+public class ServerWatchdog implements Runnable {
 
-    public ServerWatchdog() {
-        super("DiscordSRV - Server Watchdog");
-    }
-
-    private long lastTick = System.currentTimeMillis();
-    private boolean hasBeenTriggered = true;
+    private volatile long lastTick = System.currentTimeMillis();
+    private volatile boolean hasBeenTriggered = true;
 
     private void tick() {
         lastTick = System.currentTimeMillis();
         hasBeenTriggered = false;
     }
 
-    @Override
-    public void run() {
+    /**
+     * Start keeping track of server ticks
+     * @return false if the tick task couldn't be scheduled, in which case the watchdog shouldn't run
+     */
+    public boolean startTicking() {
         int taskNumber = Bukkit.getScheduler().scheduleSyncRepeatingTask(DiscordSRV.getPlugin(), this::tick, 0, 20);
         if (taskNumber == -1) {
             DiscordSRV.debug(Debug.WATCHDOG, "Failed to schedule repeating task for server watchdog; returning");
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void run() {
+        int timeout = DiscordSRV.config().getInt("ServerWatchdogTimeout");
+        if (timeout < 10) timeout = 10; // minimum value
+        if (hasBeenTriggered || TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - lastTick) < timeout) return;
+        hasBeenTriggered = true;
+
+        if (!DiscordSRV.config().getBoolean("ServerWatchdogEnabled")) {
+            DiscordSRV.debug(Debug.WATCHDOG, "The Server Watchdog would have triggered right now but it was disabled in the config");
+            return;
+        }
+
+        String channelName = DiscordSRV.getPlugin().getOptionalChannel("watchdog");
+        String message = PlaceholderUtil.replacePlaceholdersToDiscord(LangUtil.Message.SERVER_WATCHDOG.toString());
+        int count = DiscordSRV.config().getInt("ServerWatchdogMessageCount");
+
+        WatchdogMessagePreProcessEvent preEvent = DiscordSRV.api.callEvent(new WatchdogMessagePreProcessEvent(channelName, message, count, false));
+        if (preEvent.isCancelled()) {
+            DiscordSRV.debug(Debug.WATCHDOG, "WatchdogMessagePreProcessEvent was cancelled, message send aborted");
+            return;
+        }
+        // Update from event in case any listeners modified parameters
+        count = preEvent.getCount();
+        channelName = preEvent.getChannel();
+        message = preEvent.getMessage();
+
+        String discordMessage = message
+                .replaceAll("%time%|%date%", TimeUtil.timeStamp())
+                .replace("%timestamp%", Long.toString(System.currentTimeMillis() / 1000))
+                .replace("%timeout%", Integer.toString(timeout))
+                .replace("%guildowner%", DiscordSRV.getPlugin().getMainGuild().getOwner().getAsMention());
+
+        WatchdogMessagePostProcessEvent postEvent = DiscordSRV.api.callEvent(new WatchdogMessagePostProcessEvent(channelName, discordMessage, count, false));
+        if (postEvent.isCancelled()) {
+            DiscordSRV.debug(Debug.WATCHDOG, "WatchdogMessagePostProcessEvent was cancelled, message send aborted");
             return;
         }
+        // Update from event in case any listeners modified parameters
+        count = postEvent.getCount();
+        channelName = postEvent.getChannel();
+        discordMessage = postEvent.getProcessedMessage();
+
+        TextChannel channel = DiscordSRV.getPlugin().getDestinationTextChannelForGameChannelName(channelName);
 
-        while (true) {
-            try {
-                int timeout = DiscordSRV.config().getInt("ServerWatchdogTimeout");
-                if (timeout < 10) timeout = 10; // minimum value
-                if (hasBeenTriggered || TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis() - lastTick) < timeout) {
-                    Thread.sleep(1000);
-                } else {
-                    hasBeenTriggered = true;
-
-                    if (!DiscordSRV.config().getBoolean("ServerWatchdogEnabled")) {
-                        DiscordSRV.debug(Debug.WATCHDOG, "The Server Watchdog would have triggered right now but it was disabled in the config");
-                        continue;
-                    }
-
-                    String channelName = DiscordSRV.getPlugin().getOptionalChannel("watchdog");
-                    String message = PlaceholderUtil.replacePlaceholdersToDiscord(LangUtil.Message.SERVER_WATCHDOG.toString());
-                    int count = DiscordSRV.config().getInt("ServerWatchdogMessageCount");
-
-                    WatchdogMessagePreProcessEvent preEvent = DiscordSRV.api.callEvent(new WatchdogMessagePreProcessEvent(channelName, message, count, false));
-                    if (preEvent.isCancelled()) {
-                        DiscordSRV.debug(Debug.WATCHDOG, "WatchdogMessagePreProcessEvent was cancelled, message send aborted");
-                        continue;
-                    }
-                    // Update from event in case any listeners modified parameters
-                    count = preEvent.getCount();
-                    channelName = preEvent.getChannel();
-                    message = preEvent.getMessage();
-
-                    String discordMessage = message
-                            .replaceAll("%time%|%date%", TimeUtil.timeStamp())
-                            .replace("%timestamp%", Long.toString(System.currentTimeMillis() / 1000))
-                            .replace("%timeout%", Integer.toString(timeout))
-                            .replace("%guildowner%", DiscordSRV.getPlugin().getMainGuild().getOwner().getAsMention());
-
-                    WatchdogMessagePostProcessEvent postEvent = DiscordSRV.api.callEvent(new WatchdogMessagePostProcessEvent(channelName, discordMessage, count, false));
-                    if (postEvent.isCancelled()) {
-                        DiscordSRV.debug(Debug.WATCHDOG, "WatchdogMessagePostProcessEvent was cancelled, message send aborted");
-                        continue;
-                    }
-                    // Update from event in case any listeners modified parameters
-                    count = postEvent.getCount();
-                    channelName = postEvent.getChannel();
-                    discordMessage = postEvent.getProcessedMessage();
-
-                    TextChannel channel = DiscordSRV.getPlugin().getDestinationTextChannelForGameChannelName(channelName);
-
-                    for (int i = 0; i < count; i++) {
-                        DiscordUtil.queueMessage(channel, discordMessage, true);
-                    }
-                }
-            } catch (InterruptedException e) {
-                DiscordSRV.debug(Debug.WATCHDOG, "Broke from Server Watchdog thread: sleep interrupted");
-                return;
-            }
+        for (int i = 0; i < count; i++) {
+            DiscordUtil.queueMessage(channel, discordMessage, true);
         }
     }
 
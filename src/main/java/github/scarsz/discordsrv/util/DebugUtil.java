@@ -34,6 +34,8 @@ import github.scarsz.discordsrv.hooks.VaultHook;
 import github.scarsz.discordsrv.hooks.chat.TownyChatHook;
 import github.scarsz.discordsrv.listeners.DiscordDisconnectListener;
 import github.scarsz.discordsrv.modules.voice.VoiceModule;
+import github.scarsz.discordsrv.objects.PipelineMetrics;
+import github.scarsz.discordsrv.objects.TaskScheduler;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.requests.CloseCode;
@@ -105,6 +107,10 @@ public class DebugUtil {
                     "   console channel: " + DiscordSRV.getPlugin().getConsoleChannel(),
                     "   main chat channel: " + DiscordSRV.getPlugin().getMainChatChannel() + " -> " + DiscordSRV.getPlugin().getMainTextChannel(),
                     "   main guild: " + DiscordSRV.getPlugin().getMainGuild(),
+                    "   guild members loaded: " + DiscordSRV.getPlugin().getMembersLoaded().isDone(),
+                    "   member cache policy: " + (DiscordSRV.getPlugin().getLinkedMemberCachePolicy() != null ? "linked members (" + DiscordSRV.getPlugin().getLinkedMemberCachePolicy().getLinkedCount() + ") & recent members" : "all members"),
+                    "   webhook delivery queue: " + DiscordSRV.getPlugin().getWebhookDeliveryQueue(),
+                    "   SpEL expression cache: " + SpELExpressionBuilder.getCacheStatistics(),
                     "Environmental variables:",
                     "   discord main guild roles: " + (DiscordSRV.getPlugin().getMainGuild() == null ? "invalid main guild" : DiscordSRV.getPlugin().getMainGuild().getRoles().stream().map(Role::toString).collect(Collectors.toList())),
                     "   discord server owner: " + (DiscordSRV.getPlugin().getMainGuild() == null ? "invalid main guild" : DiscordSRV.getPlugin().getMainGuild().getOwner()),
@@ -113,11 +119,7 @@ public class DebugUtil {
                     "   Skripts: " + String.join(", ", SkriptHook.getSkripts()),
                     "   /discord command executor: " + (Bukkit.getServer().getPluginCommand("discord") != null ? Bukkit.getServer().getPluginCommand("discord").getPlugin() : ""),
                     "   hooked plugins: " + DiscordSRV.getPlugin().getPluginHooks().stream().map(PluginHook::getPlugin).filter(Objects::nonNull).map(Object::toString).collect(Collectors.joining(", ")),
-                    "Threads:",
-                    "   channel topic updater -> alive: " + (DiscordSRV.getPlugin().getChannelTopicUpdater() != null && DiscordSRV.getPlugin().getChannelTopicUpdater().isAlive()),
-                    "   server watchdog -> alive: " + (DiscordSRV.getPlugin().getServerWatchdog() != null && DiscordSRV.getPlugin().getServerWatchdog().isAlive()),
-                    "   nickname updater -> alive: " + (DiscordSRV.getPlugin().getNicknameUpdater() != null && DiscordSRV.getPlugin().getNicknameUpdater().isAlive()),
-                    "   presence updater -> alive: " + (DiscordSRV.getPlugin().getPresenceUpdater() != null && DiscordSRV.getPlugin().getPresenceUpdater().isAlive()),
+                    "Scheduled tasks:" + listScheduledTasks(),
                     "Guilds:" + listGuilds()
             })));
             files.add(fileMap("relevant-lines-from-server.log", "lines from the server console containing \"discordsrv\"", getRelevantLinesFromServerLog()));
@@ -134,6 +136,7 @@ public class DebugUtil {
             files.add(fileMap("permissions.txt", null, getPermissions()));
             files.add(fileMap("threads.txt", "Threads with DiscordSRV in the name or that have trace elements with DiscordSRV's classes", getThreads()));
             files.add(fileMap("system-info.txt", null, getSystemInfo()));
+            files.add(fileMap("pipeline-metrics.txt", "latency percentiles for the stages of the chat pipeline", PipelineMetrics.report()));
             if (noIssues) addDebugInfo.run();
         } catch (Exception e) {
             DiscordSRV.error(e);
@@ -154,6 +157,14 @@ public class DebugUtil {
         return list;
     }
 
+    private static String listScheduledTasks() {
+        StringBuilder list = new StringBuilder();
+        for (TaskScheduler.Task task : DiscordSRV.getPlugin().getTaskScheduler().getTasks()) {
+            list.append("\n   ").append(task);
+        }
+        return list.length() > 0 ? list.toString() : "\n   none";
+    }
+
     private static Map<String, String> fileMap(String name, String description, String content) {
         Map<String, String> map = new HashMap<>();
         map.put("name", name);
@@ -224,7 +235,7 @@ public class DebugUtil {
 
         List<String> plugins = Arrays.stream(Bukkit.getPluginManager().getPlugins()).map(Object::toString).sorted().collect(Collectors.toList());
 
-        output.add("server players: " + PlayerUtil.getOnlinePlayers().size() + "/" + Bukkit.getMaxPlayers());
+        output.add("server players: " + PlayerUtil.getOnlinePlayerSnapshot().size() + "/" + Bukkit.getMaxPlayers());
         output.add("server plugins: " + plugins);
         output.add("");
         output.add("Minecraft version: " + Bukkit.getVersion());
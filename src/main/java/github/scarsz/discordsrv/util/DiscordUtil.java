@@ -24,15 +24,12 @@ import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.api.events.DiscordGuildMessageSentEvent;
 import github.scarsz.discordsrv.api.events.DiscordPrivateMessageSentEvent;
+import github.scarsz.discordsrv.objects.MentionIndex;
 import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.MessageBuilder;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
-import net.dv8tion.jda.api.events.guild.member.update.GuildMemberUpdateNicknameEvent;
-import net.dv8tion.jda.api.events.role.update.RoleUpdateNameEvent;
-import net.dv8tion.jda.api.events.user.update.UserUpdateNameEvent;
 import net.dv8tion.jda.api.exceptions.PermissionException;
-import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import net.dv8tion.jda.api.requests.restaction.MessageAction;
 import net.kyori.adventure.text.Component;
 import net.kyori.adventure.text.format.TextColor;
@@ -41,6 +38,7 @@ import org.jetbrains.annotations.ApiStatus;
 
 import java.io.File;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -135,59 +133,39 @@ public class DiscordUtil {
      */
     public static String convertMentionsFromNames(String message, Guild guild) {
         if (!message.contains("@")) return message;
+        return getMentionIndex(guild).resolve(message);
+    }
 
-        Map<Pattern, String> patterns = new HashMap<>();
-        for (Role role : guild.getRoles()) {
-            Pattern pattern = mentionPatternCache.computeIfAbsent(
-                    role.getId(),
-                    mentionable -> Pattern.compile(
-                            "(?<!<)" +
-                            Pattern.quote("@" + role.getName()),
-                            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE
-                    )
-            );
-            patterns.put(pattern, role.getAsMention());
-        }
-
-        for (Member member : guild.getMembers()) {
-            Pattern pattern = mentionPatternCache.computeIfAbsent(
-                    member.getId(),
-                    mentionable -> Pattern.compile(
-                            "(?<!<)" +
-                            Pattern.quote("@" + member.getEffectiveName()),
-                            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE
-                    )
-            );
-            patterns.put(pattern, member.getAsMention());
-        }
-
-        for (Map.Entry<Pattern, String> entry : patterns.entrySet()) {
-            message = entry.getKey().matcher(message).replaceAll(entry.getValue());
-        }
+    /**
+     * Get the index of role &amp; member names used to convert {@code @name}s to mentions in the given guild.
+     * The index is built once &amp; kept up to date by {@link github.scarsz.discordsrv.listeners.DiscordMentionIndexListener},
+     * it's only rebuilt after being invalidated (e.g. once guild members have been loaded)
+     * @param guild the guild
+     * @return the mention index of the guild
+     */
+    public static MentionIndex getMentionIndex(Guild guild) {
+        return mentionIndexes.computeIfAbsent(guild.getId(), id -> MentionIndex.of(guild));
+    }
 
-        return message;
+    /**
+     * @param guildId the id of the guild
+     * @return the mention index of the given guild if it has been built, otherwise null
+     */
+    @ApiStatus.Internal
+    public static MentionIndex getBuiltMentionIndex(String guildId) {
+        return mentionIndexes.get(guildId);
     }
-    private static Map<String, Pattern> mentionPatternCache = new HashMap<>();
-    static {
-        // event listener to clear the cache of invalid patterns because of name changes
-        if (DiscordUtil.getJda() != null) {
-            DiscordUtil.getJda().addEventListener(new ListenerAdapter() {
-                @Override
-                public void onUserUpdateName(UserUpdateNameEvent event) {
-                    mentionPatternCache.remove(event.getUser().getId());
-                }
-                @Override
-                public void onGuildMemberUpdateNickname(GuildMemberUpdateNicknameEvent event) {
-                    mentionPatternCache.remove(event.getMember().getId());
-                }
-                @Override
-                public void onRoleUpdateName(RoleUpdateNameEvent event) {
-                    mentionPatternCache.remove(event.getRole().getId());
-                }
-            });
-        }
+
+    /**
+     * Drop every mention index, so they're rebuilt the next time they're used (e.g. after guild members were loaded)
+     */
+    @ApiStatus.Internal
+    public static void invalidateMentionIndexes() {
+        mentionIndexes.clear();
     }
 
+    private static final Map<String, MentionIndex> mentionIndexes = new ConcurrentHashMap<>();
+
     /**
      * Return the given String with Markdown escaped. Useful for sending things to Discord.
      * @param text String to escape markdown in
@@ -247,6 +225,16 @@ public class DiscordUtil {
      * @param expiration milliseconds until expiration of message. if this is 0, the message will not expire
      */
     public static void sendMessage(TextChannel channel, String message, int expiration) {
+        sendMessage(channel, message, expiration, null);
+    }
+    /**
+     * Send the given String message to the given TextChannel that will expire in x milliseconds
+     * @param channel the TextChannel to send the message to
+     * @param message the message to send to the TextChannel
+     * @param expiration milliseconds until expiration of message. if this is 0, the message will not expire
+     * @param consumer consumer for the sent message, only called for the first message if the content was split
+     */
+    public static void sendMessage(TextChannel channel, String message, int expiration, Consumer<Message> consumer) {
         if (channel == null) {
             DiscordSRV.debug("Tried sending a message to a null channel");
             return;
@@ -278,6 +266,7 @@ public class DiscordUtil {
         }
 
         queueMessage(channel, message, m -> {
+            if (consumer != null) consumer.accept(m);
             if (expiration > 0) {
                 try { Thread.sleep(expiration); } catch (InterruptedException ignored) {}
                 deleteMessage(m);
@@ -906,7 +906,10 @@ public class LangUtil {
         }
 
         public String toString(boolean translateColors) {
-            String message = DiscordSRV.config().getString(this.keyName);
+            String message = DiscordSRV.configSnapshot().getMessage(this, translateColors);
+            if (message != null) return message;
+
+            message = DiscordSRV.config().getString(this.keyName);
             return translateColors ? MessageUtil.translateLegacy(message) : message;
         }
 
@@ -20,9 +20,6 @@
 
 package github.scarsz.discordsrv.util;
 
-import github.scarsz.discordsrv.DiscordSRV;
-import org.bukkit.Bukkit;
-
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
@@ -79,9 +76,6 @@ public abstract class NamedValueFormatter {
     public static String formatExpressions(String format, Object root) {
         return format(format, EXPRESSION_PATTERN, expression -> new SpELExpressionBuilder(expression)
                 .withPluginVariables()
-                .withVariable("server", Bukkit.getServer())
-                .withVariable("discordsrv", DiscordSRV.getPlugin())
-                .withVariable("jda", DiscordUtil.getJda())
                 .evaluate(root)
         );
     }
@@ -89,9 +83,6 @@ public abstract class NamedValueFormatter {
     public static String formatExpressions(String format, Object root, Map<String, Object> variables) {
         return format(format, EXPRESSION_PATTERN, expression -> new SpELExpressionBuilder(expression)
                 .withPluginVariables()
-                .withVariable("server", Bukkit.getServer())
-                .withVariable("discordsrv", DiscordSRV.getPlugin())
-                .withVariable("jda", DiscordUtil.getJda())
                 .withVariables(variables)
                 .evaluate(root)
         );
@@ -88,7 +88,7 @@ public class PlaceholderUtil {
         final Map<String, String> mem = MemUtil.get();
 
         input = input.replaceAll("%time%|%date%", notNull(TimeUtil.timeStamp()))
-                .replace("%playercount%", notNull(Integer.toString(PlayerUtil.getOnlinePlayers(true).size())))
+                .replace("%playercount%", notNull(Integer.toString(PlayerUtil.getOnlinePlayerSnapshot(true).size())))
                 .replace("%playermax%", notNull(Integer.toString(Bukkit.getMaxPlayers())))
                 .replace("%totalplayers%", notNull(Integer.toString(DiscordSRV.getTotalPlayerCount())))
                 .replace("%uptimemins%", notNull(Long.toString(TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis() - DiscordSRV.getPlugin().getStartTime()))))
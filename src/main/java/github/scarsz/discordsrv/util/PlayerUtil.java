@@ -24,6 +24,7 @@ import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
 import github.scarsz.discordsrv.hooks.PluginHook;
 import github.scarsz.discordsrv.hooks.vanish.VanishHook;
+import github.scarsz.discordsrv.objects.OnlinePlayerRegistry;
 import net.dv8tion.jda.api.entities.User;
 import org.apache.commons.lang3.StringUtils;
 import org.bukkit.Bukkit;
@@ -32,6 +33,7 @@ import org.bukkit.Sound;
 import org.bukkit.command.CommandSender;
 import org.bukkit.entity.Entity;
 import org.bukkit.entity.Player;
+import org.jetbrains.annotations.ApiStatus;
 
 import java.lang.reflect.Method;
 import java.util.*;
@@ -50,6 +52,41 @@ public class PlayerUtil {
      * @return {@code ArrayList} containing online players
      */
     public static List<Player> getOnlinePlayers(boolean filterVanishedPlayers) {
+        return new ArrayList<>(getOnlinePlayerSnapshot(filterVanishedPlayers));
+    }
+
+    @ApiStatus.Internal
+    public static List<Player> getOnlinePlayerSnapshot() {
+        return getOnlinePlayerSnapshot(false);
+    }
+
+    /**
+     * Get the online players without copying them, for DiscordSRV's own read-only use
+     * @param filterVanishedPlayers whether to filter out vanished players
+     * @return {@code List} containing online players, which must not be modified
+     */
+    @ApiStatus.Internal
+    public static List<Player> getOnlinePlayerSnapshot(boolean filterVanishedPlayers) {
+        OnlinePlayerRegistry registry = DiscordSRV.getPlugin() != null ? DiscordSRV.getPlugin().getOnlinePlayerRegistry() : null;
+        if (registry != null) {
+            return filterVanishedPlayers ? registry.getVisiblePlayers() : registry.getPlayers();
+        }
+
+        List<Player> onlinePlayers = lookupOnlinePlayers();
+        if (!filterVanishedPlayers) {
+            return onlinePlayers;
+        } else {
+            return onlinePlayers.stream()
+                    .filter(player -> !isVanished(player))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Get the online players from the server itself instead of the {@link OnlinePlayerRegistry}
+     * @return {@code ArrayList} containing online players
+     */
+    public static List<Player> lookupOnlinePlayers() {
         List<Player> onlinePlayers = new ArrayList<>();
 
         try {
@@ -65,13 +102,7 @@ public class PlayerUtil {
             DiscordSRV.error(e);
         }
 
-        if (!filterVanishedPlayers) {
-            return onlinePlayers;
-        } else {
-            return onlinePlayers.stream()
-                    .filter(player -> !isVanished(player))
-                    .collect(Collectors.toList());
-        }
+        return onlinePlayers;
     }
 
     private static Sound notificationSound = null;
@@ -140,7 +171,7 @@ public class PlayerUtil {
                         })
                         .collect(Collectors.toList());
 
-        getOnlinePlayers().stream()
+        getOnlinePlayerSnapshot().stream()
                 .filter(predicate) // apply predicate to filter out players that didn't get this message sent to them
                 .filter(player -> // filter out players who's name nor display name is in the split message
                         splitMessage.contains("@" + player.getName().toLowerCase()) || splitMessage.contains("@" + MessageUtil.strip(player.getDisplayName().toLowerCase()))
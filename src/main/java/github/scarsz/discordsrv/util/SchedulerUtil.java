@@ -100,6 +100,16 @@ public class SchedulerUtil {
         Bukkit.getScheduler().runTaskAsynchronously(plugin, runnable);
     }
 
+    public static void runTaskTimer(Plugin plugin, Runnable runnable, long initialDelayTicks, long periodTicks) {
+        if (isFolia()) {
+            Object globalRegionScheduler = getGlobalRegionScheduler();
+            callMethod(globalRegionScheduler, "runAtFixedRate", new Class[]{Plugin.class, Consumer.class, long.class, long.class},
+                       plugin, (Consumer<?>) (task) -> runnable.run(), Math.max(1, initialDelayTicks), periodTicks);
+            return;
+        }
+        Bukkit.getScheduler().runTaskTimer(plugin, runnable, initialDelayTicks, periodTicks);
+    }
+
     public static void runTaskTimerAsynchronously(Plugin plugin, Runnable runnable, long initialDelayTicks, long periodTicks) {
         if (isFolia()) {
             Object asyncScheduler = getAsyncScheduler();
@@ -20,25 +20,107 @@
 
 package github.scarsz.discordsrv.util;
 
+import github.scarsz.discordsrv.DiscordSRV;
 import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
+import org.springframework.expression.Expression;
 import org.springframework.expression.ExpressionParser;
 import org.springframework.expression.ParseException;
+import org.springframework.expression.spel.SpelCompilerMode;
 import org.springframework.expression.spel.SpelEvaluationException;
+import org.springframework.expression.spel.SpelParserConfiguration;
 import org.springframework.expression.spel.standard.SpelExpressionParser;
 import org.springframework.expression.spel.support.StandardEvaluationContext;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
 public class SpELExpressionBuilder {
 
-    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    // mixed mode compiles expressions once they've been evaluated a few times,
+    // falling back to interpreting them if the compiled version fails (eg. when the root object's type changes)
+    private static final ExpressionParser PARSER = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, SpELExpressionBuilder.class.getClassLoader()));
+
+    // expressions come from the config so this is plenty, it's only there in case something feeds us dynamic expressions
+    private static final int CACHE_LIMIT = 512;
+    private static final Map<String, Expression> CACHE = new ConcurrentHashMap<>();
+    private static final LongAdder HITS = new LongAdder();
+    private static final LongAdder MISSES = new LongAdder();
+    private static volatile Map<String, Object> sharedVariables = null;
 
     private final String expression;
     private final Map<String, Object> variables = new HashMap<>();
+    private boolean useSharedVariables = false;
+
+    /**
+     * Get the parsed expression for the given source, parsing it if it hasn't been parsed yet
+     * @param expression the expression
+     * @return the parsed expression
+     * @throws ParseException if the expression is invalid
+     */
+    public static Expression parse(String expression) throws ParseException {
+        Expression parsed = CACHE.get(expression);
+        if (parsed != null) {
+            HITS.increment();
+            return parsed;
+        }
+
+        MISSES.increment();
+        parsed = PARSER.parseExpression(expression);
+        if (CACHE.size() >= CACHE_LIMIT) CACHE.clear();
+        CACHE.put(expression, parsed);
+        return parsed;
+    }
+
+    /**
+     * Create an evaluation context for the given root object with the shared variables
+     * ({@code plugins}, {@code server}, {@code discordsrv} &amp; {@code jda}) available.
+     * Variables set on the returned context take precedence over the shared ones.
+     * @param root the root object
+     * @return the context
+     */
+    public static StandardEvaluationContext createContext(Object root) {
+        return new SharedVariablesEvaluationContext(root, getSharedVariables());
+    }
+
+    /**
+     * Drop all parsed expressions &amp; the shared variables, used when the config is reloaded
+     */
+    public static void clearCache() {
+        CACHE.clear();
+        sharedVariables = null;
+    }
+
+    /**
+     * @return a human readable summary of the expression cache for the debug report
+     */
+    public static String getCacheStatistics() {
+        long hits = HITS.sum();
+        long misses = MISSES.sum();
+        long total = hits + misses;
+        return "size " + CACHE.size()
+                + ", hits " + hits
+                + ", misses " + misses
+                + ", hit rate " + (total == 0 ? "n/a" : String.format("%.1f%%", hits * 100D / total));
+    }
+
+    private static Map<String, Object> getSharedVariables() {
+        Map<String, Object> shared = sharedVariables;
+        if (shared == null) {
+            Map<String, Object> map = new HashMap<>();
+            map.put("server", Bukkit.getServer());
+            map.put("discordsrv", DiscordSRV.getPlugin());
+            map.put("jda", DiscordUtil.getJda());
+            sharedVariables = shared = Collections.unmodifiableMap(map);
+        }
+        return shared;
+    }
 
     public SpELExpressionBuilder(String expression) {
         this.expression = expression;
@@ -54,10 +136,11 @@ public class SpELExpressionBuilder {
         return this;
     }
 
+    /**
+     * Make the shared variables ({@code plugins}, {@code server}, {@code discordsrv} &amp; {@code jda}) available
+     */
     public SpELExpressionBuilder withPluginVariables() {
-        variables.put("plugins", Arrays.stream(Bukkit.getPluginManager().getPlugins())
-                .collect(Collectors.toMap(Plugin::getName, plugin -> plugin))
-        );
+        this.useSharedVariables = true;
         return this;
     }
 
@@ -66,9 +149,42 @@ public class SpELExpressionBuilder {
     }
 
     public <T> T evaluate(Object root, Class<T> desiredType) throws ParseException, SpelEvaluationException {
-        StandardEvaluationContext context = new StandardEvaluationContext(root);
+        StandardEvaluationContext context = useSharedVariables ? createContext(root) : new StandardEvaluationContext(root);
         context.setVariables(variables);
-        return PARSER.parseExpression(this.expression).getValue(context, desiredType);
+        return parse(this.expression).getValue(context, desiredType);
+    }
+
+    private static Map<String, Plugin> getPlugins() {
+        return Collections.unmodifiableMap(Arrays.stream(Bukkit.getPluginManager().getPlugins())
+                .collect(Collectors.toMap(Plugin::getName, plugin -> plugin, (a, b) -> a)));
+    }
+
+    /**
+     * Looks up variables in the shared (immutable) variables when they aren't set on the context itself,
+     * so the shared variables don't have to be copied into every context.
+     * {@code plugins} is looked up per context since plugins can be enabled &amp; disabled at any time
+     */
+    private static class SharedVariablesEvaluationContext extends StandardEvaluationContext {
+
+        private final Map<String, Object> sharedVariables;
+        private Map<String, Plugin> plugins = null;
+
+        private SharedVariablesEvaluationContext(Object root, Map<String, Object> sharedVariables) {
+            super(root);
+            this.sharedVariables = sharedVariables;
+        }
+
+        @Override
+        public Object lookupVariable(String name) {
+            Object value = super.lookupVariable(name);
+            if (value != null) return value;
+            if ("plugins".equals(name)) {
+                if (plugins == null) plugins = getPlugins();
+                return plugins;
+            }
+            return sharedVariables.get(name);
+        }
+
     }
 
 }
@@ -21,56 +21,69 @@
 package github.scarsz.discordsrv.util;
 
 import github.scarsz.discordsrv.DiscordSRV;
+import github.scarsz.discordsrv.objects.CachedDateFormat;
 
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * <p>Thread-safe timestamp formatting, shared by the console forwarding, chat formatting &amp; webhook threads.</p>
+ * <p>Formats remember the text they rendered for the current second, so most calls are a comparison &amp; a volatile read.</p>
+ */
 public class TimeUtil {
 
-    private static final Date date = new Date();
-    private static final SimpleDateFormat timestampFormat;
-    private static final SimpleDateFormat dateFormat;
-    private static final SimpleDateFormat consoleTimeFormat;
+    private static final int PATTERN_CACHE_LIMIT = 64;
+    private static final Map<String, CachedDateFormat> PATTERNS = new ConcurrentHashMap<>();
+    private static final CachedDateFormat timestampFormat;
+    private static final CachedDateFormat dateFormat;
+    private static final CachedDateFormat consoleTimeFormat;
     private static final TimeZone zone;
 
     static {
-        timestampFormat = new SimpleDateFormat(DiscordSRV.config().getOptionalString("TimestampFormat").orElse("EEE, d. MMM yyyy HH:mm:ss z"));
-        dateFormat = new SimpleDateFormat(DiscordSRV.config().getOptionalString("DateFormat").orElse("yyyy-MM-dd"));
-        consoleTimeFormat = new SimpleDateFormat(DiscordSRV.config().getOptionalString("DiscordConsoleChannelTimestampFormat").orElse("EEE HH:mm:ss"));
-
         String timezone = DiscordSRV.config().getOptionalString("Timezone").orElse("default");
         zone = timezone.equalsIgnoreCase("default") ? TimeZone.getDefault() : TimeZone.getTimeZone(timezone);
-        timestampFormat.setTimeZone(zone);
-        dateFormat.setTimeZone(zone);
-        consoleTimeFormat.setTimeZone(zone);
+
+        timestampFormat = new CachedDateFormat(DiscordSRV.config().getOptionalString("TimestampFormat").orElse("EEE, d. MMM yyyy HH:mm:ss z"), zone);
+        dateFormat = new CachedDateFormat(DiscordSRV.config().getOptionalString("DateFormat").orElse("yyyy-MM-dd"), zone);
+        consoleTimeFormat = new CachedDateFormat(DiscordSRV.config().getOptionalString("DiscordConsoleChannelTimestampFormat").orElse("EEE HH:mm:ss"), zone);
     }
 
     public static String format(String format) {
-        return format(new SimpleDateFormat(format));
+        CachedDateFormat cachedFormat = PATTERNS.get(format);
+        if (cachedFormat == null) {
+            if (PATTERNS.size() >= PATTERN_CACHE_LIMIT) PATTERNS.clear();
+            cachedFormat = new CachedDateFormat(format, TimeZone.getDefault());
+            PATTERNS.put(format, cachedFormat);
+        }
+        return cachedFormat.format(System.currentTimeMillis());
     }
     public static String format(long time) {
-        return format(time, timestampFormat);
+        return timestampFormat.format(time);
     }
     public static String format(SimpleDateFormat format) {
         return format(System.currentTimeMillis(), format);
     }
     public static String format(long timestamp, SimpleDateFormat format) {
-        date.setTime(timestamp);
-        return format.format(date);
+        // SimpleDateFormat isn't thread-safe
+        synchronized (format) {
+            return format.format(new Date(timestamp));
+        }
     }
 
     public static String date() {
-        return format(dateFormat);
+        return dateFormat.format(System.currentTimeMillis());
     }
     public static String timeStamp() {
-        return format(timestampFormat);
+        return timestampFormat.format(System.currentTimeMillis());
     }
     public static String consoleTimeStamp() {
         return format(System.currentTimeMillis());
     }
     public static String consoleTimeStamp(long timestamp) {
-        return format(timestamp, consoleTimeFormat);
+        return consoleTimeFormat.format(timestamp);
     }
 
 }
@@ -22,6 +22,9 @@ package github.scarsz.discordsrv.util;
 
 import github.scarsz.discordsrv.Debug;
 import github.scarsz.discordsrv.DiscordSRV;
+import github.scarsz.discordsrv.objects.RegexFilterChain;
+import github.scarsz.discordsrv.objects.WebhookContext;
+import github.scarsz.discordsrv.objects.WebhookDeliveryQueue;
 import net.dv8tion.jda.api.Permission;
 import net.dv8tion.jda.api.entities.*;
 import net.dv8tion.jda.api.interactions.components.ActionRow;
@@ -38,9 +41,7 @@ import org.json.JSONObject;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Predicate;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 public class WebhookUtil {
@@ -116,6 +117,15 @@ public class WebhookUtil {
     }
 
     public static void deliverMessage(TextChannel channel, OfflinePlayer player, String displayName, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions) {
+        deliverMessage(getDefaultContext(), channel, player, displayName, message, embeds, attachments, interactions);
+    }
+
+    @SuppressWarnings("deprecation")
+    public static void deliverMessage(WebhookContext context, TextChannel channel, Player player, String message) {
+        deliverMessage(context, channel, player, player.getDisplayName(), message, null, null, null);
+    }
+
+    public static void deliverMessage(WebhookContext context, TextChannel channel, OfflinePlayer player, String displayName, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions) {
         SchedulerUtil.runTaskAsynchronously(DiscordSRV.getPlugin(), () -> {
             String avatarUrl;
             if (player instanceof Player) {
@@ -136,20 +146,14 @@ public class WebhookUtil {
             username = PlaceholderUtil.replacePlaceholdersToDiscord(username, player);
             username = MessageUtil.strip(username);
 
-            for (Map.Entry<Pattern, String> entry : DiscordSRV.getPlugin().getGameRegexes().entrySet()) {
-                username = entry.getKey().matcher(username).replaceAll(entry.getValue());
-                chatMessage = entry.getKey().matcher(chatMessage).replaceAll(entry.getValue());
+            RegexFilterChain gameFilters = DiscordSRV.getPlugin().getGameFilters();
+            username = gameFilters.filter(username, pattern ->
+                    DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Not processing Minecraft message because the webhook username was cleared by a filter: " + pattern));
+            if (username == null) return;
 
-                if (StringUtils.isBlank(username)) {
-                    DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Not processing Minecraft message because the webhook username was cleared by a filter: " + entry.getKey().pattern());
-                    return;
-                }
-
-                if (StringUtils.isBlank(chatMessage)) {
-                    DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Not processing Minecraft message because the webhook content was cleared by a filter: " + entry.getKey().pattern());
-                    return;
-                }
-            }
+            chatMessage = gameFilters.filter(chatMessage, pattern ->
+                    DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Not processing Minecraft message because the webhook content was cleared by a filter: " + pattern));
+            if (chatMessage == null) return;
 
             String userId = DiscordSRV.getPlugin().getAccountLinkManager().getDiscordId(player.getUniqueId());
             if (userId != null) {
@@ -174,75 +178,83 @@ public class WebhookUtil {
                 username = username.substring(0, 80);
             }
 
-            deliverMessage(channel, username, avatarUrl, chatMessage, embeds, attachments, interactions);
+            deliverMessage(context, channel, username, avatarUrl, chatMessage, embeds, attachments, interactions, true);
         });
     }
 
     public static void deliverMessage(TextChannel channel, String webhookName, String webhookAvatarUrl, String message, MessageEmbed embed) {
-        executeWebhook(channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), null, null, true, true);
+        executeWebhook(getDefaultContext(), channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), null, null, true, true);
     }
 
     public static void deliverMessage(TextChannel channel, String webhookName, String webhookAvatarUrl, String message, MessageEmbed embed, boolean scheduleAsync) {
-        executeWebhook(channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), null, null, true, scheduleAsync);
+        executeWebhook(getDefaultContext(), channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), null, null, true, scheduleAsync);
     }
 
     public static void deliverMessage(TextChannel channel, String webhookName, String webhookAvatarUrl, String message, Collection<? extends MessageEmbed> embeds) {
-        executeWebhook(channel, webhookName, webhookAvatarUrl, null, message, embeds, null, null, true, true);
+        executeWebhook(getDefaultContext(), channel, webhookName, webhookAvatarUrl, null, message, embeds, null, null, true, true);
     }
 
     public static void deliverMessage(TextChannel channel, String webhookName, String webhookAvatarUrl, String message, Collection<? extends MessageEmbed> embeds, boolean scheduleAsync) {
-        executeWebhook(channel, webhookName, webhookAvatarUrl, null, message, embeds, null, null, true, scheduleAsync);
+        executeWebhook(getDefaultContext(), channel, webhookName, webhookAvatarUrl, null, message, embeds, null, null, true, scheduleAsync);
     }
 
     public static void deliverMessage(TextChannel channel, String webhookName, String webhookAvatarUrl, String message, MessageEmbed embed, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions) {
-        executeWebhook(channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), attachments, interactions, true, true);
+        executeWebhook(getDefaultContext(), channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), attachments, interactions, true, true);
     }
 
     public static void deliverMessage(TextChannel channel, String webhookName, String webhookAvatarUrl, String message, MessageEmbed embed, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions, boolean scheduleAsync) {
-        executeWebhook(channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), attachments, interactions, true, scheduleAsync);
+        executeWebhook(getDefaultContext(), channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), attachments, interactions, true, scheduleAsync);
     }
 
     public static void deliverMessage(TextChannel channel, String webhookName, String webhookAvatarUrl, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions) {
-        executeWebhook(channel, webhookName, webhookAvatarUrl, null, message, embeds, attachments, interactions, true, true);
+        executeWebhook(getDefaultContext(), channel, webhookName, webhookAvatarUrl, null, message, embeds, attachments, interactions, true, true);
     }
 
     public static void deliverMessage(TextChannel channel, String webhookName, String webhookAvatarUrl, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions, boolean scheduleAsync) {
-        executeWebhook(channel, webhookName, webhookAvatarUrl, null, message, embeds, attachments, interactions, true, scheduleAsync);
+        executeWebhook(getDefaultContext(), channel, webhookName, webhookAvatarUrl, null, message, embeds, attachments, interactions, true, scheduleAsync);
+    }
+
+    public static void deliverMessage(WebhookContext context, TextChannel channel, String webhookName, String webhookAvatarUrl, String message, MessageEmbed embed) {
+        executeWebhook(context, channel, webhookName, webhookAvatarUrl, null, message, Collections.singletonList(embed), null, null, true, true);
+    }
+
+    public static void deliverMessage(WebhookContext context, TextChannel channel, String webhookName, String webhookAvatarUrl, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions, boolean scheduleAsync) {
+        executeWebhook(context, channel, webhookName, webhookAvatarUrl, null, message, embeds, attachments, interactions, true, scheduleAsync);
     }
 
     public static void editMessage(TextChannel channel, String editMessageId, String message, MessageEmbed embed) {
-        executeWebhook(channel, null, null, editMessageId, message, Collections.singletonList(embed), null, null, true, true);
+        executeWebhook(getDefaultContext(), channel, null, null, editMessageId, message, Collections.singletonList(embed), null, null, true, true);
     }
 
     public static void editMessage(TextChannel channel, String editMessageId, String message, MessageEmbed embed, boolean scheduleAsync) {
-        executeWebhook(channel, null, null, editMessageId, message, Collections.singletonList(embed), null, null, true, scheduleAsync);
+        executeWebhook(getDefaultContext(), channel, null, null, editMessageId, message, Collections.singletonList(embed), null, null, true, scheduleAsync);
     }
 
     public static void editMessage(TextChannel channel, String editMessageId, String message, Collection<? extends MessageEmbed> embeds) {
-        executeWebhook(channel, null, null, editMessageId, message, embeds, null, null, true, true);
+        executeWebhook(getDefaultContext(), channel, null, null, editMessageId, message, embeds, null, null, true, true);
     }
 
     public static void editMessage(TextChannel channel, String editMessageId, String message, Collection<? extends MessageEmbed> embeds, boolean scheduleAsync) {
-        executeWebhook(channel, null, null, editMessageId, message, embeds, null, null, true, scheduleAsync);
+        executeWebhook(getDefaultContext(), channel, null, null, editMessageId, message, embeds, null, null, true, scheduleAsync);
     }
 
     public static void editMessage(TextChannel channel, String editMessageId, String message, MessageEmbed embed, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions) {
-        executeWebhook(channel, null, null, editMessageId, message, Collections.singletonList(embed), attachments, interactions, true, true);
+        executeWebhook(getDefaultContext(), channel, null, null, editMessageId, message, Collections.singletonList(embed), attachments, interactions, true, true);
     }
 
     public static void editMessage(TextChannel channel, String editMessageId, String message, MessageEmbed embed, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions, boolean scheduleAsync) {
-        executeWebhook(channel, null, null, editMessageId, message, Collections.singletonList(embed), attachments, interactions, true, scheduleAsync);
+        executeWebhook(getDefaultContext(), channel, null, null, editMessageId, message, Collections.singletonList(embed), attachments, interactions, true, scheduleAsync);
     }
 
     public static void editMessage(TextChannel channel, String editMessageId, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions) {
-        executeWebhook(channel, null, null, editMessageId, message, embeds, attachments, interactions, true, true);
+        executeWebhook(getDefaultContext(), channel, null, null, editMessageId, message, embeds, attachments, interactions, true, true);
     }
 
     public static void editMessage(TextChannel channel, String editMessageId, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions, boolean scheduleAsync) {
-        executeWebhook(channel, null, null, editMessageId, message, embeds, attachments, interactions, true, scheduleAsync);
+        executeWebhook(getDefaultContext(), channel, null, null, editMessageId, message, embeds, attachments, interactions, true, scheduleAsync);
     }
 
-    private static void executeWebhook(TextChannel channel, String webhookName, String webhookAvatarUrl, String editMessageId, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions, boolean allowSecondAttempt, boolean scheduleAsync) {
+    private static void executeWebhook(WebhookContext context, TextChannel channel, String webhookName, String webhookAvatarUrl, String editMessageId, String message, Collection<? extends MessageEmbed> embeds, Map<String, InputStream> attachments, Collection<? extends ActionRow> interactions, boolean allowSecondAttempt, boolean scheduleAsync) {
         if (channel == null) {
             if (attachments != null) {
                 attachments.values().forEach(inputStream -> {
@@ -255,175 +267,206 @@ public class WebhookUtil {
             return;
         }
 
-        String webhookUrlForChannel = getWebhookUrlToUseForChannel(channel);
-        if (webhookUrlForChannel == null) {
-            if (attachments != null) {
-                attachments.values().forEach(inputStream -> {
-                    try {
-                        inputStream.close();
-                    } catch (IOException ignore) {
-                    }
-                });
-            }
-            return;
+        WebhookDeliveryQueue.Delivery delivery = new WebhookDeliveryQueue.Delivery(
+                channel, webhookName, webhookAvatarUrl, editMessageId, message, embeds, attachments, interactions, allowSecondAttempt
+        );
+        if (scheduleAsync) {
+            context.getDeliveryQueue().submit(delivery);
+        } else {
+            // caller expects the message to be sent by the time this returns, don't make it wait for the channel's backlog
+            context.getDeliveryQueue().sendNow(delivery);
         }
+    }
 
+    /**
+     * @return the context used to execute webhooks as DiscordSRV's own bot
+     */
+    public static WebhookContext getDefaultContext() {
+        return DiscordSRV.getPlugin().getWebhookContext();
+    }
+
+    public static WebhookDeliveryQueue.Result sendDelivery(WebhookDeliveryQueue.Delivery delivery) throws IOException {
+        return sendDelivery(getDefaultContext(), delivery);
+    }
+
+    /**
+     * Send the given delivery to its channel's webhook right away, without going through the delivery queue
+     * @param context the context to resolve the webhook &amp; send the request with
+     * @param delivery the delivery to send
+     * @return the response status &amp; rate limit information returned by Discord
+     * @throws IOException if the request failed
+     * @see WebhookContext#getDeliveryQueue()
+     */
+    public static WebhookDeliveryQueue.Result sendDelivery(WebhookContext context, WebhookDeliveryQueue.Delivery delivery) throws IOException {
+        TextChannel channel = delivery.getChannel();
+        String editMessageId = delivery.getEditMessageId();
+        String message = delivery.getMessage();
+        Collection<? extends MessageEmbed> embeds = delivery.getEmbeds();
+        Map<String, InputStream> attachments = delivery.getAttachments();
+        Collection<? extends ActionRow> interactions = delivery.getInteractions();
+
+        String webhookUrl = getWebhookUrlToUseForChannel(context, channel);
+        if (webhookUrl == null) return new WebhookDeliveryQueue.Result(0, -1, -1, -1, false);
         if (editMessageId != null) {
-            webhookUrlForChannel += "/messages/" + editMessageId;
+            webhookUrl += "/messages/" + editMessageId;
         }
-        String webhookUrl = webhookUrlForChannel;
 
-        Runnable task = () -> {
-            try {
-                JSONObject jsonObject = new JSONObject();
-                if (editMessageId == null) {
-                    String webName = webhookName;
-                    for (Map.Entry<Pattern, String> entry : DiscordSRV.getPlugin().getWebhookUsernameRegexes().entrySet()) {
-                        webName = entry.getKey().matcher(webName).replaceAll(entry.getValue());
-                    }
-
-                    // Handle Discord banned words in a way that isn't against their developer policy
-                    String username = webName;
-                    username = username
-                            .replaceAll("(?i)(cly)d(e)", "$1*$2")
-                            .replaceAll("(?i)(d)i(scord)", "$1*$2");
-                    if (!username.equals(webName) && loggedBannedWords) {
-                        DiscordSRV.info("Some webhook usernames are being altered to remove blocked words (eg. Clyde and Discord)");
-                        loggedBannedWords = true;
-                    }
+        JSONObject jsonObject = new JSONObject();
+        if (editMessageId == null) {
+            String webName = DiscordSRV.getPlugin().getWebhookUsernameFilters().apply(delivery.getWebhookName());
+
+            // Handle Discord banned words in a way that isn't against their developer policy
+            String username = webName;
+            username = username
+                    .replaceAll("(?i)(cly)d(e)", "$1*$2")
+                    .replaceAll("(?i)(d)i(scord)", "$1*$2");
+            if (!username.equals(webName) && loggedBannedWords) {
+                DiscordSRV.info("Some webhook usernames are being altered to remove blocked words (eg. Clyde and Discord)");
+                loggedBannedWords = true;
+            }
 
-                    jsonObject.put("username", username);
-                    jsonObject.put("avatar_url", webhookAvatarUrl);
-                }
+            jsonObject.put("username", username);
+            jsonObject.put("avatar_url", delivery.getWebhookAvatarUrl());
+        }
 
-                if (StringUtils.isNotBlank(message)) jsonObject.put("content", message);
-                if (embeds != null) {
-                    JSONArray jsonArray = new JSONArray();
-                    for (MessageEmbed embed : embeds) {
-                        if (embed != null) {
-                            jsonArray.put(embed.toData().toMap());
-                        }
-                    }
-                    jsonObject.put("embeds", jsonArray);
-                }
-                if (interactions != null) {
-                    JSONArray jsonArray = new JSONArray();
-                    for (ActionRow actionRow : interactions) {
-                        jsonArray.put(actionRow.toData().toMap());
-                    }
-                    jsonObject.put("components", jsonArray);
-                }
-                List<String> attachmentIndex = null;
-                if (attachments != null) {
-                    attachmentIndex = new ArrayList<>(attachments.size());
-                    JSONArray jsonArray = new JSONArray();
-                    int i = 0;
-                    for (String name : attachments.keySet()) {
-                        attachmentIndex.add(name);
-                        JSONObject attachmentObject = new JSONObject();
-                        attachmentObject.put("id", i);
-                        attachmentObject.put("filename", name);
-                        jsonArray.put(attachmentObject);
-                        i++;
-                    }
-                    jsonObject.put("attachments", jsonArray);
+        if (StringUtils.isNotBlank(message)) jsonObject.put("content", message);
+        if (embeds != null) {
+            JSONArray jsonArray = new JSONArray();
+            for (MessageEmbed embed : embeds) {
+                if (embed != null) {
+                    jsonArray.put(embed.toData().toMap());
                 }
+            }
+            jsonObject.put("embeds", jsonArray);
+        }
+        if (interactions != null) {
+            JSONArray jsonArray = new JSONArray();
+            for (ActionRow actionRow : interactions) {
+                jsonArray.put(actionRow.toData().toMap());
+            }
+            jsonObject.put("components", jsonArray);
+        }
+        List<String> attachmentIndex = null;
+        if (attachments != null) {
+            attachmentIndex = new ArrayList<>(attachments.size());
+            JSONArray jsonArray = new JSONArray();
+            int i = 0;
+            for (String name : attachments.keySet()) {
+                attachmentIndex.add(name);
+                JSONObject attachmentObject = new JSONObject();
+                attachmentObject.put("id", i);
+                attachmentObject.put("filename", name);
+                jsonArray.put(attachmentObject);
+                i++;
+            }
+            jsonObject.put("attachments", jsonArray);
+        }
 
-                JSONObject allowedMentions = new JSONObject();
-                Set<String> parse = MessageAction.getDefaultMentions().stream()
-                        .filter(Objects::nonNull)
-                        .map(Message.MentionType::getParseKey)
-                        .collect(Collectors.toSet());
-                allowedMentions.put("parse", parse);
-                jsonObject.put("allowed_mentions", allowedMentions);
-
-                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Sending webhook payload: " + jsonObject);
-
-                MultipartBody.Builder bodyBuilder = new MultipartBody.Builder().setType(MultipartBody.FORM);
-                bodyBuilder.addFormDataPart("payload_json", null, RequestBody.create(MediaType.get("application/json"), jsonObject.toString()));
-
-                if (attachmentIndex != null) {
-                    for (int i = 0; i < attachmentIndex.size(); i++) {
-                        String name = attachmentIndex.get(i);
-                        InputStream data = attachments.get(name);
-                        if (data != null) {
-                            bodyBuilder.addFormDataPart("files[" + i + "]", name, new BufferedRequestBody(Okio.source(data), null));
-                            data.close();
-                        }
-                    }
+        JSONObject allowedMentions = new JSONObject();
+        Set<String> parse = MessageAction.getDefaultMentions().stream()
+                .filter(Objects::nonNull)
+                .map(Message.MentionType::getParseKey)
+                .collect(Collectors.toSet());
+        allowedMentions.put("parse", parse);
+        jsonObject.put("allowed_mentions", allowedMentions);
+
+        DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Sending webhook payload: " + jsonObject);
+
+        MultipartBody.Builder bodyBuilder = new MultipartBody.Builder().setType(MultipartBody.FORM);
+        bodyBuilder.addFormDataPart("payload_json", null, RequestBody.create(MediaType.get("application/json"), jsonObject.toString()));
+
+        if (attachmentIndex != null) {
+            for (int i = 0; i < attachmentIndex.size(); i++) {
+                String name = attachmentIndex.get(i);
+                InputStream data = attachments.get(name);
+                if (data != null) {
+                    bodyBuilder.addFormDataPart("files[" + i + "]", name, new BufferedRequestBody(Okio.source(data), null));
+                    data.close();
                 }
+            }
+        }
 
-                Request.Builder requestBuilder = new Request.Builder().url(webhookUrl)
-                        .header("User-Agent", "DiscordSRV/" + DiscordSRV.getPlugin().getDescription().getVersion());
-                if (editMessageId == null) {
-                    requestBuilder.post(bodyBuilder.build());
-                } else {
-                    requestBuilder.patch(bodyBuilder.build());
-                }
+        Request.Builder requestBuilder = new Request.Builder().url(webhookUrl)
+                .header("User-Agent", "DiscordSRV/" + DiscordSRV.getPlugin().getDescription().getVersion());
+        if (editMessageId == null) {
+            requestBuilder.post(bodyBuilder.build());
+        } else {
+            requestBuilder.patch(bodyBuilder.build());
+        }
 
-                OkHttpClient httpClient = DiscordSRV.getPlugin().getJda().getHttpClient();
-                try (Response response = httpClient.newCall(requestBuilder.build()).execute()) {
-                    int status = response.code();
-                    if (status == 404) {
-                        // 404 = Invalid Webhook (most likely to have been deleted)
-                        DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Webhook delivery returned 404, marking webhooks URLs as invalid to let them regenerate" + (allowSecondAttempt ? " & trying again" : ""));
-                        invalidWebhookUrlForChannel(channel); // tell it to get rid of the urls & get new ones
-                        if (allowSecondAttempt)
-                            executeWebhook(channel, webhookName, webhookAvatarUrl, editMessageId, message, embeds, attachments, interactions, false, scheduleAsync);
-                        return;
-                    }
-                    String body = response.body().string();
-                    try {
-                        JSONObject jsonObj = new JSONObject(body);
-                        if (jsonObj.has("code")) {
-                            // 10015 = unknown webhook, https://discord.com/developers/docs/topics/opcodes-and-status-codes#json-json-error-codes
-                            if (jsonObj.getInt("code") == 10015) {
-                                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Webhook delivery returned 10015 (Unknown Webhook), marking webhooks url's as invalid to let them regenerate" + (allowSecondAttempt ? " & trying again" : ""));
-                                invalidWebhookUrlForChannel(channel); // tell it to get rid of the urls & get new ones
-                                if (allowSecondAttempt)
-                                    executeWebhook(channel, webhookName, webhookAvatarUrl, editMessageId, message, embeds, attachments, interactions, false, scheduleAsync);
-                                return;
-                            }
-                        }
-                    } catch (Throwable ignored) {
-                    }
-                    if (editMessageId == null ? status == 204 : status == 200) {
-                        DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Received API response for webhook message delivery: " + status);
-                    } else {
-                        DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Received unexpected API response for webhook message delivery: " + status + " for request: " + jsonObject.toString() + ", response: " + body);
+        OkHttpClient httpClient = context.getHttpClient();
+        try (Response response = httpClient.newCall(requestBuilder.build()).execute()) {
+            int status = response.code();
+            int remaining = parseInt(response.header("X-RateLimit-Remaining"));
+            long resetAfter = parseSecondsToMillis(response.header("X-RateLimit-Reset-After"));
+            if (status == 404) {
+                // 404 = Invalid Webhook (most likely to have been deleted)
+                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Webhook delivery returned 404, marking webhooks URLs as invalid to let them regenerate" + (delivery.isAllowSecondAttempt() ? " & trying again" : ""));
+                invalidWebhookUrlForChannel(context, channel); // tell it to get rid of the urls & get new ones
+                return new WebhookDeliveryQueue.Result(status, remaining, resetAfter, -1, true);
+            }
+            String body = response.body().string();
+            long retryAfter = -1;
+            try {
+                JSONObject jsonObj = new JSONObject(body);
+                if (jsonObj.has("code")) {
+                    // 10015 = unknown webhook, https://discord.com/developers/docs/topics/opcodes-and-status-codes#json-json-error-codes
+                    if (jsonObj.getInt("code") == 10015) {
+                        DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Webhook delivery returned 10015 (Unknown Webhook), marking webhooks url's as invalid to let them regenerate" + (delivery.isAllowSecondAttempt() ? " & trying again" : ""));
+                        invalidWebhookUrlForChannel(context, channel); // tell it to get rid of the urls & get new ones
+                        return new WebhookDeliveryQueue.Result(status, remaining, resetAfter, -1, true);
                     }
                 }
-            } catch (Exception e) {
-                DiscordSRV.error("Failed to deliver webhook message to Discord: " + e.getMessage());
-                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, e);
-                if (attachments != null) {
-                    attachments.values().forEach(inputStream -> {
-                        try {
-                            inputStream.close();
-                        } catch (IOException ignore) {
-                        }
-                    });
+                if (status == 429 && jsonObj.has("retry_after")) {
+                    retryAfter = (long) Math.ceil(jsonObj.getDouble("retry_after") * 1000);
                 }
+            } catch (Throwable ignored) {
+            }
+            if (status == 429) {
+                if (retryAfter < 0) retryAfter = parseSecondsToMillis(response.header("Retry-After"));
+                if (retryAfter < 0) retryAfter = resetAfter;
+            } else if (editMessageId == null ? status == 204 : status == 200) {
+                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Received API response for webhook message delivery: " + status);
+            } else {
+                DiscordSRV.debug(Debug.MINECRAFT_TO_DISCORD, "Received unexpected API response for webhook message delivery: " + status + " for request: " + jsonObject.toString() + ", response: " + body);
             }
-        };
+            return new WebhookDeliveryQueue.Result(status, remaining, resetAfter, retryAfter, false);
+        }
+    }
 
-        if (scheduleAsync) {
-            SchedulerUtil.runTaskAsynchronously(DiscordSRV.getPlugin(), task);
-        } else {
-            task.run();
+    private static int parseInt(String header) {
+        if (header == null) return -1;
+        try {
+            return Integer.parseInt(header.trim());
+        } catch (NumberFormatException e) {
+            return -1;
         }
     }
 
-    private static final Map<String, String> channelWebhookUrls = new ConcurrentHashMap<>();
+    private static long parseSecondsToMillis(String header) {
+        if (header == null) return -1;
+        try {
+            return (long) Math.ceil(Double.parseDouble(header.trim()) * 1000);
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
 
     public static void invalidWebhookUrlForChannel(TextChannel textChannel) {
-        String channelId = textChannel.getId();
-        channelWebhookUrls.remove(channelId);
+        invalidWebhookUrlForChannel(getDefaultContext(), textChannel);
+    }
+
+    public static void invalidWebhookUrlForChannel(WebhookContext context, TextChannel textChannel) {
+        context.invalidateWebhookUrl(textChannel.getId());
     }
 
     public static String getWebhookUrlToUseForChannel(TextChannel channel) {
+        return getWebhookUrlToUseForChannel(getDefaultContext(), channel);
+    }
+
+    public static String getWebhookUrlToUseForChannel(WebhookContext context, TextChannel channel) {
         final String channelId = channel.getId();
-        return channelWebhookUrls.computeIfAbsent(channelId, cid -> {
+        return context.getWebhookUrl(channelId, cid -> {
             List<Webhook> hooks = new ArrayList<>();
             final Guild guild = channel.getGuild();
             final Member selfMember = guild.getSelfMember();
@@ -486,7 +529,11 @@ public class WebhookUtil {
     }
 
     public static String getWebhookUrlFromCache(TextChannel channel) {
-        return channelWebhookUrls.get(channel.getId());
+        return getWebhookUrlFromCache(getDefaultContext(), channel);
+    }
+
+    public static String getWebhookUrlFromCache(WebhookContext context, TextChannel channel) {
+        return context.getCachedWebhookUrl(channel.getId());
     }
 
 }
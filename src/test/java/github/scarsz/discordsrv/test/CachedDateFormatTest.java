@@ -0,0 +1,73 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.test;
+
+import github.scarsz.discordsrv.objects.CachedDateFormat;
+import org.junit.jupiter.api.Test;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CachedDateFormatTest {
+
+    private static final String[] COMPATIBLE = {
+            "EEE, d. MMM yyyy HH:mm:ss z", "yyyy-MM-dd", "EEE HH:mm:ss", "EEEE, MMMM d, yy", "h:mm a", "K:mm a zzzz",
+            "dd.MM.yyyy 'at' HH:mm", "''HH''mm", "'['HH:mm:ss']'", "HH:mm:ss Z", "D G", "kk:mm"
+    };
+    private static final String[] INCOMPATIBLE = {
+            "[HH:mm:ss]", "HH:mm:ss.SSS", "MMMMM", "EEEEE", "u", "F", "ww yyyy", "{HH}", "#HH", "aa", "'unterminated"
+    };
+    private static final long[] TIMESTAMPS = { 0L, 1_000_000_000_123L, 1_700_000_000_999L, 1_719_792_000_000L, 1_735_689_599_500L };
+    private static final String[] ZONES = { "UTC", "America/New_York", "Europe/Berlin", "Asia/Kolkata" };
+
+    @Test
+    public void detectCompatiblePatterns() {
+        for (String pattern : COMPATIBLE) assertTrue(CachedDateFormat.isCompatible(pattern), pattern);
+        for (String pattern : INCOMPATIBLE) assertFalse(CachedDateFormat.isCompatible(pattern), pattern);
+    }
+
+    @Test
+    public void renderLikeSimpleDateFormat() {
+        for (String zoneId : ZONES) {
+            TimeZone zone = TimeZone.getTimeZone(zoneId);
+            for (String pattern : COMPATIBLE) assertRendersLikeSimpleDateFormat(pattern, zone);
+            for (String pattern : INCOMPATIBLE) {
+                if (pattern.startsWith("'")) continue; // invalid to both
+                assertRendersLikeSimpleDateFormat(pattern, zone);
+            }
+        }
+    }
+
+    private void assertRendersLikeSimpleDateFormat(String pattern, TimeZone zone) {
+        SimpleDateFormat expected = new SimpleDateFormat(pattern);
+        expected.setTimeZone(zone);
+        CachedDateFormat actual = new CachedDateFormat(pattern, zone);
+        for (long timestamp : TIMESTAMPS) {
+            assertEquals(expected.format(new Date(timestamp)), actual.format(timestamp), pattern + " in " + zone.getID());
+        }
+    }
+
+}
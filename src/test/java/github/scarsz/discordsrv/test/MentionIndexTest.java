@@ -0,0 +1,70 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.test;
+
+import github.scarsz.discordsrv.objects.MentionIndex;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MentionIndexTest {
+
+    private MentionIndex index() {
+        MentionIndex index = new MentionIndex();
+        index.put("1", "Scarsz", "<@1>", true);
+        index.put("2", "Scarsz Jr", "<@2>", true);
+        index.put("3", "Staff", "<@&3>", false);
+        return index;
+    }
+
+    @Test
+    public void resolveMentions() {
+        MentionIndex index = index();
+        assertEquals("hi <@1>!", index.resolve("hi @scarsz!"));
+        assertEquals("hi <@2>", index.resolve("hi @SCARSZ JR"));
+        assertEquals("<@&3> <@1> @nobody", index.resolve("@staff @Scarsz @nobody"));
+        assertEquals("already <@1>", index.resolve("already <@1>"));
+        assertEquals("no mentions", index.resolve("no mentions"));
+    }
+
+    @Test
+    public void updateMentions() {
+        MentionIndex index = index();
+        index.put("1", "Austin", "<@1>", true);
+        assertEquals("@scarsz <@1>", index.resolve("@scarsz @austin"));
+        index.remove("2");
+        assertEquals("@Scarsz Jr", index.resolve("@Scarsz Jr"));
+        assertEquals(1, index.getMemberCount());
+    }
+
+    @Test
+    public void putUnchangedMention() {
+        MentionIndex index = index();
+        index.put("1", "Scarsz", "<@1>", true);
+        index.put("1", "SCARSZ", "<@1>", true);
+        assertEquals("hi <@1>", index.resolve("hi @scarsz"));
+        assertEquals(2, index.getMemberCount());
+        index.put("1", null, "<@1>", true);
+        assertEquals("hi @scarsz", index.resolve("hi @scarsz"));
+        assertEquals(1, index.getMemberCount());
+    }
+
+}
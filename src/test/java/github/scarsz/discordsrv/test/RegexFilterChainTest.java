@@ -0,0 +1,103 @@
+/*
+ * DiscordSRV - https://github.com/DiscordSRV/DiscordSRV
+ *
+ * Copyright (C) 2016 - 2024 Austin "Scarsz" Shapiro
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 3 of the
+ * License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public
+ * License along with this program.  If not, see
+ * <http://www.gnu.org/licenses/gpl-3.0.html>.
+ */
+
+package github.scarsz.discordsrv.test;
+
+import github.scarsz.discordsrv.objects.RegexFilterChain;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public class RegexFilterChainTest {
+
+    private static Map<Pattern, String> rules(String... rules) {
+        Map<Pattern, String> map = new LinkedHashMap<>();
+        for (int i = 0; i < rules.length; i += 2) {
+            map.put(Pattern.compile(rules[i], Pattern.DOTALL), rules[i + 1]);
+        }
+        return map;
+    }
+
+    private static String sequential(Map<Pattern, String> rules, String input, boolean stopIfBlank) {
+        for (Map.Entry<Pattern, String> entry : rules.entrySet()) {
+            input = entry.getKey().matcher(input).replaceAll(entry.getValue());
+            if (stopIfBlank && StringUtils.isBlank(input)) return null;
+        }
+        return input;
+    }
+
+    @Test
+    public void applyFilters() {
+        RegexFilterChain chain = new RegexFilterChain(rules(
+                "heck", "h*ck",
+                "darn", "d*rn",
+                "(?i)https?://\\S+", "<link>",
+                "^\\s*!.*", ""
+        ));
+        assertEquals("h*ck, d*rn <link>", chain.apply("heck, darn http://example.com"));
+        assertEquals("nothing to see", chain.apply("nothing to see"));
+        assertNull(chain.filter("!command", pattern -> {}));
+    }
+
+    @Test
+    public void chainedLiteralsStayInOrder() {
+        Map<Pattern, String> rules = rules("a", "b", "b", "c", "ab", "x", "bc", "y");
+        RegexFilterChain chain = new RegexFilterChain(rules);
+        for (String input : new String[] {"a", "ab", "abc", "bca", "cab"}) {
+            assertEquals(sequential(rules, input, false), chain.apply(input));
+        }
+    }
+
+    @Test
+    public void matchesSequentialFilters() {
+        Random random = new Random(42);
+        String alphabet = "ab c!";
+        for (int set = 0; set < 200; set++) {
+            String[] array = new String[2 * (1 + random.nextInt(5))];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = random(random, alphabet, i % 2 == 0 ? 1 : 0, 3);
+            }
+            Map<Pattern, String> rules = rules(array);
+            RegexFilterChain chain = new RegexFilterChain(rules);
+            for (int text = 0; text < 50; text++) {
+                String input = random(random, alphabet, 0, 12);
+                assertEquals(sequential(rules, input, false), chain.apply(input), rules + " on \"" + input + "\"");
+                assertEquals(sequential(rules, input, true), chain.filter(input, pattern -> {}), rules + " on \"" + input + "\"");
+            }
+        }
+    }
+
+    private static String random(Random random, String alphabet, int minLength, int maxLength) {
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return builder.toString();
+    }
+
+}